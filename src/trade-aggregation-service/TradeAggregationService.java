@@ -1,12 +1,23 @@
 package com.example.tradeaggregationservice;
 
+import com.example.trade.aggregation.config.AggregationConfig;
+import com.example.trade.aggregation.model.TradeEvent;
+import com.example.trade.aggregation.window.WindowedAggregationEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-@SpringBootApplication
+import java.time.ZoneOffset;
+
+@SpringBootApplication(scanBasePackages = {"com.example.tradeaggregationservice", "com.example.trade.aggregation"})
+@EnableScheduling
 public class TradeAggregationServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(TradeAggregationServiceApplication.class, args);
@@ -15,22 +26,54 @@ public class TradeAggregationServiceApplication {
 
 @Service
 class TradeAggregationService {
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(TradeAggregationService.class);
+
+    private final WindowedAggregationEngine engine;
+    private final ObjectMapper objectMapper;
+    private final long idleTimeoutMillis;
 
-    public TradeAggregationService(KafkaTemplate<String, String> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public TradeAggregationService(WindowedAggregationEngine engine, ObjectMapper objectMapper,
+            AggregationConfig config) {
+        this.engine = engine;
+        this.objectMapper = objectMapper;
+        this.idleTimeoutMillis = config.getWindow().getIdleTimeout() * 1000L;
     }
 
-    @KafkaListener(topics = "enriched-trade-events", groupId = "trade-aggregation")
-    public void aggregateTrade(String tradeEvent) {
-        // Perform trade aggregation logic here
-        String aggregatedTradeEvent = aggregate(tradeEvent);
+    @KafkaListener(id = AggregationConfig.LISTENER_ID, topics = "${trade-aggregation.input-topic}", groupId = "trade-aggregation")
+    public void aggregateTrade(ConsumerRecord<String, String> record) {
+        try {
+            aggregate(objectMapper.readValue(record.value(), TradeEvent.class), record.timestamp());
+        } catch (Exception e) {
+            logger.error("Failed to aggregate trade event: {}", record.value(), e);
+        }
+    }
 
-        kafkaTemplate.send("aggregated-trade-events", aggregatedTradeEvent);
+    /**
+     * Closes windows when the input has gone quiet, so results are not held back
+     * until the next trade arrives.
+     */
+    @Scheduled(fixedDelayString = "${trade-aggregation.window.idle-check-interval-ms}")
+    public void advanceIdleWindows() {
+        engine.advanceIfIdle(idleTimeoutMillis);
     }
 
-    private String aggregate(String tradeEvent) {
-        // Implement aggregation logic
-        return tradeEvent + " aggregated";
+    /**
+     * Adds a trade to its windows. The event time is the trade date, or the record
+     * timestamp for trades without one, so replayed input lands in the same windows.
+     */
+    private void aggregate(TradeEvent trade, long recordTimestamp) {
+        if (trade.getQuantity() == null || trade.getPrice() == null) {
+            logger.warn("Skipping trade {} without quantity or price", trade.getTradeId());
+            return;
+        }
+        long eventTime = trade.getTradeDate() != null
+            ? trade.getTradeDate().toInstant(ZoneOffset.UTC).toEpochMilli()
+            : recordTimestamp;
+
+        boolean accepted = engine.onTrade(trade.getInstrument(), trade.getCounterparty(), trade.getCurrency(),
+            eventTime, trade.getQuantity().doubleValue(), trade.getPrice().doubleValue());
+        if (!accepted) {
+            logger.debug("Dropped late trade {} with event time {}", trade.getTradeId(), eventTime);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package com.example.trade.aggregation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for trade aggregation.
+ * Window sizes are given in seconds, as in application.yaml.
+ */
+@Component
+@Configuration
+@ConfigurationProperties(prefix = "trade-aggregation")
+public class AggregationConfig {
+    /**
+     * Id of the enriched trade listener container, used to pause consumption under backpressure.
+     */
+    public static final String LISTENER_ID = "trade-aggregation-listener";
+
+    private String inputTopic = "trades.enriched";
+    private String outputTopic = "aggregated-trade-events";
+    private Window window = new Window();
+    private Batch batch = new Batch();
+    private Persistence persistence = new Persistence();
+
+    public static class Window {
+        private long size = 60;             // Window length in seconds
+        private long slide = 0;             // Slide in seconds; 0 means tumbling (slide = size)
+        private long allowedLateness = 5;   // How far the watermark trails the latest event time
+        private long idleTimeout = 10;      // Advance the watermark with wall-clock time after this idle period
+        private long keyRetention = 300;    // Forget a key once its windows have closed and it has had no trades for this long
+        private int initialKeyCapacity = 1024;
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public long getSlide() {
+            return slide;
+        }
+
+        public void setSlide(long slide) {
+            this.slide = slide;
+        }
+
+        public long getAllowedLateness() {
+            return allowedLateness;
+        }
+
+        public void setAllowedLateness(long allowedLateness) {
+            this.allowedLateness = allowedLateness;
+        }
+
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public long getKeyRetention() {
+            return keyRetention;
+        }
+
+        public void setKeyRetention(long keyRetention) {
+            this.keyRetention = keyRetention;
+        }
+
+        public int getInitialKeyCapacity() {
+            return initialKeyCapacity;
+        }
+
+        public void setInitialKeyCapacity(int initialKeyCapacity) {
+            this.initialKeyCapacity = initialKeyCapacity;
+        }
+    }
+
+    public static class Batch {
+        private int size = 100;             // Maximum aggregates per emitted batch
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+    }
+
+    public static class Persistence {
+        private boolean enabled = true;
+        private String collection = "window_aggregates";
+        private int cleanupOlderThanDays = 30;
+        private long cleanupIntervalMs = 3600000;
+        private int bufferCapacity = 10000;     // Aggregates held in memory before the listener is paused
+        private int flushSize = 500;            // Aggregates per bulk upsert
+        private long flushIntervalMs = 1000;    // Maximum time an aggregate waits before being written
+        private double pauseThreshold = 0.8;    // Buffer fill ratio at which the listener is paused
+        private double resumeThreshold = 0.2;   // Buffer fill ratio at which the listener is resumed
+        private int maxWriteAttempts = 10;      // Bulk write attempts before a batch is dropped
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCollection() {
+            return collection;
+        }
+
+        public void setCollection(String collection) {
+            this.collection = collection;
+        }
+
+        public int getCleanupOlderThanDays() {
+            return cleanupOlderThanDays;
+        }
+
+        public void setCleanupOlderThanDays(int cleanupOlderThanDays) {
+            this.cleanupOlderThanDays = cleanupOlderThanDays;
+        }
+
+        public long getCleanupIntervalMs() {
+            return cleanupIntervalMs;
+        }
+
+        public void setCleanupIntervalMs(long cleanupIntervalMs) {
+            this.cleanupIntervalMs = cleanupIntervalMs;
+        }
+
+        public int getBufferCapacity() {
+            return bufferCapacity;
+        }
+
+        public void setBufferCapacity(int bufferCapacity) {
+            this.bufferCapacity = bufferCapacity;
+        }
+
+        public int getFlushSize() {
+            return flushSize;
+        }
+
+        public void setFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public double getPauseThreshold() {
+            return pauseThreshold;
+        }
+
+        public void setPauseThreshold(double pauseThreshold) {
+            this.pauseThreshold = pauseThreshold;
+        }
+
+        public double getResumeThreshold() {
+            return resumeThreshold;
+        }
+
+        public void setResumeThreshold(double resumeThreshold) {
+            this.resumeThreshold = resumeThreshold;
+        }
+
+        public int getMaxWriteAttempts() {
+            return maxWriteAttempts;
+        }
+
+        public void setMaxWriteAttempts(int maxWriteAttempts) {
+            this.maxWriteAttempts = maxWriteAttempts;
+        }
+    }
+
+    // Getters and Setters
+    public String getInputTopic() {
+        return inputTopic;
+    }
+
+    public void setInputTopic(String inputTopic) {
+        this.inputTopic = inputTopic;
+    }
+
+    public String getOutputTopic() {
+        return outputTopic;
+    }
+
+    public void setOutputTopic(String outputTopic) {
+        this.outputTopic = outputTopic;
+    }
+
+    public Window getWindow() {
+        return window;
+    }
+
+    public void setWindow(Window window) {
+        this.window = window;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public void setPersistence(Persistence persistence) {
+        this.persistence = persistence;
+    }
+}
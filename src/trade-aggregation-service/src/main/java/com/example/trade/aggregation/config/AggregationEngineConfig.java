@@ -0,0 +1,28 @@
+package com.example.trade.aggregation.config;
+
+import com.example.trade.aggregation.window.CompositeWindowSink;
+import com.example.trade.aggregation.window.WindowSink;
+import com.example.trade.aggregation.window.WindowedAggregationEngine;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Wires the windowed aggregation engine from the trade-aggregation properties.
+ * Closed windows go to every {@link WindowSink} bean: the Kafka publisher and,
+ * when persistence is enabled, the MongoDB write-behind store.
+ */
+@Configuration
+public class AggregationEngineConfig {
+
+    @Bean(destroyMethod = "closeAll")
+    public WindowedAggregationEngine windowedAggregationEngine(AggregationConfig config, List<WindowSink> sinks) {
+        AggregationConfig.Window window = config.getWindow();
+        long sizeMillis = window.getSize() * 1000L;
+        long slideMillis = window.getSlide() > 0 ? window.getSlide() * 1000L : sizeMillis;
+        WindowSink sink = sinks.size() == 1 ? sinks.get(0) : new CompositeWindowSink(sinks);
+        return new WindowedAggregationEngine(sizeMillis, slideMillis, window.getAllowedLateness() * 1000L,
+            window.getKeyRetention() * 1000L, window.getInitialKeyCapacity(), sink);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.trade.aggregation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Enriched trade event consumed from the enriched trades topic.
+ * Only the fields needed for aggregation are mapped.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TradeEvent {
+    private String tradeId;
+    private String instrument;
+    private String counterparty;
+    private String currency;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private LocalDateTime tradeDate;
+
+    // Getters and Setters
+    public String getTradeId() { return tradeId; }
+    public void setTradeId(String tradeId) { this.tradeId = tradeId; }
+
+    public String getInstrument() { return instrument; }
+    public void setInstrument(String instrument) { this.instrument = instrument; }
+
+    public String getCounterparty() { return counterparty; }
+    public void setCounterparty(String counterparty) { this.counterparty = counterparty; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public LocalDateTime getTradeDate() { return tradeDate; }
+    public void setTradeDate(LocalDateTime tradeDate) { this.tradeDate = tradeDate; }
+}
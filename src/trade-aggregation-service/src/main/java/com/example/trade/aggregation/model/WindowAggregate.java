@@ -0,0 +1,64 @@
+package com.example.trade.aggregation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.math.BigDecimal;
+
+/**
+ * Aggregated trade statistics for one key over one closed window.
+ * Window bounds are epoch milliseconds, start inclusive and end exclusive.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WindowAggregate {
+    private String instrument;
+    private String counterparty;
+    private String currency;
+    private long windowStart;
+    private long windowEnd;
+    private long tradeCount;
+    private BigDecimal notional;
+    private BigDecimal quantity;
+    private BigDecimal vwap;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    /**
+     * Gets the identifier of this aggregate, unique per key and window.
+     */
+    public String getId() {
+        return instrument + "|" + counterparty + "|" + currency + "|" + windowStart + "|" + windowEnd;
+    }
+
+    // Getters and Setters
+    public String getInstrument() { return instrument; }
+    public void setInstrument(String instrument) { this.instrument = instrument; }
+
+    public String getCounterparty() { return counterparty; }
+    public void setCounterparty(String counterparty) { this.counterparty = counterparty; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public long getWindowStart() { return windowStart; }
+    public void setWindowStart(long windowStart) { this.windowStart = windowStart; }
+
+    public long getWindowEnd() { return windowEnd; }
+    public void setWindowEnd(long windowEnd) { this.windowEnd = windowEnd; }
+
+    public long getTradeCount() { return tradeCount; }
+    public void setTradeCount(long tradeCount) { this.tradeCount = tradeCount; }
+
+    public BigDecimal getNotional() { return notional; }
+    public void setNotional(BigDecimal notional) { this.notional = notional; }
+
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+
+    public BigDecimal getVwap() { return vwap; }
+    public void setVwap(BigDecimal vwap) { this.vwap = vwap; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+}
@@ -0,0 +1,293 @@
+package com.example.trade.aggregation.persistence;
+
+import com.example.trade.aggregation.config.AggregationConfig;
+import com.example.trade.aggregation.model.WindowAggregate;
+import com.example.trade.aggregation.window.WindowSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind MongoDB persistence for closed window aggregates.
+ * <p>
+ * Aggregates are queued in a bounded buffer by the Kafka listener thread and written by a
+ * dedicated writer thread as unordered bulk upserts keyed by aggregate id, whenever a batch
+ * reaches the flush size or the flush interval elapses. The listener never waits on the database
+ * or on buffer space: aggregates emitted while the buffer is full, from records polled before
+ * the pause took effect, spill into an overflow queue that the writer drains first.
+ * <p>
+ * When the buffer fills past the pause threshold the listener container is paused, and it is
+ * resumed once the writer has drained the buffer below the resume threshold. Pausing and
+ * resuming are serialized, so a resume cannot undo a pause made after it checked the buffer.
+ * A failed bulk write is retried with the same batch up to max-write-attempts, so a short
+ * database outage turns into backpressure; a batch that still fails is dropped and counted.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trade-aggregation.persistence", name = "enabled", havingValue = "true")
+public class WriteBehindAggregateStore implements WindowSink {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindAggregateStore.class);
+    private static final long RETRY_BACKOFF_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 30000;
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final AggregationConfig.Persistence config;
+    private final BlockingQueue<WindowAggregate> buffer;
+    private final Queue<WindowAggregate> overflow = new ConcurrentLinkedQueue<>();
+    private final int pauseAt;
+    private final int resumeAt;
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+
+    private final Object pauseLock = new Object();
+    // Guarded by pauseLock
+    private boolean listenerPaused;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public WriteBehindAggregateStore(MongoTemplate mongoTemplate, KafkaListenerEndpointRegistry listenerRegistry,
+            AggregationConfig aggregationConfig) {
+        this.mongoTemplate = mongoTemplate;
+        this.listenerRegistry = listenerRegistry;
+        this.config = aggregationConfig.getPersistence();
+        int capacity = Math.max(1, config.getBufferCapacity());
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.pauseAt = Math.max(1, (int) (capacity * config.getPauseThreshold()));
+        this.resumeAt = Math.min(pauseAt - 1, (int) (capacity * config.getResumeThreshold()));
+    }
+
+    @PostConstruct
+    public void start() {
+        mongoTemplate.indexOps(config.getCollection())
+            .ensureIndex(new Index().on("windowEnd", Sort.Direction.ASC));
+
+        running = true;
+        writer = new Thread(this::runWriter, "aggregate-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Write-behind persistence started: collection={}, capacity={}, flushSize={}, flushIntervalMs={}",
+            config.getCollection(), buffer.remainingCapacity(), config.getFlushSize(), config.getFlushIntervalMs());
+    }
+
+    /**
+     * Drains the buffer and stops the writer. The aggregation engine is destroyed first,
+     * so the windows it closes on shutdown are already queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(SHUTDOWN_TIMEOUT_MS);
+        if (getBufferedCount() > 0) {
+            logger.warn("Write-behind stopped with {} aggregates not persisted", getBufferedCount());
+        }
+    }
+
+    /**
+     * Queues an aggregate for writing. Called under the aggregation engine lock, so it
+     * never blocks: when the buffer is full the aggregate spills into the overflow queue.
+     */
+    @Override
+    public void emit(WindowAggregate aggregate) {
+        if (!buffer.offer(aggregate)) {
+            overflow.add(aggregate);
+            long spilled = spilledCount.incrementAndGet();
+            if (spilled % 1000 == 1) {
+                logger.warn("Write-behind buffer full: {} aggregates spilled to overflow so far", spilled);
+            }
+        }
+        if (buffer.size() >= pauseAt) {
+            pauseListener();
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Writes are driven by the writer thread on size or time
+    }
+
+    /**
+     * Deletes aggregates whose window ended more than the retention period ago.
+     */
+    @Scheduled(fixedDelayString = "${trade-aggregation.persistence.cleanup-interval-ms}")
+    public void cleanupExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(config.getCleanupOlderThanDays());
+        try {
+            long deleted = mongoTemplate.remove(Query.query(Criteria.where("windowEnd").lt(cutoff)),
+                config.getCollection()).getDeletedCount();
+            if (deleted > 0) {
+                logger.info("Removed {} aggregates older than {} days", deleted, config.getCleanupOlderThanDays());
+            }
+        } catch (DataAccessException e) {
+            logger.error("Aggregate cleanup failed", e);
+        }
+    }
+
+    public int getBufferedCount() {
+        return buffer.size() + overflow.size();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    private void runWriter() {
+        List<WindowAggregate> batch = new ArrayList<>(config.getFlushSize());
+        int maxAttempts = Math.max(1, config.getMaxWriteAttempts());
+        int attempts = 0;
+        while (running || getBufferedCount() > 0 || !batch.isEmpty()) {
+            try {
+                fillBatch(batch);
+                if (!batch.isEmpty()) {
+                    if (write(batch)) {
+                        batch.clear();
+                        attempts = 0;
+                    } else if (running && ++attempts < maxAttempts) {
+                        Thread.sleep(RETRY_BACKOFF_MS);
+                    } else {
+                        droppedCount.addAndGet(batch.size());
+                        logger.error("Dropping {} aggregates after {} failed writes", batch.size(), attempts);
+                        batch.clear();
+                        attempts = 0;
+                    }
+                }
+                maybeResumeListener();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collects aggregates until the batch is full or the flush interval has passed
+     * since the first aggregate of the batch arrived.
+     */
+    private void fillBatch(List<WindowAggregate> batch) throws InterruptedException {
+        int flushSize = config.getFlushSize();
+        // Spilled aggregates are the oldest; take them first
+        WindowAggregate spilled;
+        while (batch.size() < flushSize && (spilled = overflow.poll()) != null) {
+            batch.add(spilled);
+        }
+        if (batch.isEmpty()) {
+            WindowAggregate first = buffer.poll(config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        while (batch.size() < flushSize) {
+            buffer.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0 || !running) {
+                return;
+            }
+            WindowAggregate next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private boolean write(List<WindowAggregate> batch) {
+        try {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, config.getCollection());
+            for (WindowAggregate aggregate : batch) {
+                operations.upsert(Query.query(Criteria.where("_id").is(aggregate.getId())), toUpdate(aggregate));
+            }
+            operations.execute();
+            writtenCount.addAndGet(batch.size());
+            logger.debug("Persisted {} window aggregates", batch.size());
+            return true;
+        } catch (DataAccessException e) {
+            failedWrites.incrementAndGet();
+            logger.error("Bulk upsert of {} aggregates failed", batch.size(), e);
+            return false;
+        }
+    }
+
+    private Update toUpdate(WindowAggregate aggregate) {
+        return new Update()
+            .set("instrument", aggregate.getInstrument())
+            .set("counterparty", aggregate.getCounterparty())
+            .set("currency", aggregate.getCurrency())
+            .set("windowStart", aggregate.getWindowStart())
+            .set("windowEnd", aggregate.getWindowEnd())
+            .set("tradeCount", aggregate.getTradeCount())
+            .set("notional", aggregate.getNotional())
+            .set("quantity", aggregate.getQuantity())
+            .set("vwap", aggregate.getVwap())
+            .set("minPrice", aggregate.getMinPrice())
+            .set("maxPrice", aggregate.getMaxPrice());
+    }
+
+    private void pauseListener() {
+        synchronized (pauseLock) {
+            if (listenerPaused) {
+                return;
+            }
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(AggregationConfig.LISTENER_ID);
+            if (container != null) {
+                container.pause();
+                listenerPaused = true;
+                logger.warn("Paused trade listener: {} aggregates waiting to be persisted", getBufferedCount());
+            }
+        }
+    }
+
+    private void maybeResumeListener() {
+        synchronized (pauseLock) {
+            // Checked under the lock, so a pause for aggregates queued since cannot be lost
+            if (!listenerPaused || getBufferedCount() > resumeAt) {
+                return;
+            }
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(AggregationConfig.LISTENER_ID);
+            if (container != null) {
+                container.resume();
+            }
+            listenerPaused = false;
+            logger.info("Resumed trade listener: {} aggregates waiting to be persisted", getBufferedCount());
+        }
+    }
+}
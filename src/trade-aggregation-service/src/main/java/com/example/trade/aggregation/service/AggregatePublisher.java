@@ -0,0 +1,83 @@
+package com.example.trade.aggregation.service;
+
+import com.example.trade.aggregation.config.AggregationConfig;
+import com.example.trade.aggregation.model.WindowAggregate;
+import com.example.trade.aggregation.window.WindowSink;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes closed window aggregates to the aggregated trades topic.
+ * Aggregates are buffered and sent in batches of the configured size, keyed by
+ * instrument so all windows for an instrument land on the same partition.
+ * Sends are not waited for, as the engine calls in under its lock; the producer
+ * batches them and failures are counted and logged from the send callback.
+ * Called only from the aggregation engine, which serializes access.
+ */
+@Component
+public class AggregatePublisher implements WindowSink {
+    private static final Logger logger = LoggerFactory.getLogger(AggregatePublisher.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String outputTopic;
+    private final int batchSize;
+    private final List<WindowAggregate> buffer;
+    private final AtomicLong failedSends = new AtomicLong();
+
+    @Autowired
+    public AggregatePublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+            AggregationConfig config) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.outputTopic = config.getOutputTopic();
+        this.batchSize = Math.max(1, config.getBatch().getSize());
+        this.buffer = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void emit(WindowAggregate aggregate) {
+        buffer.add(aggregate);
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        for (WindowAggregate aggregate : buffer) {
+            try {
+                kafkaTemplate.send(outputTopic, aggregate.getInstrument(), objectMapper.writeValueAsString(aggregate))
+                    .addCallback(result -> { }, error -> {
+                        long failed = failedSends.incrementAndGet();
+                        logger.error("Failed to publish aggregate {} ({} failed so far): {}",
+                            aggregate.getId(), failed, error.getMessage());
+                    });
+            } catch (JsonProcessingException e) {
+                logger.error("Failed to serialize aggregate {}", aggregate.getId(), e);
+            } catch (RuntimeException e) {
+                long failed = failedSends.incrementAndGet();
+                logger.error("Failed to publish aggregate {} ({} failed so far): {}",
+                    aggregate.getId(), failed, e.getMessage());
+            }
+        }
+        logger.debug("Sent {} window aggregates to {}", buffer.size(), outputTopic);
+        buffer.clear();
+    }
+
+    public long getFailedSends() {
+        return failedSends.get();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.trade.aggregation.window;
+
+import com.example.trade.aggregation.model.WindowAggregate;
+
+import java.util.List;
+
+/**
+ * Fans closed window aggregates out to several sinks, in order.
+ */
+public class CompositeWindowSink implements WindowSink {
+    private final WindowSink[] sinks;
+
+    public CompositeWindowSink(List<? extends WindowSink> sinks) {
+        this.sinks = sinks.toArray(new WindowSink[0]);
+    }
+
+    @Override
+    public void emit(WindowAggregate aggregate) {
+        for (WindowSink sink : sinks) {
+            sink.emit(aggregate);
+        }
+    }
+
+    @Override
+    public void flush() {
+        for (WindowSink sink : sinks) {
+            sink.flush();
+        }
+    }
+}
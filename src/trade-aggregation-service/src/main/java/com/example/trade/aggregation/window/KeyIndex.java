@@ -0,0 +1,137 @@
+package com.example.trade.aggregation.window;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Open-addressing index from an (instrument, counterparty, currency) key to a dense slot number.
+ * Lookups hash the three parts directly, so no composite key object is allocated per event.
+ * Slots are stable until {@link #compact}, which drops keys and moves the rest down so
+ * per-key state arrays stay dense.
+ * Not thread-safe.
+ */
+final class KeyIndex {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private String[] instruments;
+    private String[] counterparties;
+    private String[] currencies;
+    private int[] slotHashes;
+    private int[] table;        // slot + 1, or 0 for an empty bucket
+    private int mask;
+    private int size;
+
+    KeyIndex(int initialCapacity) {
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1);
+        this.instruments = new String[capacity];
+        this.counterparties = new String[capacity];
+        this.currencies = new String[capacity];
+        this.slotHashes = new int[capacity];
+        this.table = new int[capacity * 2];
+        this.mask = table.length - 1;
+    }
+
+    /**
+     * Gets the slot for a key, assigning the next free slot if the key is new.
+     */
+    int slotFor(String instrument, String counterparty, String currency) {
+        int hash = hash(instrument, counterparty, currency);
+        int bucket = hash & mask;
+        while (true) {
+            int entry = table[bucket];
+            if (entry == 0) {
+                return insert(bucket, hash, instrument, counterparty, currency);
+            }
+            int slot = entry - 1;
+            if (slotHashes[slot] == hash
+                    && instruments[slot].equals(instrument)
+                    && counterparties[slot].equals(counterparty)
+                    && currencies[slot].equals(currency)) {
+                return slot;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    int size() { return size; }
+
+    /**
+     * Current number of slots that can be assigned without growing per-slot arrays.
+     */
+    int slotCapacity() { return instruments.length; }
+
+    String instrument(int slot) { return instruments[slot]; }
+
+    String counterparty(int slot) { return counterparties[slot]; }
+
+    String currency(int slot) { return currencies[slot]; }
+
+    /**
+     * Removes the keys that are not kept and moves the remaining ones down to dense slots,
+     * keeping their order, so a slot only ever moves to a lower number.
+     * @param keep Whether to keep the key in a slot
+     * @return For each slot before compaction, its new slot, or -1 if the key was removed
+     */
+    int[] compact(IntPredicate keep) {
+        int[] moved = new int[size];
+        int next = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (!keep.test(slot)) {
+                moved[slot] = -1;
+                continue;
+            }
+            instruments[next] = instruments[slot];
+            counterparties[next] = counterparties[slot];
+            currencies[next] = currencies[slot];
+            slotHashes[next] = slotHashes[slot];
+            moved[slot] = next++;
+        }
+        Arrays.fill(instruments, next, size, null);
+        Arrays.fill(counterparties, next, size, null);
+        Arrays.fill(currencies, next, size, null);
+        size = next;
+        rehash(table.length);
+        return moved;
+    }
+
+    private int insert(int bucket, int hash, String instrument, String counterparty, String currency) {
+        int slot = size++;
+        if (slot == instruments.length) {
+            int capacity = instruments.length * 2;
+            instruments = Arrays.copyOf(instruments, capacity);
+            counterparties = Arrays.copyOf(counterparties, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            slotHashes = Arrays.copyOf(slotHashes, capacity);
+        }
+        instruments[slot] = instrument;
+        counterparties[slot] = counterparty;
+        currencies[slot] = currency;
+        slotHashes[slot] = hash;
+        table[bucket] = slot + 1;
+
+        if (size > table.length * LOAD_FACTOR) {
+            rehash(table.length * 2);
+        }
+        return slot;
+    }
+
+    private void rehash(int newLength) {
+        table = new int[newLength];
+        mask = newLength - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int bucket = slotHashes[slot] & mask;
+            while (table[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            table[bucket] = slot + 1;
+        }
+    }
+
+    private static int hash(String instrument, String counterparty, String currency) {
+        int h = Objects.hashCode(instrument);
+        h = 31 * h + Objects.hashCode(counterparty);
+        h = 31 * h + Objects.hashCode(currency);
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.trade.aggregation.window;
+
+import com.example.trade.aggregation.model.WindowAggregate;
+
+/**
+ * Receives aggregates for windows closed by {@link WindowedAggregationEngine}.
+ */
+public interface WindowSink {
+    /**
+     * Accepts one closed window aggregate.
+     * @param aggregate The aggregate
+     */
+    void emit(WindowAggregate aggregate);
+
+    /**
+     * Called after each round of window closing, so buffered aggregates can be sent as a batch.
+     */
+    void flush();
+}
@@ -0,0 +1,332 @@
+package com.example.trade.aggregation.window;
+
+import com.example.trade.aggregation.model.WindowAggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+
+/**
+ * In-memory event-time window aggregation keyed by instrument, counterparty and currency.
+ * <p>
+ * Windows are built from panes of one slide length: a tumbling window is one pane,
+ * a sliding window of size S and slide D combines S/D panes. Each key owns a ring
+ * of pane cells, and all cell state lives in flat primitive arrays indexed by
+ * {@code slot * ringSize + pane % ringSize}, so the number of objects does not grow
+ * with the number of keys or events.
+ * <p>
+ * The watermark trails the highest event time seen by the allowed lateness. When it
+ * passes a pane boundary, every window ending at that boundary is closed and emitted.
+ * Events that arrive after all windows containing them have closed are dropped and counted.
+ * <p>
+ * A key whose windows have all closed and that has had no trades for the key retention
+ * period is forgotten, at most once per retention period, so the key index and the
+ * per-window scan only cover recently active keys.
+ * <p>
+ * All public methods are synchronized; the engine is fed by the Kafka listener and
+ * advanced by a scheduler when the input is idle.
+ */
+public class WindowedAggregationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(WindowedAggregationEngine.class);
+    private static final long NO_PANE = Long.MIN_VALUE;
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final long slideMillis;
+    private final long latenessMillis;
+    private final int panesPerWindow;
+    private final int ringSize;
+    private final long keyRetentionPanes;
+    private final WindowSink sink;
+    private final KeyIndex keys;
+
+    // Per-cell state, indexed by slot * ringSize + ring position
+    private long[] paneIds;
+    private long[] counts;
+    private double[] notionals;
+    private double[] quantities;
+    private double[] minPrices;
+    private double[] maxPrices;
+    // Newest pane with data, per slot
+    private long[] lastPanes;
+
+    private long maxEventTime = Long.MIN_VALUE;
+    private long watermark = Long.MIN_VALUE;
+    private long oldestOpenPane = Long.MAX_VALUE;
+    private long newestPane = Long.MIN_VALUE;
+    private long lastEventWallTime;
+    private long lateEvents;
+    private long nextEvictionPane = Long.MIN_VALUE;
+
+    /**
+     * @param windowMillis Window length
+     * @param slideMillis Slide between window starts; equal to windowMillis for tumbling windows
+     * @param latenessMillis How far the watermark trails the highest event time
+     * @param keyRetentionMillis How long a key without trades is kept after its windows have closed
+     * @param initialKeyCapacity Expected number of distinct keys
+     * @param sink Receiver of closed windows
+     */
+    public WindowedAggregationEngine(long windowMillis, long slideMillis, long latenessMillis,
+            long keyRetentionMillis, int initialKeyCapacity, WindowSink sink) {
+        if (slideMillis <= 0 || windowMillis < slideMillis || windowMillis % slideMillis != 0) {
+            throw new IllegalArgumentException(
+                "Window size must be a positive multiple of the slide: size=" + windowMillis + ", slide=" + slideMillis);
+        }
+        this.slideMillis = slideMillis;
+        this.latenessMillis = Math.max(0, latenessMillis);
+        this.panesPerWindow = (int) (windowMillis / slideMillis);
+        // Panes still feeding open windows, plus panes the watermark has not reached yet
+        this.ringSize = panesPerWindow + (int) ((this.latenessMillis + slideMillis - 1) / slideMillis) + 1;
+        this.keyRetentionPanes = (Math.max(0, keyRetentionMillis) + slideMillis - 1) / slideMillis;
+        this.sink = sink;
+        this.keys = new KeyIndex(initialKeyCapacity);
+        allocateCells(keys.slotCapacity());
+    }
+
+    /**
+     * Adds one trade to every window that contains its event time.
+     * @param instrument Instrument key part
+     * @param counterparty Counterparty key part
+     * @param currency Currency key part
+     * @param eventTime Event time in epoch milliseconds
+     * @param quantity Traded quantity
+     * @param price Trade price
+     * @return false if the trade arrived too late and was dropped
+     */
+    public synchronized boolean onTrade(String instrument, String counterparty, String currency,
+            long eventTime, double quantity, double price) {
+        lastEventWallTime = System.currentTimeMillis();
+        if (eventTime > maxEventTime) {
+            maxEventTime = eventTime;
+            advanceWatermark(eventTime - latenessMillis);
+        }
+
+        long pane = Math.floorDiv(eventTime, slideMillis);
+        // The last window containing this pane ends panesPerWindow panes after it starts
+        if (watermark != Long.MIN_VALUE && (pane + panesPerWindow) * slideMillis <= watermark) {
+            lateEvents++;
+            return false;
+        }
+
+        int slot = keys.slotFor(orUnknown(instrument), orUnknown(counterparty), orUnknown(currency));
+        if (keys.slotCapacity() * ringSize > paneIds.length) {
+            allocateCells(keys.slotCapacity());
+        }
+
+        int cell = slot * ringSize + (int) Math.floorMod(pane, (long) ringSize);
+        if (paneIds[cell] != pane) {
+            paneIds[cell] = pane;
+            counts[cell] = 0;
+            notionals[cell] = 0.0;
+            quantities[cell] = 0.0;
+            minPrices[cell] = Double.POSITIVE_INFINITY;
+            maxPrices[cell] = Double.NEGATIVE_INFINITY;
+        }
+        counts[cell]++;
+        notionals[cell] += price * quantity;
+        quantities[cell] += quantity;
+        if (price < minPrices[cell]) {
+            minPrices[cell] = price;
+        }
+        if (price > maxPrices[cell]) {
+            maxPrices[cell] = price;
+        }
+        if (pane > lastPanes[slot]) {
+            lastPanes[slot] = pane;
+        }
+
+        if (pane < oldestOpenPane) {
+            oldestOpenPane = pane;
+        }
+        if (pane > newestPane) {
+            newestPane = pane;
+        }
+        return true;
+    }
+
+    /**
+     * Advances the watermark with wall-clock time when no events have arrived for the
+     * given idle period, so the last windows close even if the input stops.
+     * @param idleTimeoutMillis Minimum idle period before advancing
+     */
+    public synchronized void advanceIfIdle(long idleTimeoutMillis) {
+        if (maxEventTime == Long.MIN_VALUE) {
+            return;
+        }
+        long idle = System.currentTimeMillis() - lastEventWallTime;
+        if (idle >= idleTimeoutMillis) {
+            advanceWatermark(maxEventTime + idle - latenessMillis);
+        }
+    }
+
+    /**
+     * Closes and emits every open window, e.g. on shutdown.
+     */
+    public synchronized void closeAll() {
+        if (newestPane != Long.MIN_VALUE) {
+            advanceWatermark((newestPane + panesPerWindow) * slideMillis);
+        }
+    }
+
+    public synchronized int getKeyCount() {
+        return keys.size();
+    }
+
+    public synchronized long getLateEvents() {
+        return lateEvents;
+    }
+
+    public synchronized long getWatermark() {
+        return watermark;
+    }
+
+    private void advanceWatermark(long newWatermark) {
+        if (newWatermark <= watermark) {
+            return;
+        }
+        long previous = watermark;
+        watermark = newWatermark;
+        if (previous != Long.MIN_VALUE && oldestOpenPane != Long.MAX_VALUE) {
+            closeWindows(previous, newWatermark);
+        }
+        evictIdleKeys(Math.floorDiv(newWatermark, slideMillis));
+    }
+
+    /**
+     * Closes the windows ending at the pane boundaries the watermark has passed.
+     */
+    private void closeWindows(long previous, long newWatermark) {
+        // Only boundaries whose windows can hold data need to be visited
+        long firstBoundary = Math.max(Math.floorDiv(previous, slideMillis) + 1, oldestOpenPane + 1);
+        long lastBoundary = Math.min(Math.floorDiv(newWatermark, slideMillis), newestPane + panesPerWindow);
+        int emitted = 0;
+        for (long boundary = firstBoundary; boundary <= lastBoundary; boundary++) {
+            emitted += closeWindowsEndingAt(boundary);
+        }
+
+        long firstOpenPane = Math.floorDiv(newWatermark, slideMillis) - panesPerWindow + 1;
+        if (firstOpenPane > newestPane) {
+            oldestOpenPane = Long.MAX_VALUE;
+        } else if (firstOpenPane > oldestOpenPane) {
+            oldestOpenPane = firstOpenPane;
+        }
+
+        if (emitted > 0) {
+            sink.flush();
+            logger.debug("Watermark advanced to {}: emitted {} window aggregates across {} keys",
+                watermark, emitted, keys.size());
+        }
+    }
+
+    /**
+     * Emits the window [boundary - panesPerWindow, boundary) in pane units for every key with data.
+     */
+    private int closeWindowsEndingAt(long boundaryPane) {
+        long firstPane = boundaryPane - panesPerWindow;
+        int emitted = 0;
+        for (int slot = 0; slot < keys.size(); slot++) {
+            if (lastPanes[slot] < firstPane) {
+                continue;
+            }
+            int base = slot * ringSize;
+            long count = 0;
+            double notional = 0.0;
+            double quantity = 0.0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (long pane = firstPane; pane < boundaryPane; pane++) {
+                int cell = base + (int) Math.floorMod(pane, (long) ringSize);
+                if (paneIds[cell] == pane) {
+                    count += counts[cell];
+                    notional += notionals[cell];
+                    quantity += quantities[cell];
+                    min = Math.min(min, minPrices[cell]);
+                    max = Math.max(max, maxPrices[cell]);
+                }
+            }
+
+            if (count > 0) {
+                sink.emit(toAggregate(slot, firstPane * slideMillis, boundaryPane * slideMillis,
+                    count, notional, quantity, min, max));
+                emitted++;
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Forgets keys whose windows have all closed and that have had no trades for the
+     * retention period. Surviving keys move down to dense slots, taking their cells along.
+     */
+    private void evictIdleKeys(long watermarkPane) {
+        if (watermarkPane < nextEvictionPane) {
+            return;
+        }
+        nextEvictionPane = watermarkPane + Math.max(1, keyRetentionPanes);
+        // The last window of a key closes panesPerWindow panes after its newest pane
+        long cutoff = watermarkPane - panesPerWindow - keyRetentionPanes;
+        int before = keys.size();
+        int[] moved = keys.compact(slot -> lastPanes[slot] >= cutoff);
+        int after = keys.size();
+        if (after == before) {
+            return;
+        }
+
+        for (int slot = 0; slot < moved.length; slot++) {
+            int target = moved[slot];
+            if (target >= 0 && target != slot) {
+                int from = slot * ringSize;
+                int to = target * ringSize;
+                System.arraycopy(paneIds, from, paneIds, to, ringSize);
+                System.arraycopy(counts, from, counts, to, ringSize);
+                System.arraycopy(notionals, from, notionals, to, ringSize);
+                System.arraycopy(quantities, from, quantities, to, ringSize);
+                System.arraycopy(minPrices, from, minPrices, to, ringSize);
+                System.arraycopy(maxPrices, from, maxPrices, to, ringSize);
+                lastPanes[target] = lastPanes[slot];
+            }
+        }
+        Arrays.fill(paneIds, after * ringSize, before * ringSize, NO_PANE);
+        Arrays.fill(lastPanes, after, before, NO_PANE);
+        logger.debug("Evicted {} idle keys; {} remain", before - after, after);
+    }
+
+    private WindowAggregate toAggregate(int slot, long windowStart, long windowEnd, long count,
+            double notional, double quantity, double min, double max) {
+        WindowAggregate aggregate = new WindowAggregate();
+        aggregate.setInstrument(keys.instrument(slot));
+        aggregate.setCounterparty(keys.counterparty(slot));
+        aggregate.setCurrency(keys.currency(slot));
+        aggregate.setWindowStart(windowStart);
+        aggregate.setWindowEnd(windowEnd);
+        aggregate.setTradeCount(count);
+        aggregate.setNotional(BigDecimal.valueOf(notional));
+        aggregate.setQuantity(BigDecimal.valueOf(quantity));
+        aggregate.setVwap(quantity != 0.0
+            ? BigDecimal.valueOf(notional / quantity).round(MathContext.DECIMAL64) : null);
+        aggregate.setMinPrice(BigDecimal.valueOf(min));
+        aggregate.setMaxPrice(BigDecimal.valueOf(max));
+        return aggregate;
+    }
+
+    private void allocateCells(int slotCapacity) {
+        int cells = slotCapacity * ringSize;
+        int previous = paneIds == null ? 0 : paneIds.length;
+        paneIds = paneIds == null ? new long[cells] : Arrays.copyOf(paneIds, cells);
+        Arrays.fill(paneIds, previous, cells, NO_PANE);
+        counts = counts == null ? new long[cells] : Arrays.copyOf(counts, cells);
+        notionals = notionals == null ? new double[cells] : Arrays.copyOf(notionals, cells);
+        quantities = quantities == null ? new double[cells] : Arrays.copyOf(quantities, cells);
+        minPrices = minPrices == null ? new double[cells] : Arrays.copyOf(minPrices, cells);
+        maxPrices = maxPrices == null ? new double[cells] : Arrays.copyOf(maxPrices, cells);
+        int previousSlots = lastPanes == null ? 0 : lastPanes.length;
+        lastPanes = lastPanes == null ? new long[slotCapacity] : Arrays.copyOf(lastPanes, slotCapacity);
+        Arrays.fill(lastPanes, previousSlots, slotCapacity, NO_PANE);
+    }
+
+    private static String orUnknown(String value) {
+        return value == null || value.isEmpty() ? UNKNOWN : value;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.trade.enrichment.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process L1 cache for one named cache, placed in front of Redis.
+ * <p>
+ * Entries carry their own expiry time and are bounded by a maximum entry count.
+ * When the bound is exceeded the oldest inserted keys are evicted first; FIFO keeps
+ * reads free of bookkeeping writes, which matters more here than LRU accuracy.
+ */
+public class NearCache {
+    private final String name;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedKeys = new AtomicInteger();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter expirations;
+
+    private static final class Entry {
+        final Object value;
+        final long expiresAt;
+        final long loadMillis;
+
+        Entry(Object value, long expiresAt, long loadMillis) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.loadMillis = loadMillis;
+        }
+    }
+
+    public NearCache(String name, int maxEntries, MeterRegistry registry) {
+        this.name = name;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new ConcurrentHashMap<>(Math.min(this.maxEntries, 1 << 16));
+        this.hits = Counter.builder("enrichment.near.cache.hits")
+            .description("Lookups served from the in-process cache")
+            .tag("cache", name)
+            .register(registry);
+        this.misses = Counter.builder("enrichment.near.cache.misses")
+            .description("Lookups not found in the in-process cache")
+            .tag("cache", name)
+            .register(registry);
+        this.evictions = Counter.builder("enrichment.near.cache.evictions")
+            .description("Entries evicted from the in-process cache to stay within max-entries")
+            .tag("cache", name)
+            .register(registry);
+        this.expirations = Counter.builder("enrichment.near.cache.expirations")
+            .description("Entries dropped from the in-process cache after their TTL")
+            .tag("cache", name)
+            .register(registry);
+        Gauge.builder("enrichment.near.cache.size", entries, Map::size)
+            .description("Entries held in the in-process cache")
+            .tag("cache", name)
+            .register(registry);
+    }
+
+    /**
+     * Gets a live value, or null if the key is absent or expired.
+     * @param key The cache key
+     * @return The cached value, or null
+     */
+    public Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Decides whether a live entry should be reloaded before it expires, using the
+     * XFetch rule: refresh when {@code now - loadMillis * beta * ln(random) >= expiresAt}.
+     * The chance rises as expiry approaches and with the cost of the load, so one caller
+     * usually refreshes a hot key ahead of time instead of all callers missing at once.
+     * @param key The cache key
+     * @param beta Eagerness factor; 1.0 is the standard setting, 0 disables early refresh
+     * @return true if the caller should start a refresh
+     */
+    public boolean isRefreshDue(String key, double beta) {
+        Entry entry = entries.get(key);
+        if (entry == null || beta <= 0.0) {
+            return false;
+        }
+        double gap = -entry.loadMillis * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.expiresAt;
+    }
+
+    /**
+     * Stores a value that expires after the given time-to-live.
+     * @param key The cache key
+     * @param value The value to cache
+     * @param ttlMillis Time-to-live in milliseconds
+     */
+    public void put(String key, Object value, long ttlMillis) {
+        put(key, value, ttlMillis, 0L);
+    }
+
+    /**
+     * Stores a value along with how long it took to load, for early refresh decisions.
+     * @param key The cache key
+     * @param value The value to cache
+     * @param ttlMillis Time-to-live in milliseconds
+     * @param loadMillis Time taken to load the value from its source
+     */
+    public void put(String key, Object value, long ttlMillis, long loadMillis) {
+        if (value == null || ttlMillis <= 0) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis, loadMillis));
+        if (previous == null) {
+            insertionOrder.offer(key);
+            if (queuedKeys.incrementAndGet() > 2 * maxEntries) {
+                compactInsertionOrder();
+            }
+            evictOverflow();
+        }
+    }
+
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+        queuedKeys.set(0);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > maxEntries) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queuedKeys.decrementAndGet();
+            // Keys removed by invalidation stay queued until polled here
+            if (entries.remove(oldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops queued keys that were removed by invalidation, so repeated invalidate
+     * and reload cycles cannot grow the queue without bound.
+     */
+    private synchronized void compactInsertionOrder() {
+        if (queuedKeys.get() <= 2 * maxEntries) {
+            return;
+        }
+        int retained = 0;
+        for (int i = insertionOrder.size(); i > 0; i--) {
+            String key = insertionOrder.poll();
+            if (key == null) {
+                break;
+            }
+            if (entries.containsKey(key)) {
+                insertionOrder.offer(key);
+                retained++;
+            }
+        }
+        queuedKeys.set(retained);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.trade.enrichment.cache;
+
+import com.example.trade.enrichment.model.CacheInvalidation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the per-cache {@link NearCache} instances and keeps them coherent across nodes.
+ * <p>
+ * Every local write or removal is broadcast on the invalidation channel; other nodes drop
+ * their L1 copy and reload from Redis on the next lookup. Messages carry the origin node id
+ * so a node ignores its own broadcasts.
+ */
+@Component
+public class NearCacheManager implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "trade-enrichment:cache-invalidation";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Duration> cacheTtls;
+    private final Map<String, NearCache> caches = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${trade-enrichment.cache.max-entries}")
+    private int maxEntries;
+
+    @Autowired
+    public NearCacheManager(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry,
+            @Qualifier("cacheTtls") Map<String, Duration> cacheTtls) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.cacheTtls = cacheTtls;
+    }
+
+    /**
+     * Gets the near cache for a cache name, creating it on first use.
+     * @param cacheName The cache name
+     * @return The near cache
+     */
+    public NearCache getCache(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> new NearCache(name, maxEntries, meterRegistry));
+    }
+
+    /**
+     * Gets the configured TTL of a cache, used for values loaded from Redis.
+     * @param cacheName The cache name
+     * @return TTL in milliseconds, or 0 if the cache has no configured TTL
+     */
+    public long getTtlMillis(String cacheName) {
+        Duration ttl = cacheTtls.get(cacheName);
+        return ttl != null ? ttl.toMillis() : 0L;
+    }
+
+    /**
+     * Tells other nodes to drop a key, or the whole cache when key is null.
+     * @param cacheName The cache name
+     * @param key The cache key, or null for the whole cache
+     */
+    public void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, new CacheInvalidation(nodeId, cacheName, key));
+        } catch (Exception e) {
+            logger.error("Error publishing invalidation for {} in cache {}: {}", key, cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Serializes a batch invalidation, so callers can publish it inside a pipeline.
+     * @param cacheName The cache name
+     * @param keys The invalidated keys
+     * @return The message body for {@link #INVALIDATION_CHANNEL}
+     */
+    public byte[] serializeInvalidation(String cacheName, List<String> keys) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        return serializer.serialize(new CacheInvalidation(nodeId, cacheName, keys));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(payload instanceof CacheInvalidation)) {
+            logger.warn("Ignoring unexpected message on {}", INVALIDATION_CHANNEL);
+            return;
+        }
+        CacheInvalidation invalidation = (CacheInvalidation) payload;
+        if (nodeId.equals(invalidation.getOriginNodeId())) {
+            return;
+        }
+        NearCache cache = caches.get(invalidation.getCacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.getKeys() != null) {
+            invalidation.getKeys().forEach(cache::remove);
+        } else if (invalidation.getKey() != null) {
+            cache.remove(invalidation.getKey());
+        } else {
+            cache.clear();
+        }
+        logger.debug("Invalidated {} in near cache {}", invalidation.getKey(), invalidation.getCacheName());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
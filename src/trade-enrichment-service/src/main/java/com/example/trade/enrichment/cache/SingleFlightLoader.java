@@ -0,0 +1,166 @@
+package com.example.trade.enrichment.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key into one call.
+ * <p>
+ * The first caller for a key runs the loader (on its own thread, or on the background
+ * pool for asynchronous loads and early refreshes) and publishes a future;
+ * callers that arrive while it runs wait on that future instead of calling the upstream
+ * service themselves. The future is removed once it completes, so the next miss loads again.
+ */
+@Component
+public class SingleFlightLoader {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlightLoader.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${trade-enrichment.cache.refresh-threads}")
+    private int refreshThreads;
+
+    @Value("${trade-enrichment.cache.refresh-queue-size}")
+    private int refreshQueueSize;
+
+    private ExecutorService refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(refreshQueueSize), runnable -> {
+                Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Loads a value, sharing the result with concurrent callers for the same key.
+     * @param key The flight key, unique across caches
+     * @param loader Loads the value from its source
+     * @return The loaded value
+     * @throws RuntimeException if the load failed, for every caller sharing it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Supplier<T> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            try {
+                Object shared = existing.join();
+                // A refresh that was never scheduled completes empty; load directly instead
+                return shared != null ? (T) shared : loader.get();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+        return (T) runFlight(key, flight, loader);
+    }
+
+    /**
+     * Loads a value without blocking the caller, sharing the in-flight future with
+     * concurrent callers for the same key. The loader always runs on the background pool,
+     * never on the calling thread, which may be a Redis I/O thread.
+     * @param key The flight key, unique across caches
+     * @param loader Loads the value from its source
+     * @return Future completed with the loaded value, or exceptionally if the load failed
+     *         or the pool was saturated ({@link RejectedExecutionException})
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> loadAsync(String key, Supplier<T> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            // A refresh that was never scheduled completes empty; start a load of our own
+            return existing.thenCompose(shared -> shared != null
+                ? CompletableFuture.completedFuture((T) shared)
+                : loadAsync(key, loader));
+        }
+        Runnable task = () -> {
+            try {
+                runFlight(key, flight, loader);
+            } catch (RuntimeException e) {
+                // Already delivered to waiters through the flight future
+            }
+        };
+        try {
+            refreshExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            logger.debug("Rejected load of {}: refresh queue full", key);
+        }
+        return flight.thenApply(value -> (T) value);
+    }
+
+    /**
+     * Starts a background reload of a key unless one is already in flight.
+     * Failures are logged; the current cached value stays in use.
+     * @param key The flight key, unique across caches
+     * @param loader Loads and caches the value
+     */
+    public void refreshAsync(String key, Supplier<?> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    runFlight(key, flight, loader);
+                } catch (RuntimeException e) {
+                    logger.warn("Early refresh of {} failed: {}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            flight.complete(null);
+            logger.debug("Skipped early refresh of {}: refresh queue full", key);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private Object runFlight(String key, CompletableFuture<Object> flight, Supplier<?> loader) {
+        try {
+            Object value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof RuntimeException ? (RuntimeException) cause : e;
+    }
+}
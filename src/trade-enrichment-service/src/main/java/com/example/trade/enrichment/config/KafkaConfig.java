@@ -0,0 +1,240 @@
+package com.example.trade.enrichment.config;
+
+import com.example.trade.enrichment.model.EnrichedTrade;
+import com.example.trade.enrichment.model.ValidatedTrade;
+import com.example.trade.enrichment.serialization.EnrichmentBinaryCodec;
+import com.example.trade.enrichment.serialization.ValidatedTradeCodec;
+import com.example.trade.enrichment.serialization.WireFormatDeserializer;
+import com.example.trade.enrichment.serialization.WireFormatSerializer;
+import com.example.trade.enrichment.service.EnrichmentSaturatedException;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for Kafka consumer and producer setup in the Trade Enrichment Service.
+ */
+@Configuration
+public class KafkaConfig {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConfig.class);
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Value("${spring.kafka.consumer.auto-offset-reset}")
+    private String autoOffsetReset;
+
+    @Value("${trade-enrichment.kafka.input-topic}")
+    private String inputTopic;
+
+    @Value("${trade-enrichment.kafka.dead-letter-topic}")
+    private String deadLetterTopic;
+
+    @Value("${trade-enrichment.kafka.max-concurrency}")
+    private int maxConcurrency;
+
+    @Value("${trade-enrichment.kafka.max-poll-records}")
+    private int maxPollRecords;
+
+    @Value("${trade-enrichment.retry.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${trade-enrichment.retry.initial-interval}")
+    private long initialInterval;
+
+    @Value("${trade-enrichment.retry.multiplier}")
+    private double multiplier;
+
+    @Value("${trade-enrichment.retry.max-interval}")
+    private long maxInterval;
+
+    /**
+     * Consumer factory for validated trades. Accepts JSON and binary records, and wraps
+     * the value deserializer so an undecodable record reaches the error handler instead
+     * of failing the poll loop.
+     */
+    @Bean
+    public ConsumerFactory<String, ValidatedTrade> validatedTradeConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+
+        JsonDeserializer<ValidatedTrade> jsonDeserializer = new JsonDeserializer<>(ValidatedTrade.class, false);
+        WireFormatDeserializer<ValidatedTrade> wireFormatDeserializer = new WireFormatDeserializer<>(
+            jsonDeserializer, ValidatedTradeCodec::decode, ValidatedTradeCodec::isBinary);
+
+        return new DefaultKafkaConsumerFactory<>(
+            props,
+            new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(wireFormatDeserializer)
+        );
+    }
+
+    /**
+     * Producer factory for enriched trades. The encoding of each topic is chosen by
+     * {@link WireFormatConfig}; records carry a content-type header either way.
+     */
+    @Bean
+    public ProducerFactory<String, EnrichedTrade> enrichedTradeProducerFactory(WireFormatConfig wireFormatConfig) {
+        JsonSerializer<EnrichedTrade> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+
+        return new DefaultKafkaProducerFactory<>(
+            producerProperties(),
+            new StringSerializer(),
+            new WireFormatSerializer<>(jsonSerializer, EnrichmentBinaryCodec::encode,
+                wireFormatConfig.getTopics(), wireFormatConfig.getDefaultFormat())
+        );
+    }
+
+    @Bean
+    public KafkaTemplate<String, EnrichedTrade> enrichedTradeKafkaTemplate(
+            ProducerFactory<String, EnrichedTrade> enrichedTradeProducerFactory) {
+        return new KafkaTemplate<>(enrichedTradeProducerFactory);
+    }
+
+    /**
+     * Template for the error topic, which receives trades that could not be enriched, as JSON.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> errorKafkaTemplate() {
+        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            producerProperties(), new StringSerializer(), jsonSerializer));
+    }
+
+    /**
+     * Error handler for the enrichment listener. Failed records are retried with exponential
+     * backoff from trade-enrichment.retry and then published to the dead letter topic.
+     * Records that cannot be deserialized are not retried; their raw bytes go straight to
+     * the dead letter topic. Records that failed because enrichment was saturated are
+     * retried every max-interval until they succeed, and never dead-lettered.
+     */
+    @Bean
+    public DefaultErrorHandler enrichmentErrorHandler(KafkaTemplate<String, Object> errorKafkaTemplate) {
+        KafkaTemplate<String, byte[]> rawTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            producerProperties(), new StringSerializer(), new ByteArraySerializer()));
+
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, rawTemplate);
+        templates.put(Object.class, errorKafkaTemplate);
+        // A negative partition lets the producer choose, so the DLT may have any partition count
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates,
+            (record, exception) -> new TopicPartition(deadLetterTopic, -1));
+
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(Math.max(0, maxAttempts - 1));
+        backOff.setInitialInterval(initialInterval);
+        backOff.setMultiplier(multiplier);
+        backOff.setMaxInterval(maxInterval);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        FixedBackOff saturationBackOff = new FixedBackOff(maxInterval, FixedBackOff.UNLIMITED_ATTEMPTS);
+        errorHandler.setBackOffFunction((record, exception) -> isSaturation(exception) ? saturationBackOff : null);
+        errorHandler.setResetStateOnExceptionChange(true);
+        return errorHandler;
+    }
+
+    private static boolean isSaturation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof EnrichmentSaturatedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Container factory for the enrichment listener. Records are consumed in batches and
+     * offsets committed once per batch, after every record in it has been published.
+     * One consumer thread is started per input partition, up to max-concurrency.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ValidatedTrade> enrichmentListenerContainerFactory(
+            ConsumerFactory<String, ValidatedTrade> validatedTradeConsumerFactory,
+            DefaultErrorHandler enrichmentErrorHandler) {
+        ConcurrentKafkaListenerContainerFactory<String, ValidatedTrade> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(validatedTradeConsumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(enrichmentErrorHandler);
+        factory.setConcurrency(resolveConcurrency());
+        return factory;
+    }
+
+    private Map<String, Object> producerProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        return props;
+    }
+
+    /**
+     * Sizes the listener to the partition count of the input topic, capped at max-concurrency.
+     * Falls back to the cap if the topic cannot be described at startup; surplus consumers sit idle.
+     */
+    private int resolveConcurrency() {
+        Map<String, Object> adminProps = Collections.singletonMap(
+            AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        try (AdminClient admin = AdminClient.create(adminProps)) {
+            TopicDescription description = admin.describeTopics(Collections.singletonList(inputTopic))
+                .allTopicNames()
+                .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .get(inputTopic);
+            int partitions = description.partitions().size();
+            int concurrency = Math.max(1, Math.min(partitions, maxConcurrency));
+            logger.info("Topic {} has {} partitions; starting {} enrichment consumers",
+                inputTopic, partitions, concurrency);
+            return concurrency;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.warn("Could not describe topic {}: {}; starting {} enrichment consumers",
+                inputTopic, e.getMessage(), maxConcurrency);
+            return Math.max(1, maxConcurrency);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.trade.enrichment.config;
 
+import com.example.trade.enrichment.cache.NearCacheManager;
+import com.example.trade.enrichment.serialization.EnrichmentRedisSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -10,7 +12,11 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -41,8 +47,11 @@ public class RedisConfig {
     @Value("${trade-enrichment.cache.reference-data-ttl}")
     private long referenceDataTtl;
 
+    @Value("${trade-enrichment.cache.compression-threshold-bytes}")
+    private int compressionThreshold;
+
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
+    public LettuceConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
         config.setHostName(redisHost);
         config.setPort(redisPort);
@@ -57,27 +66,57 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(cacheValueSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
         return template;
     }
 
+    /**
+     * Non-blocking template over the same Lettuce connection, used by the asynchronous enrichment path.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+            .<String, Object>newSerializationContext(new StringRedisSerializer())
+            .value(cacheValueSerializer())
+            .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+
+    /**
+     * TTL per cache name, shared by the Redis cache manager and the near cache.
+     */
+    @Bean
+    public Map<String, Duration> cacheTtls() {
+        Map<String, Duration> ttls = new HashMap<>();
+        ttls.put("marketData", Duration.ofMillis(marketDataTtl));
+        ttls.put("referenceData", Duration.ofMillis(referenceDataTtl));
+        return ttls;
+    }
+
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
         Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
-        
-        // Configuration for market data cache
-        cacheConfigs.put("marketData", createCacheConfiguration(Duration.ofMillis(marketDataTtl)));
-        
-        // Configuration for reference data cache
-        cacheConfigs.put("referenceData", createCacheConfiguration(Duration.ofMillis(referenceDataTtl)));
+        cacheTtls().forEach((name, ttl) -> cacheConfigs.put(name, createCacheConfiguration(ttl)));
 
         return RedisCacheManager.builder(connectionFactory)
             .withInitialCacheConfigurations(cacheConfigs)
             .build();
     }
 
+    /**
+     * Subscribes the near cache to invalidations published by other enrichment nodes.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, NearCacheManager nearCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(nearCacheManager, new ChannelTopic(NearCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+
     private RedisCacheConfiguration createCacheConfiguration(Duration ttl) {
         return RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(ttl)
@@ -85,7 +124,15 @@ public class RedisConfig {
                 RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
             )
             .serializeValuesWith(
-                RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer())
+                RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer())
             );
     }
+
+    /**
+     * Binary serializer for market and reference data, with JSON for any other value.
+     */
+    @Bean
+    public EnrichmentRedisSerializer cacheValueSerializer() {
+        return new EnrichmentRedisSerializer(compressionThreshold);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.trade.enrichment.config;
+
+import com.example.trade.enrichment.valuation.DayCountConvention;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for trade valuation.
+ */
+@Component
+@Configuration
+@ConfigurationProperties(prefix = "trade-enrichment.valuation")
+public class ValuationConfig {
+    // Currency that mark-to-market values are reported in when an FX rate is known
+    private String reportingCurrency = "USD";
+
+    // Day count for asset classes without an explicit entry
+    private DayCountConvention defaultDayCount = DayCountConvention.THIRTY_360;
+
+    // Day count per asset class, e.g. GOVERNMENT_BOND: ACT_ACT
+    private Map<String, DayCountConvention> dayCounts = new HashMap<>();
+
+    // Units of the reporting currency per unit of each currency, e.g. EUR: 1.08
+    private Map<String, BigDecimal> fxRates = new HashMap<>();
+
+    // Bound on instruments whose valuation factors are cached
+    private int maxCachedInstruments = 100000;
+
+    // Getters and Setters
+    public String getReportingCurrency() {
+        return reportingCurrency;
+    }
+
+    public void setReportingCurrency(String reportingCurrency) {
+        this.reportingCurrency = reportingCurrency;
+    }
+
+    public DayCountConvention getDefaultDayCount() {
+        return defaultDayCount;
+    }
+
+    public void setDefaultDayCount(DayCountConvention defaultDayCount) {
+        this.defaultDayCount = defaultDayCount;
+    }
+
+    public Map<String, DayCountConvention> getDayCounts() {
+        return dayCounts;
+    }
+
+    public void setDayCounts(Map<String, DayCountConvention> dayCounts) {
+        this.dayCounts = dayCounts;
+    }
+
+    public Map<String, BigDecimal> getFxRates() {
+        return fxRates;
+    }
+
+    public void setFxRates(Map<String, BigDecimal> fxRates) {
+        this.fxRates = fxRates;
+    }
+
+    public int getMaxCachedInstruments() {
+        return maxCachedInstruments;
+    }
+
+    public void setMaxCachedInstruments(int maxCachedInstruments) {
+        this.maxCachedInstruments = maxCachedInstruments;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.trade.enrichment.config;
+
+import com.example.trade.enrichment.serialization.WireFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the wire format used on each produced topic.
+ * Consumers accept both formats regardless of these settings.
+ */
+@Component
+@Configuration
+@ConfigurationProperties(prefix = "trade-enrichment.wire-format")
+public class WireFormatConfig {
+    // Format for topics without an explicit entry
+    private WireFormat defaultFormat = WireFormat.JSON;
+
+    // Per-topic overrides, e.g. trades.enriched: BINARY
+    private Map<String, WireFormat> topics = new HashMap<>();
+
+    // Getters and Setters
+    public WireFormat getDefaultFormat() {
+        return defaultFormat;
+    }
+
+    public void setDefaultFormat(WireFormat defaultFormat) {
+        this.defaultFormat = defaultFormat;
+    }
+
+    public Map<String, WireFormat> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(Map<String, WireFormat> topics) {
+        this.topics = topics;
+    }
+}
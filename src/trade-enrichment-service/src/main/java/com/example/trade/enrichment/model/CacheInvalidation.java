@@ -0,0 +1,44 @@
+package com.example.trade.enrichment.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.List;
+
+/**
+ * Cache invalidation broadcast between enrichment nodes over Redis pub/sub.
+ * Carries either a single key or a batch of keys; with neither set, the whole cache is invalidated.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CacheInvalidation {
+    private String originNodeId;
+    private String cacheName;
+    private String key;
+    private List<String> keys;
+
+    public CacheInvalidation() {
+    }
+
+    public CacheInvalidation(String originNodeId, String cacheName, String key) {
+        this.originNodeId = originNodeId;
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public CacheInvalidation(String originNodeId, String cacheName, List<String> keys) {
+        this.originNodeId = originNodeId;
+        this.cacheName = cacheName;
+        this.keys = keys;
+    }
+
+    // Getters and Setters
+    public String getOriginNodeId() { return originNodeId; }
+    public void setOriginNodeId(String originNodeId) { this.originNodeId = originNodeId; }
+
+    public String getCacheName() { return cacheName; }
+    public void setCacheName(String cacheName) { this.cacheName = cacheName; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public List<String> getKeys() { return keys; }
+    public void setKeys(List<String> keys) { this.keys = keys; }
+}
@@ -2,6 +2,7 @@ package com.example.trade.enrichment.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * Represents a trade enriched with market and reference data.
@@ -12,9 +13,18 @@ public class EnrichedTrade {
     private String instrument;
     private BigDecimal quantity;
     private BigDecimal price;
+    private String currency;
+    private LocalDateTime tradeDate;
+    private String counterparty;
     private BigDecimal tradeValue;
     private MarketData marketData;
     private ReferenceData referenceData;
+    private BigDecimal markPrice;
+    private BigDecimal markToMarketValue;
+    private BigDecimal unrealizedPnl;
+    private BigDecimal slippageBps;
+    private BigDecimal accruedInterest;
+    private String valuationCurrency;
 
     // Getters and Setters
     public String getTradeId() { return tradeId; }
@@ -29,6 +39,15 @@ public class EnrichedTrade {
     public BigDecimal getPrice() { return price; }
     public void setPrice(BigDecimal price) { this.price = price; }
 
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public LocalDateTime getTradeDate() { return tradeDate; }
+    public void setTradeDate(LocalDateTime tradeDate) { this.tradeDate = tradeDate; }
+
+    public String getCounterparty() { return counterparty; }
+    public void setCounterparty(String counterparty) { this.counterparty = counterparty; }
+
     public BigDecimal getTradeValue() { return tradeValue; }
     public void setTradeValue(BigDecimal tradeValue) { this.tradeValue = tradeValue; }
 
@@ -37,4 +56,22 @@ public class EnrichedTrade {
 
     public ReferenceData getReferenceData() { return referenceData; }
     public void setReferenceData(ReferenceData referenceData) { this.referenceData = referenceData; }
-}
\ No newline at end of file
+
+    public BigDecimal getMarkPrice() { return markPrice; }
+    public void setMarkPrice(BigDecimal markPrice) { this.markPrice = markPrice; }
+
+    public BigDecimal getMarkToMarketValue() { return markToMarketValue; }
+    public void setMarkToMarketValue(BigDecimal markToMarketValue) { this.markToMarketValue = markToMarketValue; }
+
+    public BigDecimal getUnrealizedPnl() { return unrealizedPnl; }
+    public void setUnrealizedPnl(BigDecimal unrealizedPnl) { this.unrealizedPnl = unrealizedPnl; }
+
+    public BigDecimal getSlippageBps() { return slippageBps; }
+    public void setSlippageBps(BigDecimal slippageBps) { this.slippageBps = slippageBps; }
+
+    public BigDecimal getAccruedInterest() { return accruedInterest; }
+    public void setAccruedInterest(BigDecimal accruedInterest) { this.accruedInterest = accruedInterest; }
+
+    public String getValuationCurrency() { return valuationCurrency; }
+    public void setValuationCurrency(String valuationCurrency) { this.valuationCurrency = valuationCurrency; }
+}
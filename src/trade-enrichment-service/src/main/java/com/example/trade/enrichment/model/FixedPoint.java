@@ -0,0 +1,135 @@
+package com.example.trade.enrichment.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Scaled-long (fixed-point) arithmetic for quantities, prices and amounts.
+ * A value is stored as a {@code long} holding the amount multiplied by 10^6,
+ * so hot paths can compare and multiply money without allocating BigDecimals.
+ * Values that cannot be represented exactly, and results that overflow,
+ * are reported as {@link #INVALID} so callers can fall back to BigDecimal.
+ */
+public final class FixedPoint {
+    /** Number of decimal places kept. */
+    public static final int SCALE = 6;
+    /** The unscaled representation of 1. */
+    public static final long ONE = 1_000_000L;
+    /** Marks a value that is missing, not representable, or the result of an overflow. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // Integer digits that fit alongside SCALE decimals in a long
+    private static final int MAX_INTEGER_DIGITS = 12;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Converts a BigDecimal to fixed point.
+     * @param value The value to convert, may be null
+     * @return The scaled value, or {@link #INVALID} if null or not exactly representable
+     */
+    public static long fromBigDecimal(BigDecimal value) {
+        if (value == null || value.scale() > SCALE
+                || value.precision() - value.scale() > MAX_INTEGER_DIGITS) {
+            return INVALID;
+        }
+        return value.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts a fixed-point value back to BigDecimal.
+     * @return The BigDecimal value, or null for {@link #INVALID}
+     */
+    public static BigDecimal toBigDecimal(long value) {
+        return value == INVALID ? null : BigDecimal.valueOf(value, SCALE);
+    }
+
+    /**
+     * Multiplies two fixed-point values, rounding half away from zero
+     * like {@link java.math.RoundingMode#HALF_UP}.
+     * @return The product, or {@link #INVALID} if an operand is invalid or the result overflows
+     */
+    public static long multiply(long a, long b) {
+        if (a == INVALID || b == INVALID) {
+            return INVALID;
+        }
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        long magnitude = truncatedProduct(x, y);
+        if (magnitude < 0) {
+            return INVALID;
+        }
+        if (((x % ONE) * (y % ONE)) % ONE >= ONE / 2) {
+            magnitude++;
+            if (magnitude < 0) {
+                return INVALID;
+            }
+        }
+        return (a < 0) != (b < 0) ? -magnitude : magnitude;
+    }
+
+    /**
+     * Multiplies two fixed-point values, rounding towards negative infinity.
+     * Together with {@link #isProductExact(long, long)} this allows exact
+     * comparisons of a product against a fixed-point limit.
+     * @return The floored product, or {@link #INVALID} if an operand is invalid or the result overflows
+     */
+    public static long multiplyFloor(long a, long b) {
+        if (a == INVALID || b == INVALID) {
+            return INVALID;
+        }
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        long magnitude = truncatedProduct(x, y);
+        if (magnitude < 0) {
+            return INVALID;
+        }
+        if ((a < 0) != (b < 0)) {
+            return isProductExact(a, b) ? -magnitude : -magnitude - 1;
+        }
+        return magnitude;
+    }
+
+    /**
+     * Whether the product of two valid fixed-point values has no digits beyond {@link #SCALE}.
+     */
+    public static boolean isProductExact(long a, long b) {
+        return ((Math.abs(a) % ONE) * (Math.abs(b) % ONE)) % ONE == 0;
+    }
+
+    /**
+     * Compares two valid fixed-point values.
+     */
+    public static int compare(long a, long b) {
+        return Long.compare(a, b);
+    }
+
+    /**
+     * Computes floor(x * y / ONE) for non-negative operands without 128-bit arithmetic,
+     * by splitting both into integer and fractional parts.
+     * @return The truncated product, or -1 on overflow
+     */
+    private static long truncatedProduct(long x, long y) {
+        long xi = x / ONE;
+        long xf = x % ONE;
+        long yi = y / ONE;
+        long yf = y % ONE;
+
+        long wholeTimesY = multiplyNonNegative(xi, y);
+        long fractionTimesWhole = multiplyNonNegative(xf, yi);
+        if (wholeTimesY < 0 || fractionTimesWhole < 0) {
+            return -1;
+        }
+        // xf and yf are both below ONE, so their product fits comfortably
+        long sum = wholeTimesY + fractionTimesWhole + (xf * yf) / ONE;
+        return sum < 0 ? -1 : sum;
+    }
+
+    private static long multiplyNonNegative(long x, long y) {
+        long product = x * y;
+        if (Math.multiplyHigh(x, y) != 0 || product < 0) {
+            return -1;
+        }
+        return product;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.trade.enrichment.refdata;
+
+import com.example.trade.enrichment.model.ReferenceData;
+import com.example.trade.enrichment.serialization.EnrichmentBinaryCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-only reference data table in a memory-mapped snapshot file.
+ * <p>
+ * Records and their hash indexes live in the mapped file, outside the Java heap, so the
+ * table adds no GC load however many instruments it holds. A lookup probes an index,
+ * copies the matching record out of the mapping and decodes it; nothing is retained.
+ * Instances are immutable and safe for concurrent readers.
+ *
+ * @see ReferenceDataSnapshotWriter for the file layout
+ */
+public final class ReferenceDataSnapshot {
+    /**
+     * Identifier kinds with a hash index, in the order their tables appear in the file.
+     */
+    public enum Key {
+        INSTRUMENT(ReferenceData::getInstrument),
+        ISIN(ReferenceData::getIsin),
+        CUSIP(ReferenceData::getCusip),
+        SEDOL(ReferenceData::getSedol);
+
+        final Function<ReferenceData, String> extractor;
+
+        Key(Function<ReferenceData, String> extractor) {
+            this.extractor = extractor;
+        }
+    }
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int recordCount;
+    private final int bucketMask;
+    private final int[] indexOffsets = new int[Key.values().length];
+    private final long loadedAt;
+
+    private ReferenceDataSnapshot(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != ReferenceDataSnapshotWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a reference data snapshot: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != ReferenceDataSnapshotWriter.VERSION) {
+            throw new IllegalArgumentException("Unsupported reference data snapshot version " + version + ": " + file);
+        }
+        this.recordCount = buffer.getInt(8);
+        int bucketCount = buffer.getInt(12);
+        this.bucketMask = bucketCount - 1;
+        int indexStart = buffer.getInt(16);
+        for (int i = 0; i < indexOffsets.length; i++) {
+            indexOffsets[i] = indexStart + i * bucketCount * ReferenceDataSnapshotWriter.BUCKET_BYTES;
+        }
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Maps a snapshot file written by {@link ReferenceDataSnapshotWriter}.
+     * @param file The snapshot file
+     * @return The mapped snapshot
+     * @throws IOException if the file cannot be mapped
+     */
+    public static ReferenceDataSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Reference data snapshot too large to map: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return new ReferenceDataSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Finds a record by one of its identifiers.
+     * @param key Which identifier to search
+     * @param value The identifier value
+     * @return The record, or empty if not present
+     */
+    public Optional<ReferenceData> find(Key key, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        int hash = ReferenceDataSnapshotWriter.hash(value);
+        int table = indexOffsets[key.ordinal()];
+        int bucket = hash & bucketMask;
+        while (true) {
+            int position = table + bucket * ReferenceDataSnapshotWriter.BUCKET_BYTES;
+            int recordOffset = buffer.getInt(position + 4);
+            if (recordOffset == 0) {
+                return Optional.empty();
+            }
+            if (buffer.getInt(position) == hash) {
+                ReferenceData candidate = readRecord(recordOffset - 1);
+                if (value.equals(key.extractor.apply(candidate))) {
+                    return Optional.of(candidate);
+                }
+            }
+            bucket = (bucket + 1) & bucketMask;
+        }
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    private ReferenceData readRecord(int offset) {
+        int length = buffer.getInt(offset);
+        byte[] record = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + 4);
+        view.get(record);
+        return EnrichmentBinaryCodec.decodeReferenceData(record);
+    }
+}
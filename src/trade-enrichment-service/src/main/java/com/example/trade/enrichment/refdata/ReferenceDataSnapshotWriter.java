@@ -0,0 +1,155 @@
+package com.example.trade.enrichment.refdata;
+
+import com.example.trade.enrichment.model.ReferenceData;
+import com.example.trade.enrichment.serialization.EnrichmentBinaryCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes reference data snapshot files for {@link ReferenceDataSnapshot}.
+ * Not thread-safe; use one writer per snapshot build.
+ * <p>
+ * Layout, all integers big-endian:
+ * <ul>
+ *   <li>Header (32 bytes): magic, version, record count, bucket count, index start, padding</li>
+ *   <li>Records: for each record, its length followed by its {@link EnrichmentBinaryCodec} encoding</li>
+ *   <li>Indexes: one open-addressing table per {@link ReferenceDataSnapshot.Key}, each
+ *       {@code bucketCount} buckets of (key hash, record offset + 1); 0 marks an empty bucket</li>
+ * </ul>
+ * Key hashes use {@link String#hashCode()}, whose value is fixed by the language
+ * specification, so a file can be written and read by different JVMs.
+ */
+public final class ReferenceDataSnapshotWriter {
+    static final int MAGIC = 0x52444653;    // "RDFS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int BUCKET_BYTES = 8;
+
+    private static final int INITIAL_RECORDS = 1024;
+
+    // Per-record index inputs, kept as primitive arrays while the data section is streamed out
+    private int recordCount;
+    private int[] recordOffsets;
+    private int[][] keyHashes;
+    private boolean[][] keyPresent;
+
+    /**
+     * Writes a snapshot file containing the given records.
+     * Records without an instrument are skipped; later duplicates of an identifier are
+     * indexed but shadowed by the first record carrying it.
+     * @param file The file to create or replace
+     * @param records The reference data universe
+     * @return The number of records written
+     * @throws IOException if the file cannot be written
+     */
+    public int write(Path file, Iterable<ReferenceData> records) throws IOException {
+        int keyCount = ReferenceDataSnapshot.Key.values().length;
+        recordCount = 0;
+        recordOffsets = new int[INITIAL_RECORDS];
+        keyHashes = new int[keyCount][INITIAL_RECORDS];
+        keyPresent = new boolean[keyCount][INITIAL_RECORDS];
+
+        long offset = HEADER_BYTES;
+        try (OutputStream out = Files.newOutputStream(file);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16))) {
+            data.write(new byte[HEADER_BYTES]);
+
+            for (ReferenceData record : records) {
+                if (record == null || record.getInstrument() == null) {
+                    continue;
+                }
+                byte[] encoded = EnrichmentBinaryCodec.encode(record);
+                if (offset + 4 + encoded.length >= Integer.MAX_VALUE) {
+                    throw new IOException("Reference data snapshot exceeds 2 GB: " + file);
+                }
+                addRecord((int) offset, record);
+                data.writeInt(encoded.length);
+                data.write(encoded);
+                offset += 4 + encoded.length;
+            }
+
+            int bucketCount = bucketCountFor(recordCount);
+            if (offset + (long) keyCount * bucketCount * BUCKET_BYTES >= Integer.MAX_VALUE) {
+                throw new IOException("Reference data snapshot exceeds 2 GB: " + file);
+            }
+            for (int key = 0; key < keyHashes.length; key++) {
+                writeIndex(data, key, bucketCount);
+            }
+            data.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(recordCount)
+                .putInt(bucketCount)
+                .putInt((int) offset);
+            header.flip();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+                channel.force(true);
+            }
+        }
+        return recordCount;
+    }
+
+    static int hash(String value) {
+        int h = value.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private void addRecord(int offset, ReferenceData record) {
+        if (recordCount == recordOffsets.length) {
+            int capacity = recordOffsets.length * 2;
+            recordOffsets = Arrays.copyOf(recordOffsets, capacity);
+            for (int key = 0; key < keyHashes.length; key++) {
+                keyHashes[key] = Arrays.copyOf(keyHashes[key], capacity);
+                keyPresent[key] = Arrays.copyOf(keyPresent[key], capacity);
+            }
+        }
+        recordOffsets[recordCount] = offset;
+        for (ReferenceDataSnapshot.Key key : ReferenceDataSnapshot.Key.values()) {
+            String value = key.extractor.apply(record);
+            if (value != null) {
+                keyHashes[key.ordinal()][recordCount] = hash(value);
+                keyPresent[key.ordinal()][recordCount] = true;
+            }
+        }
+        recordCount++;
+    }
+
+    private void writeIndex(DataOutputStream data, int key, int bucketCount) throws IOException {
+        int mask = bucketCount - 1;
+        int[] hashes = new int[bucketCount];
+        int[] offsets = new int[bucketCount];
+        for (int record = 0; record < recordCount; record++) {
+            if (!keyPresent[key][record]) {
+                continue;
+            }
+            int hash = keyHashes[key][record];
+            int bucket = hash & mask;
+            while (offsets[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            hashes[bucket] = hash;
+            offsets[bucket] = recordOffsets[record] + 1;
+        }
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            data.writeInt(hashes[bucket]);
+            data.writeInt(offsets[bucket]);
+        }
+    }
+
+    private static int bucketCountFor(int records) {
+        // Load factor of at most one half keeps probe sequences short
+        return Math.max(16, Integer.highestOneBit(Math.max(1, records * 2 - 1)) << 1);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.trade.enrichment.refdata;
+
+import com.example.trade.enrichment.model.ReferenceData;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves reference data from a preloaded off-heap snapshot.
+ * <p>
+ * At startup, and again whenever the source file changes, the full reference universe is
+ * streamed from the source file (JSON, one record per line or a single array) into a new
+ * snapshot file, which is then mapped and swapped in atomically. Readers always see one
+ * complete snapshot. When no source is configured, or before the first load succeeds,
+ * lookups return empty and callers fall back to the cache.
+ */
+@Component
+public class ReferenceDataStore {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataStore.class);
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<ReferenceDataSnapshot> current = new AtomicReference<>();
+
+    @Value("${trade-enrichment.reference-data.source-file}")
+    private String sourceFile;
+
+    @Value("${trade-enrichment.reference-data.snapshot-dir}")
+    private String snapshotDir;
+
+    private long loadedSourceModified;
+
+    @Autowired
+    public ReferenceDataStore(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (isEnabled()) {
+            reloadIfChanged();
+        } else {
+            logger.info("No reference data source configured; reference data will be read through the cache");
+        }
+    }
+
+    /**
+     * Reloads the snapshot if the source file has changed since the last load.
+     */
+    @Scheduled(fixedDelayString = "${trade-enrichment.reference-data.check-interval-ms}")
+    public synchronized void reloadIfChanged() {
+        if (!isEnabled()) {
+            return;
+        }
+        Path source = Paths.get(sourceFile);
+        try {
+            long modified = Files.getLastModifiedTime(source).toMillis();
+            if (modified != loadedSourceModified) {
+                load(source);
+                loadedSourceModified = modified;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to load reference data snapshot from {}: {}", source, e.getMessage());
+        }
+    }
+
+    /**
+     * Finds reference data by any indexed identifier.
+     * @param key Which identifier to search
+     * @param value The identifier value
+     * @return The record, or empty if not in the snapshot or no snapshot is loaded
+     */
+    public Optional<ReferenceData> find(ReferenceDataSnapshot.Key key, String value) {
+        ReferenceDataSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot.find(key, value) : Optional.empty();
+    }
+
+    public Optional<ReferenceData> findByInstrument(String instrument) {
+        return find(ReferenceDataSnapshot.Key.INSTRUMENT, instrument);
+    }
+
+    /**
+     * Whether a snapshot is loaded, i.e. lookups are authoritative.
+     */
+    public boolean isLoaded() {
+        return current.get() != null;
+    }
+
+    public int size() {
+        ReferenceDataSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot.size() : 0;
+    }
+
+    private void load(Path source) throws IOException {
+        long start = System.currentTimeMillis();
+        Path directory = Paths.get(snapshotDir);
+        Files.createDirectories(directory);
+        Path target = directory.resolve("reference-data-" + start + ".snapshot");
+
+        int records;
+        try (InputStream in = Files.newInputStream(source);
+             MappingIterator<ReferenceData> iterator = objectMapper.readerFor(ReferenceData.class).readValues(in)) {
+            records = new ReferenceDataSnapshotWriter().write(target, () -> iterator);
+        }
+
+        ReferenceDataSnapshot snapshot = ReferenceDataSnapshot.open(target);
+        ReferenceDataSnapshot previous = current.getAndSet(snapshot);
+        if (previous != null) {
+            // The old mapping is released once in-flight readers drop it; the file can go now
+            Files.deleteIfExists(previous.getFile());
+        }
+        logger.info("Loaded reference data snapshot with {} instruments from {} in {} ms",
+            records, source, System.currentTimeMillis() - start);
+    }
+
+    private boolean isEnabled() {
+        return sourceFile != null && !sourceFile.isEmpty();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.trade.enrichment.serialization;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Growable big-endian buffer for the binary wire format.
+ * Nullable values are written with a presence marker so optional fields
+ * cost a single byte when absent.
+ */
+public final class BinaryWriter {
+    static final byte ABSENT = 0;
+    static final byte PRESENT = 1;
+    static final byte DECIMAL_COMPACT = 1;
+    static final byte DECIMAL_WIDE = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public BinaryWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    public BinaryWriter writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    public BinaryWriter writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    public BinaryWriter writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    /**
+     * Writes a UTF-8 string prefixed with its byte length, or -1 for null.
+     */
+    public BinaryWriter writeString(String value) {
+        if (value == null) {
+            return writeInt(-1);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        return writeBytes(bytes);
+    }
+
+    /**
+     * Writes a decimal as scale and unscaled long when it fits, otherwise as scale and two's-complement bytes.
+     */
+    public BinaryWriter writeDecimal(BigDecimal value) {
+        if (value == null) {
+            return writeByte(ABSENT);
+        }
+        if (value.precision() <= 18) {
+            writeByte(DECIMAL_COMPACT);
+            writeInt(value.scale());
+            return writeLong(value.unscaledValue().longValue());
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeByte(DECIMAL_WIDE);
+        writeInt(value.scale());
+        writeInt(unscaled.length);
+        return writeBytes(unscaled);
+    }
+
+    /**
+     * Writes a date-time as UTC epoch seconds and nanoseconds.
+     */
+    public BinaryWriter writeDateTime(LocalDateTime value) {
+        if (value == null) {
+            return writeByte(ABSENT);
+        }
+        writeByte(PRESENT);
+        writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        return writeInt(value.getNano());
+    }
+
+    /**
+     * Writes a date as its epoch day.
+     */
+    public BinaryWriter writeDate(LocalDate value) {
+        if (value == null) {
+            return writeByte(ABSENT);
+        }
+        writeByte(PRESENT);
+        return writeLong(value.toEpochDay());
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+}
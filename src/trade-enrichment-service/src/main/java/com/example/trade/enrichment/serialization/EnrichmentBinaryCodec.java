@@ -0,0 +1,215 @@
+package com.example.trade.enrichment.serialization;
+
+import com.example.trade.enrichment.model.EnrichedTrade;
+import com.example.trade.enrichment.model.MarketData;
+import com.example.trade.enrichment.model.ReferenceData;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Schema-versioned binary encoding of {@link EnrichedTrade} and the market and
+ * reference data it carries.
+ * <p>
+ * Layout: one byte schema version, one byte record type, then the fields in
+ * declaration order using {@link BinaryWriter} encodings. Nested market and
+ * reference data are written inline behind a presence marker. New fields must
+ * only be appended and guarded by a version check in the decoder.
+ */
+public final class EnrichmentBinaryCodec {
+    public static final byte SCHEMA_VERSION = 3;
+
+    // First version carrying the valuation fields of an enriched trade
+    private static final byte VALUATION_VERSION = 2;
+    // First version carrying the currency, trade date and counterparty of an enriched trade
+    private static final byte TRADE_DETAILS_VERSION = 3;
+
+    static final byte TYPE_ENRICHED_TRADE = 3;
+    static final byte TYPE_MARKET_DATA = 4;
+    static final byte TYPE_REFERENCE_DATA = 5;
+
+    private static final int ESTIMATED_RECORD_SIZE = 512;
+
+    private EnrichmentBinaryCodec() {
+    }
+
+    public static byte[] encode(EnrichedTrade trade) {
+        BinaryWriter writer = header(TYPE_ENRICHED_TRADE);
+        writer.writeString(trade.getTradeId())
+            .writeString(trade.getInstrument())
+            .writeDecimal(trade.getQuantity())
+            .writeDecimal(trade.getPrice())
+            .writeDecimal(trade.getTradeValue());
+        writeMarketDataBody(writer, trade.getMarketData());
+        writeReferenceDataBody(writer, trade.getReferenceData());
+        writer.writeDecimal(trade.getMarkPrice())
+            .writeDecimal(trade.getMarkToMarketValue())
+            .writeDecimal(trade.getUnrealizedPnl())
+            .writeDecimal(trade.getSlippageBps())
+            .writeDecimal(trade.getAccruedInterest())
+            .writeString(trade.getValuationCurrency())
+            .writeString(trade.getCurrency())
+            .writeDateTime(trade.getTradeDate())
+            .writeString(trade.getCounterparty());
+        return writer.toByteArray();
+    }
+
+    public static byte[] encode(MarketData marketData) {
+        BinaryWriter writer = header(TYPE_MARKET_DATA);
+        writeMarketDataBody(writer, marketData);
+        return writer.toByteArray();
+    }
+
+    public static byte[] encode(ReferenceData referenceData) {
+        BinaryWriter writer = header(TYPE_REFERENCE_DATA);
+        writeReferenceDataBody(writer, referenceData);
+        return writer.toByteArray();
+    }
+
+    public static EnrichedTrade decodeEnrichedTrade(byte[] data) {
+        BinaryReader reader = open(data, TYPE_ENRICHED_TRADE);
+        EnrichedTrade trade = new EnrichedTrade();
+        trade.setTradeId(reader.readString());
+        trade.setInstrument(reader.readString());
+        trade.setQuantity(reader.readDecimal());
+        trade.setPrice(reader.readDecimal());
+        trade.setTradeValue(reader.readDecimal());
+        trade.setMarketData(readMarketDataBody(reader));
+        trade.setReferenceData(readReferenceDataBody(reader));
+        if (data[0] >= VALUATION_VERSION) {
+            trade.setMarkPrice(reader.readDecimal());
+            trade.setMarkToMarketValue(reader.readDecimal());
+            trade.setUnrealizedPnl(reader.readDecimal());
+            trade.setSlippageBps(reader.readDecimal());
+            trade.setAccruedInterest(reader.readDecimal());
+            trade.setValuationCurrency(reader.readString());
+        }
+        if (data[0] >= TRADE_DETAILS_VERSION) {
+            trade.setCurrency(reader.readString());
+            trade.setTradeDate(reader.readDateTime());
+            trade.setCounterparty(reader.readString());
+        }
+        return trade;
+    }
+
+    public static MarketData decodeMarketData(byte[] data) {
+        return readMarketDataBody(open(data, TYPE_MARKET_DATA));
+    }
+
+    public static ReferenceData decodeReferenceData(byte[] data) {
+        return readReferenceDataBody(open(data, TYPE_REFERENCE_DATA));
+    }
+
+    /**
+     * Gets the record type of an encoded payload, or -1 if it was not written by this codec.
+     */
+    public static int recordType(byte[] data) {
+        if (data == null || data.length < 2 || data[0] < 1 || data[0] > SCHEMA_VERSION) {
+            return -1;
+        }
+        byte type = data[1];
+        return type >= TYPE_ENRICHED_TRADE && type <= TYPE_REFERENCE_DATA ? type : -1;
+    }
+
+    /**
+     * Whether the payload looks like an enriched trade written by this codec.
+     */
+    public static boolean isEnrichedTrade(byte[] data) {
+        return recordType(data) == TYPE_ENRICHED_TRADE;
+    }
+
+    private static void writeMarketDataBody(BinaryWriter writer, MarketData marketData) {
+        if (marketData == null) {
+            writer.writeByte(BinaryWriter.ABSENT);
+            return;
+        }
+        writer.writeByte(BinaryWriter.PRESENT)
+            .writeString(marketData.getInstrument())
+            .writeDecimal(marketData.getLastPrice())
+            .writeDecimal(marketData.getBidPrice())
+            .writeDecimal(marketData.getAskPrice())
+            .writeDecimal(marketData.getHigh())
+            .writeDecimal(marketData.getLow())
+            .writeDecimal(marketData.getVolume())
+            .writeDateTime(marketData.getTimestamp())
+            .writeString(marketData.getExchange());
+    }
+
+    private static MarketData readMarketDataBody(BinaryReader reader) {
+        if (reader.readByte() == BinaryWriter.ABSENT) {
+            return null;
+        }
+        MarketData marketData = new MarketData();
+        marketData.setInstrument(reader.readString());
+        marketData.setLastPrice(reader.readDecimal());
+        marketData.setBidPrice(reader.readDecimal());
+        marketData.setAskPrice(reader.readDecimal());
+        marketData.setHigh(reader.readDecimal());
+        marketData.setLow(reader.readDecimal());
+        marketData.setVolume(reader.readDecimal());
+        marketData.setTimestamp(reader.readDateTime());
+        marketData.setExchange(reader.readString());
+        return marketData;
+    }
+
+    private static void writeReferenceDataBody(BinaryWriter writer, ReferenceData referenceData) {
+        if (referenceData == null) {
+            writer.writeByte(BinaryWriter.ABSENT);
+            return;
+        }
+        writer.writeByte(BinaryWriter.PRESENT)
+            .writeString(referenceData.getInstrument())
+            .writeString(referenceData.getDescription())
+            .writeString(referenceData.getAssetClass())
+            .writeString(referenceData.getIssuer())
+            .writeString(referenceData.getCurrency())
+            .writeDecimal(referenceData.getParValue())
+            .writeDate(referenceData.getIssueDate())
+            .writeDate(referenceData.getMaturityDate())
+            .writeString(referenceData.getCountryOfIssue())
+            .writeString(referenceData.getIsin())
+            .writeString(referenceData.getCusip())
+            .writeString(referenceData.getSedol())
+            .writeDecimal(referenceData.getCouponRate())
+            .writeString(referenceData.getPaymentFrequency());
+    }
+
+    private static ReferenceData readReferenceDataBody(BinaryReader reader) {
+        if (reader.readByte() == BinaryWriter.ABSENT) {
+            return null;
+        }
+        ReferenceData referenceData = new ReferenceData();
+        referenceData.setInstrument(reader.readString());
+        referenceData.setDescription(reader.readString());
+        referenceData.setAssetClass(reader.readString());
+        referenceData.setIssuer(reader.readString());
+        referenceData.setCurrency(reader.readString());
+        referenceData.setParValue(reader.readDecimal());
+        referenceData.setIssueDate(reader.readDate());
+        referenceData.setMaturityDate(reader.readDate());
+        referenceData.setCountryOfIssue(reader.readString());
+        referenceData.setIsin(reader.readString());
+        referenceData.setCusip(reader.readString());
+        referenceData.setSedol(reader.readString());
+        referenceData.setCouponRate(reader.readDecimal());
+        referenceData.setPaymentFrequency(reader.readString());
+        return referenceData;
+    }
+
+    private static BinaryWriter header(byte type) {
+        return new BinaryWriter(ESTIMATED_RECORD_SIZE)
+            .writeByte(SCHEMA_VERSION)
+            .writeByte(type);
+    }
+
+    private static BinaryReader open(byte[] data, byte expectedType) {
+        BinaryReader reader = new BinaryReader(data);
+        byte version = reader.readByte();
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new SerializationException("Unsupported enrichment schema version: " + version);
+        }
+        byte type = reader.readByte();
+        if (type != expectedType) {
+            throw new SerializationException("Unexpected record type " + type + ", expected " + expectedType);
+        }
+        return reader;
+    }
+}
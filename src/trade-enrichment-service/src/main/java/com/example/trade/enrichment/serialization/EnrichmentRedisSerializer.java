@@ -0,0 +1,133 @@
+package com.example.trade.enrichment.serialization;
+
+import com.example.trade.enrichment.model.MarketData;
+import com.example.trade.enrichment.model.ReferenceData;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+
+/**
+ * Redis value serializer that stores {@link MarketData} and {@link ReferenceData} in the
+ * compact {@link EnrichmentBinaryCodec} layout and everything else as JSON.
+ * <p>
+ * Binary values are wrapped in an envelope: a marker byte that can never start a JSON
+ * document, an envelope version byte, a flags byte, and, when LZ4 compressed, the
+ * uncompressed length. Values without the marker are read as JSON, so entries written
+ * before this serializer was introduced remain readable until they expire.
+ */
+public class EnrichmentRedisSerializer implements RedisSerializer<Object> {
+    static final byte MARKER = (byte) 0xB7;
+    static final byte ENVELOPE_VERSION = 1;
+    static final byte FLAG_LZ4 = 0x01;
+
+    private static final int HEADER_SIZE = 3;
+    private static final int COMPRESSED_HEADER_SIZE = HEADER_SIZE + 4;
+
+    private final RedisSerializer<Object> jsonSerializer = new GenericJackson2JsonRedisSerializer();
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold Encoded size in bytes above which values are LZ4 compressed;
+     *                             0 or less disables compression
+     */
+    public EnrichmentRedisSerializer(int compressionThreshold) {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        byte[] body;
+        if (value instanceof MarketData) {
+            body = EnrichmentBinaryCodec.encode((MarketData) value);
+        } else if (value instanceof ReferenceData) {
+            body = EnrichmentBinaryCodec.encode((ReferenceData) value);
+        } else {
+            return jsonSerializer.serialize(value);
+        }
+        return wrap(body);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MARKER) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE || bytes[1] != ENVELOPE_VERSION) {
+            throw new SerializationException("Unsupported cache envelope version: "
+                + (bytes.length > 1 ? bytes[1] : -1));
+        }
+
+        try {
+            byte[] body = unwrap(bytes);
+            switch (EnrichmentBinaryCodec.recordType(body)) {
+                case EnrichmentBinaryCodec.TYPE_MARKET_DATA:
+                    return EnrichmentBinaryCodec.decodeMarketData(body);
+                case EnrichmentBinaryCodec.TYPE_REFERENCE_DATA:
+                    return EnrichmentBinaryCodec.decodeReferenceData(body);
+                default:
+                    throw new SerializationException("Unexpected record in cache envelope");
+            }
+        } catch (SerializationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not decode cached value", e);
+        }
+    }
+
+    private byte[] wrap(byte[] body) {
+        if (compressionThreshold > 0 && body.length > compressionThreshold) {
+            byte[] compressed = new byte[COMPRESSED_HEADER_SIZE + compressor.maxCompressedLength(body.length)];
+            int compressedLength = compressor.compress(body, 0, body.length,
+                compressed, COMPRESSED_HEADER_SIZE, compressed.length - COMPRESSED_HEADER_SIZE);
+            // Only keep the compressed form if it actually saves space
+            if (COMPRESSED_HEADER_SIZE + compressedLength < HEADER_SIZE + body.length) {
+                compressed[0] = MARKER;
+                compressed[1] = ENVELOPE_VERSION;
+                compressed[2] = FLAG_LZ4;
+                compressed[3] = (byte) (body.length >>> 24);
+                compressed[4] = (byte) (body.length >>> 16);
+                compressed[5] = (byte) (body.length >>> 8);
+                compressed[6] = (byte) body.length;
+                return Arrays.copyOf(compressed, COMPRESSED_HEADER_SIZE + compressedLength);
+            }
+        }
+        byte[] wrapped = new byte[HEADER_SIZE + body.length];
+        wrapped[0] = MARKER;
+        wrapped[1] = ENVELOPE_VERSION;
+        wrapped[2] = 0;
+        System.arraycopy(body, 0, wrapped, HEADER_SIZE, body.length);
+        return wrapped;
+    }
+
+    private byte[] unwrap(byte[] bytes) {
+        if ((bytes[2] & FLAG_LZ4) == 0) {
+            byte[] body = new byte[bytes.length - HEADER_SIZE];
+            System.arraycopy(bytes, HEADER_SIZE, body, 0, body.length);
+            return body;
+        }
+        if (bytes.length < COMPRESSED_HEADER_SIZE) {
+            throw new SerializationException("Truncated compressed cache value");
+        }
+        int length = ((bytes[3] & 0xFF) << 24) | ((bytes[4] & 0xFF) << 16)
+            | ((bytes[5] & 0xFF) << 8) | (bytes[6] & 0xFF);
+        byte[] body = new byte[length];
+        decompressor.decompress(bytes, COMPRESSED_HEADER_SIZE, body, 0, length);
+        return body;
+    }
+}
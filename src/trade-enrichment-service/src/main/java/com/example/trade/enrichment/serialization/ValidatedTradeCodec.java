@@ -0,0 +1,53 @@
+package com.example.trade.enrichment.serialization;
+
+import com.example.trade.enrichment.model.ValidatedTrade;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Decoder for trades published by the validation service in its binary wire format.
+ * <p>
+ * Mirrors the trade record layout of the validation service's BinaryTradeCodec: one byte
+ * schema version, record type 1, then tradeId, instrument, quantity, price, currency,
+ * tradeDate, counterparty and status. The two must be changed together.
+ */
+public final class ValidatedTradeCodec {
+    public static final byte SCHEMA_VERSION = 1;
+
+    static final byte TYPE_TRADE = 1;
+
+    private ValidatedTradeCodec() {
+    }
+
+    public static ValidatedTrade decode(byte[] data) {
+        BinaryReader reader = new BinaryReader(data);
+        byte version = reader.readByte();
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new SerializationException("Unsupported trade schema version: " + version);
+        }
+        byte type = reader.readByte();
+        if (type != TYPE_TRADE) {
+            throw new SerializationException("Unexpected record type " + type + ", expected " + TYPE_TRADE);
+        }
+
+        ValidatedTrade trade = new ValidatedTrade();
+        trade.setTradeId(reader.readString());
+        trade.setInstrument(reader.readString());
+        trade.setQuantity(reader.readDecimal());
+        trade.setPrice(reader.readDecimal());
+        trade.setCurrency(reader.readString());
+        trade.setTradeDate(reader.readDateTime());
+        trade.setCounterparty(reader.readString());
+        trade.setStatus(reader.readString());
+        return trade;
+    }
+
+    /**
+     * Whether the payload looks like a binary trade record.
+     * Used to tell formats apart when a record carries no content-type header.
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1
+            && data[0] > 0 && data[0] <= SCHEMA_VERSION
+            && data[1] == TYPE_TRADE;
+    }
+}
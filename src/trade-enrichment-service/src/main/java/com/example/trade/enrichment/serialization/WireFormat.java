@@ -0,0 +1,53 @@
+package com.example.trade.enrichment.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodings available on the trade topics. Producers tag every record with a
+ * content-type header so consumers can accept both formats during a rollout.
+ */
+public enum WireFormat {
+    JSON("application/json"),
+    BINARY("application/x-trade-binary");
+
+    /** Record header carrying the content type. */
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private static final WireFormat[] FORMATS = values();
+
+    private final String contentType;
+    private final byte[] contentTypeBytes;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+        this.contentTypeBytes = contentType.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the header value for this format. The returned array is shared and must not be modified.
+     */
+    public byte[] getContentTypeBytes() {
+        return contentTypeBytes;
+    }
+
+    /**
+     * Resolves a format from a content-type header value.
+     * @return The matching format, or null if the value is missing or unknown
+     */
+    public static WireFormat fromContentType(byte[] headerValue) {
+        if (headerValue == null) {
+            return null;
+        }
+        for (WireFormat format : FORMATS) {
+            if (Arrays.equals(format.contentTypeBytes, headerValue)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.trade.enrichment.serialization;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Deserializer that accepts both JSON and binary records. The format is taken from the
+ * {@link WireFormat#CONTENT_TYPE_HEADER} header; records without the header (from producers
+ * that predate it) are recognised by their leading bytes.
+ *
+ * @param <T> The record value type
+ */
+public class WireFormatDeserializer<T> implements Deserializer<T> {
+    private final Deserializer<T> jsonDeserializer;
+    private final Function<byte[], T> binaryDecoder;
+    private final Predicate<byte[]> binaryDetector;
+
+    /**
+     * @param jsonDeserializer Deserializer for JSON records
+     * @param binaryDecoder Decoder for binary records
+     * @param binaryDetector Recognises binary payloads on records without a content-type header
+     */
+    public WireFormatDeserializer(Deserializer<T> jsonDeserializer, Function<byte[], T> binaryDecoder,
+            Predicate<byte[]> binaryDetector) {
+        this.jsonDeserializer = jsonDeserializer;
+        this.binaryDecoder = binaryDecoder;
+        this.binaryDetector = binaryDetector;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return binaryDetector.test(data) ? binaryDecoder.apply(data) : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header header = headers.lastHeader(WireFormat.CONTENT_TYPE_HEADER);
+        WireFormat format = header != null ? WireFormat.fromContentType(header.value()) : null;
+        if (format == WireFormat.BINARY) {
+            return binaryDecoder.apply(data);
+        }
+        if (format == WireFormat.JSON) {
+            return jsonDeserializer.deserialize(topic, headers, data);
+        }
+        return binaryDetector.test(data) ? binaryDecoder.apply(data) : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
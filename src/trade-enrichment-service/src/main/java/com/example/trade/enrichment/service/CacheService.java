@@ -1,17 +1,37 @@
 package com.example.trade.enrichment.service;
 
+import com.example.trade.enrichment.cache.NearCache;
+import com.example.trade.enrichment.cache.NearCacheManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service for managing cache operations in the Trade Enrichment Service.
+ * Lookups are served from an in-process near cache first and fall back to Redis;
+ * writes and removals go to both and are broadcast so other nodes drop stale copies.
+ * Values read from Redis are read together with their remaining TTL, and kept in the
+ * near cache no longer than that, so a node never serves an entry Redis has expired.
  */
 @Service
 public class CacheService {
@@ -19,11 +39,19 @@ public class CacheService {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final CacheManager cacheManager;
+    private final NearCacheManager nearCacheManager;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    @Value("${trade-enrichment.cache.early-refresh-beta}")
+    private double earlyRefreshBeta;
 
     @Autowired
-    public CacheService(RedisTemplate<String, Object> redisTemplate, CacheManager cacheManager) {
+    public CacheService(RedisTemplate<String, Object> redisTemplate, CacheManager cacheManager,
+            NearCacheManager nearCacheManager, ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
         this.redisTemplate = redisTemplate;
         this.cacheManager = cacheManager;
+        this.nearCacheManager = nearCacheManager;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
     }
 
     /**
@@ -34,9 +62,22 @@ public class CacheService {
      * @return Optional containing the cached value, or empty if not found
      */
     public <T> Optional<T> get(String cacheName, String key, Class<T> type) {
+        NearCache nearCache = nearCacheManager.getCache(cacheName);
+        Object nearValue = nearCache.get(key);
+        if (type.isInstance(nearValue)) {
+            return Optional.of(type.cast(nearValue));
+        }
+
         try {
-            Object value = redisTemplate.opsForValue().get(formatKey(cacheName, key));
+            byte[] rawKey = redisTemplate.getStringSerializer().serialize(formatKey(cacheName, key));
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.stringCommands().get(rawKey);
+                connection.keyCommands().pTtl(rawKey);
+                return null;
+            });
+            Object value = results.get(0);
             if (value != null && type.isInstance(value)) {
+                nearCache.put(key, value, nearTtlMillis(cacheName, (Long) results.get(1)));
                 return Optional.of(type.cast(value));
             }
             return Optional.empty();
@@ -46,6 +87,115 @@ public class CacheService {
         }
     }
 
+    /**
+     * Gets a value from the specified cache without blocking the caller.
+     * Near cache hits complete immediately; misses are read from Redis asynchronously.
+     * @param cacheName The name of the cache to query
+     * @param key The cache key
+     * @param type The expected type of the cached value
+     * @return Future of an Optional containing the cached value, or empty if not found or on error
+     */
+    public <T> CompletableFuture<Optional<T>> getAsync(String cacheName, String key, Class<T> type) {
+        NearCache nearCache = nearCacheManager.getCache(cacheName);
+        Object nearValue = nearCache.get(key);
+        if (type.isInstance(nearValue)) {
+            return CompletableFuture.completedFuture(Optional.of(type.cast(nearValue)));
+        }
+
+        String fullKey = formatKey(cacheName, key);
+        // getExpire is empty once the key is gone and ZERO for a key without expiry
+        return reactiveRedisTemplate.opsForValue().get(fullKey)
+            .zipWith(reactiveRedisTemplate.getExpire(fullKey))
+            .toFuture()
+            .handle((valueAndExpiry, error) -> {
+                if (error != null) {
+                    logger.error("Error retrieving value from cache {}: {}", cacheName, error.getMessage());
+                    return Optional.<T>empty();
+                }
+                if (valueAndExpiry != null && type.isInstance(valueAndExpiry.getT1())) {
+                    Duration expiry = valueAndExpiry.getT2();
+                    nearCache.put(key, valueAndExpiry.getT1(),
+                        nearTtlMillis(cacheName, expiry.isZero() ? -1L : expiry.toMillis()));
+                    return Optional.of(type.cast(valueAndExpiry.getT1()));
+                }
+                return Optional.<T>empty();
+            });
+    }
+
+    /**
+     * Gets several values from one cache with a single Redis round trip for the near cache misses.
+     * @param cacheName The name of the cache to query
+     * @param keys The cache keys
+     * @param type The expected type of the cached values
+     * @return Map of key to value for the keys found; missing keys are absent
+     */
+    public <T> Map<String, T> getAll(String cacheName, Collection<String> keys, Class<T> type) {
+        Map<String, T> typed = new HashMap<>();
+        getAll(Collections.singletonMap(cacheName, keys)).get(cacheName).forEach((key, value) -> {
+            if (type.isInstance(value)) {
+                typed.put(key, type.cast(value));
+            }
+        });
+        return typed;
+    }
+
+    /**
+     * Gets keys from several caches, with one pipelined GET and PTTL per near cache miss.
+     * @param keysByCache Map of cache name to the keys to look up in that cache
+     * @return Map of cache name to the key-value pairs found in that cache
+     */
+    public Map<String, Map<String, Object>> getAll(Map<String, ? extends Collection<String>> keysByCache) {
+        Map<String, Map<String, Object>> found = new HashMap<>();
+        List<String> missedCaches = new ArrayList<>();
+        List<String> missedKeys = new ArrayList<>();
+        List<String> redisKeys = new ArrayList<>();
+
+        for (Map.Entry<String, ? extends Collection<String>> cacheKeys : keysByCache.entrySet()) {
+            String cacheName = cacheKeys.getKey();
+            Map<String, Object> hits = new HashMap<>();
+            found.put(cacheName, hits);
+            NearCache nearCache = nearCacheManager.getCache(cacheName);
+            for (String key : cacheKeys.getValue()) {
+                Object value = nearCache.get(key);
+                if (value != null) {
+                    hits.put(key, value);
+                } else {
+                    missedCaches.add(cacheName);
+                    missedKeys.add(key);
+                    redisKeys.add(formatKey(cacheName, key));
+                }
+            }
+        }
+        if (redisKeys.isEmpty()) {
+            return found;
+        }
+
+        try {
+            RedisSerializer<String> keySerializer = redisTemplate.getStringSerializer();
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String redisKey : redisKeys) {
+                    byte[] rawKey = keySerializer.serialize(redisKey);
+                    connection.stringCommands().get(rawKey);
+                    connection.keyCommands().pTtl(rawKey);
+                }
+                return null;
+            });
+            for (int i = 0; i < redisKeys.size(); i++) {
+                Object value = results.get(2 * i);
+                if (value != null) {
+                    String cacheName = missedCaches.get(i);
+                    found.get(cacheName).put(missedKeys.get(i), value);
+                    nearCacheManager.getCache(cacheName)
+                        .put(missedKeys.get(i), value, nearTtlMillis(cacheName, (Long) results.get(2 * i + 1)));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error retrieving {} values from caches {}: {}",
+                redisKeys.size(), keysByCache.keySet(), e.getMessage());
+        }
+        return found;
+    }
+
     /**
      * Puts a value in the specified cache.
      * @param cacheName The name of the cache to use
@@ -54,9 +204,24 @@ public class CacheService {
      * @param ttlMillis Time-to-live in milliseconds
      */
     public void put(String cacheName, String key, Object value, long ttlMillis) {
+        put(cacheName, key, value, ttlMillis, 0L);
+    }
+
+    /**
+     * Puts a freshly loaded value in the specified cache, recording how long the load took
+     * so hot entries can be refreshed ahead of expiry.
+     * @param cacheName The name of the cache to use
+     * @param key The cache key
+     * @param value The value to cache
+     * @param ttlMillis Time-to-live in milliseconds
+     * @param loadMillis Time taken to load the value from its source
+     */
+    public void put(String cacheName, String key, Object value, long ttlMillis, long loadMillis) {
         try {
             String fullKey = formatKey(cacheName, key);
             redisTemplate.opsForValue().set(fullKey, value, ttlMillis, TimeUnit.MILLISECONDS);
+            nearCacheManager.getCache(cacheName).put(key, value, ttlMillis, loadMillis);
+            nearCacheManager.publishInvalidation(cacheName, key);
             logger.debug("Cached value for key {} in cache {}", key, cacheName);
         } catch (Exception e) {
             logger.error("Error caching value for key {} in cache {}: {}", 
@@ -64,6 +229,65 @@ public class CacheService {
         }
     }
 
+    /**
+     * Puts several values in one cache with pipelined SET ... PX commands.
+     * @param cacheName The name of the cache to use
+     * @param values Map of key to value
+     * @param ttlMillis Time-to-live in milliseconds
+     */
+    public void putAll(String cacheName, Map<String, ?> values, long ttlMillis) {
+        putAll(Collections.singletonMap(cacheName, values), Collections.singletonMap(cacheName, ttlMillis));
+    }
+
+    /**
+     * Puts values in several caches in one pipeline, together with one invalidation
+     * message per cache for the other nodes.
+     * @param valuesByCache Map of cache name to the key-value pairs to store
+     * @param ttlsByCache Map of cache name to time-to-live in milliseconds
+     */
+    public void putAll(Map<String, ? extends Map<String, ?>> valuesByCache, Map<String, Long> ttlsByCache) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisSerializer<String> keySerializer = redisTemplate.getStringSerializer();
+        byte[] channel = keySerializer.serialize(NearCacheManager.INVALIDATION_CHANNEL);
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                valuesByCache.forEach((cacheName, values) -> {
+                    if (values.isEmpty()) {
+                        return;
+                    }
+                    Expiration expiration = Expiration.milliseconds(ttlsByCache.get(cacheName));
+                    values.forEach((key, value) -> connection.stringCommands().set(
+                        keySerializer.serialize(formatKey(cacheName, key)), valueSerializer.serialize(value),
+                        expiration, RedisStringCommands.SetOption.upsert()));
+                    connection.publish(channel,
+                        nearCacheManager.serializeInvalidation(cacheName, new ArrayList<>(values.keySet())));
+                });
+                return null;
+            });
+
+            valuesByCache.forEach((cacheName, values) -> {
+                NearCache nearCache = nearCacheManager.getCache(cacheName);
+                long ttlMillis = ttlsByCache.get(cacheName);
+                values.forEach((key, value) -> nearCache.put(key, value, ttlMillis));
+            });
+            logger.debug("Cached values for caches {}", valuesByCache.keySet());
+        } catch (Exception e) {
+            logger.error("Error caching values for caches {}: {}", valuesByCache.keySet(), e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a cached entry should be reloaded before it expires.
+     * @param cacheName The name of the cache
+     * @param key The cache key
+     * @return true if the caller should start a background refresh
+     */
+    public boolean isRefreshDue(String cacheName, String key) {
+        return nearCacheManager.getCache(cacheName).isRefreshDue(key, earlyRefreshBeta);
+    }
+
     /**
      * Removes a value from the specified cache.
      * @param cacheName The name of the cache
@@ -72,6 +296,8 @@ public class CacheService {
     public void remove(String cacheName, String key) {
         try {
             redisTemplate.delete(formatKey(cacheName, key));
+            nearCacheManager.getCache(cacheName).remove(key);
+            nearCacheManager.publishInvalidation(cacheName, key);
             logger.debug("Removed key {} from cache {}", key, cacheName);
         } catch (Exception e) {
             logger.error("Error removing key {} from cache {}: {}", 
@@ -85,6 +311,8 @@ public class CacheService {
      */
     public void clearCache(String cacheName) {
         try {
+            nearCacheManager.getCache(cacheName).clear();
+            nearCacheManager.publishInvalidation(cacheName, null);
             var cache = cacheManager.getCache(cacheName);
             if (cache != null) {
                 cache.clear();
@@ -112,6 +340,21 @@ public class CacheService {
         }
     }
 
+    /**
+     * Gets the near cache TTL for a value read from Redis: the cache's TTL, capped at the
+     * time the Redis entry has left.
+     * @param cacheName The name of the cache
+     * @param remainingMillis The PTTL of the Redis entry: -1 if it has no expiry, -2 if it is gone
+     * @return The near cache TTL in milliseconds; not positive if the entry should not be kept
+     */
+    private long nearTtlMillis(String cacheName, Long remainingMillis) {
+        long ttlMillis = nearCacheManager.getTtlMillis(cacheName);
+        if (remainingMillis == null || remainingMillis == -1L) {
+            return ttlMillis;
+        }
+        return Math.min(ttlMillis, remainingMillis);
+    }
+
     private String formatKey(String cacheName, String key) {
         return String.format("%s::%s", cacheName, key);
     }
@@ -0,0 +1,13 @@
+package com.example.trade.enrichment.service;
+
+/**
+ * Thrown when a trade could not be enriched for lack of capacity rather than because
+ * of the trade itself. The error handler retries such records without dead-lettering them.
+ */
+public class EnrichmentSaturatedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public EnrichmentSaturatedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.trade.enrichment.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Emits results of asynchronous work in submission order per partition, while letting
+ * the work itself complete in any order. Each partition keeps a chain of emissions, and
+ * a result is emitted only after everything submitted before it on the same partition.
+ * Emissions run on the given executor rather than on the thread that completed the work,
+ * which may be a Redis or HTTP client I/O thread that must not block.
+ *
+ * @param <R> The result type
+ */
+public class PartitionOrderedEmitter<R> {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionOrderedEmitter.class);
+
+    private final Map<Integer, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    public PartitionOrderedEmitter(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a pending result for ordered emission on a partition.
+     * @param partition The source partition
+     * @param work The pending result
+     * @param emitter Called, in order, with the result or with the error if the work failed
+     * @return Future completed once this result has been emitted
+     */
+    public CompletableFuture<Void> submit(int partition, CompletableFuture<R> work, BiConsumer<R, Throwable> emitter) {
+        return tails.compute(partition, (p, tail) -> {
+            CompletableFuture<Void> previous = tail != null ? tail : CompletableFuture.completedFuture(null);
+            return previous.thenCompose(ignored -> work.handleAsync((result, error) -> {
+                try {
+                    emitter.accept(result, error);
+                } catch (RuntimeException e) {
+                    logger.error("Error emitting result for partition {}: {}", partition, e.getMessage());
+                }
+                return null;
+            }, executor));
+        });
+    }
+
+    /**
+     * Gets a future completed once everything submitted so far on a partition has been
+     * emitted, e.g. before committing its offsets.
+     * @param partition The source partition
+     * @return Future of the last emission on the partition
+     */
+    public CompletableFuture<Void> drained(int partition) {
+        CompletableFuture<Void> tail = tails.get(partition);
+        return tail != null ? tail : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Forgets a partition, e.g. after it has been revoked and drained.
+     * @param partition The source partition
+     */
+    public void remove(int partition) {
+        tails.remove(partition);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.trade.enrichment.service;
+
+import com.example.trade.enrichment.model.EnrichedTrade;
+import com.example.trade.enrichment.model.ValidatedTrade;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Kafka listener for validated trades.
+ * <p>
+ * Each poll batch is enriched asynchronously, so many trades are in flight at once, while
+ * results are published in the input order of each partition, from a small publishing
+ * pool so sends never run on the I/O threads that complete the lookups. Trades that cannot be
+ * enriched go to the error topic. The listener returns, and the batch offsets are committed,
+ * only after every record of the batch has been published. If a record cannot be read or
+ * published in time, the batch fails at the first such record and the error handler retries
+ * or dead-letters it. If enrichment is saturated, the batch fails at that record and is
+ * retried until capacity frees up, without being dead-lettered.
+ */
+@Component
+public class TradeEnrichmentListener {
+    private static final Logger logger = LoggerFactory.getLogger(TradeEnrichmentListener.class);
+
+    public static final String LISTENER_ID = "trade-enrichment-listener";
+    static final String ERROR_HEADER = "enrichment-error";
+
+    private final TradeEnrichmentService enrichmentService;
+    private final KafkaTemplate<String, EnrichedTrade> enrichedTradeKafkaTemplate;
+    private final KafkaTemplate<String, Object> errorKafkaTemplate;
+
+    @Value("${trade-enrichment.kafka.output-topic}")
+    private String outputTopic;
+
+    @Value("${trade-enrichment.kafka.error-topic}")
+    private String errorTopic;
+
+    @Value("${trade-enrichment.kafka.batch-timeout-ms}")
+    private long batchTimeoutMs;
+
+    @Value("${trade-enrichment.kafka.publish-threads}")
+    private int publishThreads;
+
+    private ExecutorService publishExecutor;
+
+    @Autowired
+    public TradeEnrichmentListener(TradeEnrichmentService enrichmentService,
+            KafkaTemplate<String, EnrichedTrade> enrichedTradeKafkaTemplate,
+            KafkaTemplate<String, Object> errorKafkaTemplate) {
+        this.enrichmentService = enrichmentService;
+        this.enrichedTradeKafkaTemplate = enrichedTradeKafkaTemplate;
+        this.errorKafkaTemplate = errorKafkaTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.publishExecutor = Executors.newFixedThreadPool(publishThreads, runnable -> {
+            Thread thread = new Thread(runnable, "enrichment-publish-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publishExecutor.shutdown();
+    }
+
+    /**
+     * Enriches and publishes a batch of validated trades.
+     * @param records The records returned by one poll
+     */
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = "${trade-enrichment.kafka.input-topic}",
+        containerFactory = "enrichmentListenerContainerFactory"
+    )
+    public void processTrades(List<ConsumerRecord<String, ValidatedTrade>> records) throws Exception {
+        PartitionOrderedEmitter<EnrichedTrade> emitter = new PartitionOrderedEmitter<>(publishExecutor);
+        Queue<CompletableFuture<?>> sends = new ConcurrentLinkedQueue<>();
+        AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+        Set<Integer> partitions = new HashSet<>();
+        AtomicIntegerArray published = new AtomicIntegerArray(records.size());
+        AtomicInteger saturatedAt = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicReference<Throwable> saturation = new AtomicReference<>();
+
+        for (int i = 0; i < records.size() && saturatedAt.get() == Integer.MAX_VALUE; i++) {
+            ConsumerRecord<String, ValidatedTrade> record = records.get(i);
+            if (record.value() == null) {
+                // Not deserializable; leave it to the error handler once the rest is published
+                firstFailure.accumulateAndGet(i, Math::min);
+                continue;
+            }
+
+            int index = i;
+            partitions.add(record.partition());
+            emitter.submit(record.partition(), enrichmentService.enrichTradeAsync(record.value()),
+                (enriched, error) -> {
+                    if (enriched == null && isSaturated(error)) {
+                        // Not the trade's fault: the error handler retries it without dead-lettering
+                        logger.warn("Enrichment saturated at trade {}: {}", record.value().getTradeId(),
+                            error.getMessage());
+                        saturation.compareAndSet(null, error);
+                        saturatedAt.accumulateAndGet(index, Math::min);
+                        firstFailure.accumulateAndGet(index, Math::min);
+                        return;
+                    }
+                    CompletableFuture<?> send = enriched != null
+                        ? enrichedTradeKafkaTemplate.send(outputTopic, record.key(), enriched).completable()
+                        : errorKafkaTemplate.send(errorRecord(record, error)).completable();
+                    sends.add(send.whenComplete((result, sendError) -> {
+                        if (sendError != null) {
+                            logger.error("Failed to publish trade {}: {}",
+                                record.value().getTradeId(), sendError.getMessage());
+                            firstFailure.accumulateAndGet(index, Math::min);
+                        } else {
+                            published.set(index, 1);
+                        }
+                    }));
+                });
+        }
+
+        // Every emission has been attempted once each partition chain has drained
+        List<CompletableFuture<Void>> drained = new ArrayList<>();
+        for (int partition : partitions) {
+            drained.add(emitter.drained(partition));
+        }
+        try {
+            CompletableFuture.allOf(drained.toArray(new CompletableFuture<?>[0]))
+                .get(batchTimeoutMs, TimeUnit.MILLISECONDS);
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                .get(batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Individual send failures are recorded in firstFailure
+        } catch (TimeoutException e) {
+            logger.warn("Batch of {} trades not published within {} ms", records.size(), batchTimeoutMs);
+        }
+
+        // Also covers records still in flight after a timeout, so the batch never fails as a whole
+        int failed = Math.min(firstFailure.get(), firstUnpublished(published));
+        if (failed != Integer.MAX_VALUE) {
+            if (records.get(failed).value() == null) {
+                // Marked as a deserialization failure so the error handler dead-letters it without retrying
+                throw new BatchListenerFailedException("Undeserializable record in enrichment batch",
+                    new DeserializationException("Could not deserialize validated trade", null, false, null), failed);
+            }
+            if (failed == saturatedAt.get()) {
+                throw new BatchListenerFailedException("Enrichment saturated in enrichment batch",
+                    new EnrichmentSaturatedException("Enrichment saturated", saturation.get()), failed);
+            }
+            throw new BatchListenerFailedException("Failed to publish record in enrichment batch", failed);
+        }
+        logger.debug("Enriched and published batch of {} trades", records.size());
+    }
+
+    private static int firstUnpublished(AtomicIntegerArray published) {
+        for (int i = 0; i < published.length(); i++) {
+            if (published.get(i) == 0) {
+                return i;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Whether enrichment failed for lack of capacity rather than because of the trade:
+     * no in-flight permit was free in time, or the lookup pool rejected the load.
+     */
+    private static boolean isSaturated(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof TimeoutException || cause instanceof RejectedExecutionException;
+    }
+
+    private ProducerRecord<String, Object> errorRecord(ConsumerRecord<String, ValidatedTrade> record, Throwable error) {
+        Throwable cause = error != null && error.getCause() != null ? error.getCause() : error;
+        String message = cause != null ? String.valueOf(cause.getMessage()) : "Enrichment failed";
+        ProducerRecord<String, Object> errorRecord = new ProducerRecord<>(errorTopic, record.key(), record.value());
+        errorRecord.headers().add(ERROR_HEADER, message.getBytes(StandardCharsets.UTF_8));
+        return errorRecord;
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.trade.enrichment.service;
 
+import com.example.trade.enrichment.cache.SingleFlightLoader;
 import com.example.trade.enrichment.model.EnrichedTrade;
 import com.example.trade.enrichment.model.MarketData;
 import com.example.trade.enrichment.model.ReferenceData;
+import com.example.trade.enrichment.model.ValidatedTrade;
+import com.example.trade.enrichment.refdata.ReferenceDataStore;
+import com.example.trade.enrichment.valuation.TradeValuationEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +14,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * Service responsible for enriching trades with market and reference data.
@@ -18,8 +34,15 @@ import java.util.Optional;
 @Service
 public class TradeEnrichmentService {
     private static final Logger logger = LoggerFactory.getLogger(TradeEnrichmentService.class);
+    private static final String MARKET_DATA_CACHE = "marketData";
+    private static final String REFERENCE_DATA_CACHE = "referenceData";
     
     private final CacheService cacheService;
+    private final SingleFlightLoader singleFlightLoader;
+    private final ReferenceDataStore referenceDataStore;
+    private final TradeValuationEngine valuationEngine;
+    private final Semaphore inFlightPermits;
+    private final long permitTimeoutMs;
     
     @Value("${trade-enrichment.cache.market-data-ttl}")
     private long marketDataTtl;
@@ -28,8 +51,16 @@ public class TradeEnrichmentService {
     private long referenceDataTtl;
 
     @Autowired
-    public TradeEnrichmentService(CacheService cacheService) {
+    public TradeEnrichmentService(CacheService cacheService, SingleFlightLoader singleFlightLoader,
+            ReferenceDataStore referenceDataStore, TradeValuationEngine valuationEngine,
+            @Value("${trade-enrichment.async.max-in-flight}") int maxInFlight,
+            @Value("${trade-enrichment.async.permit-timeout-ms}") long permitTimeoutMs) {
         this.cacheService = cacheService;
+        this.singleFlightLoader = singleFlightLoader;
+        this.referenceDataStore = referenceDataStore;
+        this.valuationEngine = valuationEngine;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.permitTimeoutMs = permitTimeoutMs;
     }
 
     /**
@@ -59,17 +90,8 @@ public class TradeEnrichmentService {
                 return Optional.empty();
             }
 
-            EnrichedTrade enrichedTrade = new EnrichedTrade();
-            enrichedTrade.setTradeId(tradeId);
-            enrichedTrade.setInstrument(instrument);
-            enrichedTrade.setQuantity(quantity);
-            enrichedTrade.setPrice(price);
-            enrichedTrade.setMarketData(marketData.get());
-            enrichedTrade.setReferenceData(referenceData.get());
-            
-            // Calculate trade value using market data
-            BigDecimal tradeValue = calculateTradeValue(quantity, price, marketData.get());
-            enrichedTrade.setTradeValue(tradeValue);
+            EnrichedTrade enrichedTrade = buildEnrichedTrade(tradeId, instrument, quantity, price, null,
+                marketData.get(), referenceData.get());
 
             logger.info("Successfully enriched trade: {}", tradeId);
             return Optional.of(enrichedTrade);
@@ -79,52 +101,251 @@ public class TradeEnrichmentService {
         }
     }
 
-    private Optional<MarketData> getMarketData(String instrument) {
-        // Try to get from cache first
-        Optional<MarketData> cachedData = cacheService.get(
-            "marketData", 
-            instrument, 
-            MarketData.class
-        );
+    /**
+     * Enriches a trade without blocking on cache or upstream lookups. Market and reference
+     * data are fetched concurrently. The number of trades in flight is capped; when the cap
+     * is reached this call blocks the caller for up to the permit timeout, which pushes back
+     * on the consumer, and then fails rather than waiting indefinitely.
+     * @param trade The validated trade to enrich
+     * @return Future completed with the enriched trade, or exceptionally if enrichment failed;
+     *         {@link TimeoutException} if no permit was free in time
+     */
+    public CompletableFuture<EnrichedTrade> enrichTradeAsync(ValidatedTrade trade) {
+        try {
+            if (!inFlightPermits.tryAcquire(permitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new TimeoutException(
+                    "No enrichment permit within " + permitTimeoutMs + " ms for trade " + trade.getTradeId()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
 
-        if (cachedData.isPresent()) {
-            return cachedData;
+        CompletableFuture<EnrichedTrade> result;
+        try {
+            String instrument = trade.getInstrument();
+            CompletableFuture<MarketData> marketData = getOrLoadAsync(MARKET_DATA_CACHE, instrument,
+                MarketData.class, marketDataTtl, () -> fetchMarketDataFromExternalService(instrument));
+            Optional<ReferenceData> preloaded = referenceDataStore.findByInstrument(instrument);
+            CompletableFuture<ReferenceData> referenceData = preloaded.isPresent()
+                ? CompletableFuture.completedFuture(preloaded.get())
+                : getOrLoadAsync(REFERENCE_DATA_CACHE, instrument, ReferenceData.class, referenceDataTtl,
+                    () -> fetchReferenceDataFromExternalService(instrument));
+
+            result = marketData.thenCombine(referenceData, (market, reference) -> {
+                if (market == null || reference == null) {
+                    throw new IllegalStateException("Missing market or reference data for instrument " + instrument);
+                }
+                return buildEnrichedTrade(trade, market, reference);
+            });
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((enriched, error) -> {
+            inFlightPermits.release();
+            if (error != null) {
+                logger.error("Error enriching trade {}: {}", trade.getTradeId(), error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Enriches a batch of trades. Market and reference data for all distinct instruments
+     * are read with one multi-get, and everything missing from cache is written back in
+     * one pipeline, so a batch costs about two cache round trips instead of two per trade.
+     * @param trades The validated trades to enrich
+     * @return One result per input trade, in input order; empty where enrichment failed
+     */
+    public List<Optional<EnrichedTrade>> enrichTrades(List<ValidatedTrade> trades) {
+        Set<String> instruments = new LinkedHashSet<>();
+        for (ValidatedTrade trade : trades) {
+            if (trade.getInstrument() != null) {
+                instruments.add(trade.getInstrument());
+            }
+        }
+
+        // Reference data from the preloaded snapshot needs no cache lookup
+        Map<String, Object> snapshotReferenceData = new HashMap<>();
+        Set<String> referenceDataKeys = new LinkedHashSet<>();
+        for (String instrument : instruments) {
+            Optional<ReferenceData> preloaded = referenceDataStore.findByInstrument(instrument);
+            if (preloaded.isPresent()) {
+                snapshotReferenceData.put(instrument, preloaded.get());
+            } else {
+                referenceDataKeys.add(instrument);
+            }
+        }
+
+        Map<String, Set<String>> keysByCache = new HashMap<>();
+        keysByCache.put(MARKET_DATA_CACHE, instruments);
+        keysByCache.put(REFERENCE_DATA_CACHE, referenceDataKeys);
+        Map<String, Map<String, Object>> cached = cacheService.getAll(keysByCache);
+        Map<String, Object> marketData = cached.get(MARKET_DATA_CACHE);
+        Map<String, Object> referenceData = cached.get(REFERENCE_DATA_CACHE);
+        referenceData.putAll(snapshotReferenceData);
+
+        // Load everything the caches missed, then write it back in a single pipeline
+        Map<String, Object> loadedMarketData = new HashMap<>();
+        Map<String, Object> loadedReferenceData = new HashMap<>();
+        for (String instrument : instruments) {
+            if (!(marketData.get(instrument) instanceof MarketData)) {
+                loadInto(loadedMarketData, MARKET_DATA_CACHE, instrument,
+                    () -> fetchMarketDataFromExternalService(instrument));
+            }
+            if (!(referenceData.get(instrument) instanceof ReferenceData)) {
+                loadInto(loadedReferenceData, REFERENCE_DATA_CACHE, instrument,
+                    () -> fetchReferenceDataFromExternalService(instrument));
+            }
+        }
+        if (!loadedMarketData.isEmpty() || !loadedReferenceData.isEmpty()) {
+            Map<String, Map<String, Object>> loaded = new HashMap<>();
+            loaded.put(MARKET_DATA_CACHE, loadedMarketData);
+            loaded.put(REFERENCE_DATA_CACHE, loadedReferenceData);
+            Map<String, Long> ttls = new HashMap<>();
+            ttls.put(MARKET_DATA_CACHE, marketDataTtl);
+            ttls.put(REFERENCE_DATA_CACHE, referenceDataTtl);
+            cacheService.putAll(loaded, ttls);
+            marketData.putAll(loadedMarketData);
+            referenceData.putAll(loadedReferenceData);
+        }
+
+        List<Optional<EnrichedTrade>> results = new ArrayList<>(trades.size());
+        for (ValidatedTrade trade : trades) {
+            Object tradeMarketData = marketData.get(trade.getInstrument());
+            Object tradeReferenceData = referenceData.get(trade.getInstrument());
+            if (!(tradeMarketData instanceof MarketData) || !(tradeReferenceData instanceof ReferenceData)) {
+                logger.error("Failed to retrieve market or reference data for trade {} instrument {}",
+                    trade.getTradeId(), trade.getInstrument());
+                results.add(Optional.empty());
+                continue;
+            }
+            try {
+                results.add(Optional.of(buildEnrichedTrade(trade,
+                    (MarketData) tradeMarketData, (ReferenceData) tradeReferenceData)));
+            } catch (Exception e) {
+                logger.error("Error enriching trade {}: {}", trade.getTradeId(), e.getMessage());
+                results.add(Optional.empty());
+            }
         }
+        logger.debug("Enriched batch of {} trades across {} instruments", trades.size(), instruments.size());
+        return results;
+    }
+
+    /**
+     * Builds the enriched trade of a validated trade, carrying over the currency, trade
+     * date and counterparty that downstream aggregation keys on.
+     */
+    private EnrichedTrade buildEnrichedTrade(ValidatedTrade trade, MarketData marketData,
+            ReferenceData referenceData) {
+        EnrichedTrade enrichedTrade = buildEnrichedTrade(trade.getTradeId(), trade.getInstrument(),
+            trade.getQuantity(), trade.getPrice(), trade.getTradeDate(), marketData, referenceData);
+        enrichedTrade.setCurrency(trade.getCurrency());
+        enrichedTrade.setTradeDate(trade.getTradeDate());
+        enrichedTrade.setCounterparty(trade.getCounterparty());
+        return enrichedTrade;
+    }
+
+    /**
+     * Builds the enriched trade and values it against the market data. Interest is
+     * accrued to the trade date, or to today when the trade date is unknown.
+     */
+    private EnrichedTrade buildEnrichedTrade(String tradeId, String instrument, BigDecimal quantity,
+            BigDecimal price, LocalDateTime tradeDate, MarketData marketData, ReferenceData referenceData) {
+        EnrichedTrade enrichedTrade = new EnrichedTrade();
+        enrichedTrade.setTradeId(tradeId);
+        enrichedTrade.setInstrument(instrument);
+        enrichedTrade.setQuantity(quantity);
+        enrichedTrade.setPrice(price);
+        enrichedTrade.setMarketData(marketData);
+        enrichedTrade.setReferenceData(referenceData);
+        enrichedTrade.setTradeValue(calculateTradeValue(quantity, price));
 
-        // If not in cache, fetch from external service (simulated here)
+        if (tradeDate != null) {
+            valuationEngine.value(enrichedTrade, marketData, referenceData, tradeDate.toLocalDate().toEpochDay());
+        } else {
+            valuationEngine.value(enrichedTrade, marketData, referenceData);
+        }
+        return enrichedTrade;
+    }
+
+    private void loadInto(Map<String, Object> loaded, String cacheName, String instrument, Supplier<?> fetcher) {
         try {
-            MarketData marketData = fetchMarketDataFromExternalService(instrument);
-            cacheService.put("marketData", instrument, marketData, marketDataTtl);
-            return Optional.of(marketData);
+            Object value = fetcher.get();
+            if (value != null) {
+                loaded.put(instrument, value);
+            }
         } catch (Exception e) {
-            logger.error("Error fetching market data for {}: {}", instrument, e.getMessage());
-            return Optional.empty();
+            logger.error("Error fetching {} for {}: {}", cacheName, instrument, e.getMessage());
         }
     }
 
+    private Optional<MarketData> getMarketData(String instrument) {
+        return getOrLoad(MARKET_DATA_CACHE, instrument, MarketData.class, marketDataTtl,
+            () -> fetchMarketDataFromExternalService(instrument));
+    }
+
     private Optional<ReferenceData> getReferenceData(String instrument) {
-        // Try to get from cache first
-        Optional<ReferenceData> cachedData = cacheService.get(
-            "referenceData", 
-            instrument, 
-            ReferenceData.class
-        );
+        Optional<ReferenceData> preloaded = referenceDataStore.findByInstrument(instrument);
+        if (preloaded.isPresent()) {
+            return preloaded;
+        }
+        return getOrLoad(REFERENCE_DATA_CACHE, instrument, ReferenceData.class, referenceDataTtl,
+            () -> fetchReferenceDataFromExternalService(instrument));
+    }
+
+    /**
+     * Reads a value from cache, loading it on a miss. Concurrent misses for the same key
+     * share one upstream call, and hot entries are refreshed in the background shortly
+     * before they expire so callers keep hitting the cache.
+     */
+    private <T> Optional<T> getOrLoad(String cacheName, String key, Class<T> type, long ttlMillis,
+            Supplier<T> fetcher) {
+        String flightKey = cacheName + "::" + key;
 
+        // Try to get from cache first
+        Optional<T> cachedData = cacheService.get(cacheName, key, type);
         if (cachedData.isPresent()) {
+            if (cacheService.isRefreshDue(cacheName, key)) {
+                singleFlightLoader.refreshAsync(flightKey,
+                    () -> loadAndCache(cacheName, key, ttlMillis, fetcher));
+            }
             return cachedData;
         }
 
-        // If not in cache, fetch from external service (simulated here)
+        // If not in cache, fetch from external service once for all concurrent callers
         try {
-            ReferenceData referenceData = fetchReferenceDataFromExternalService(instrument);
-            cacheService.put("referenceData", instrument, referenceData, referenceDataTtl);
-            return Optional.of(referenceData);
+            return Optional.ofNullable(singleFlightLoader.load(flightKey,
+                () -> loadAndCache(cacheName, key, ttlMillis, fetcher)));
         } catch (Exception e) {
-            logger.error("Error fetching reference data for {}: {}", instrument, e.getMessage());
+            logger.error("Error fetching {} for {}: {}", cacheName, key, e.getMessage());
             return Optional.empty();
         }
     }
 
+    private <T> CompletableFuture<T> getOrLoadAsync(String cacheName, String key, Class<T> type, long ttlMillis,
+            Supplier<T> fetcher) {
+        String flightKey = cacheName + "::" + key;
+        return cacheService.getAsync(cacheName, key, type).thenCompose(cachedData -> {
+            if (cachedData.isPresent()) {
+                if (cacheService.isRefreshDue(cacheName, key)) {
+                    singleFlightLoader.refreshAsync(flightKey,
+                        () -> loadAndCache(cacheName, key, ttlMillis, fetcher));
+                }
+                return CompletableFuture.completedFuture(cachedData.get());
+            }
+            return singleFlightLoader.loadAsync(flightKey, () -> loadAndCache(cacheName, key, ttlMillis, fetcher));
+        });
+    }
+
+    private <T> T loadAndCache(String cacheName, String key, long ttlMillis, Supplier<T> fetcher) {
+        long start = System.nanoTime();
+        T value = fetcher.get();
+        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        cacheService.put(cacheName, key, value, ttlMillis, loadMillis);
+        return value;
+    }
+
     // Simulated external service calls (to be implemented with actual service integration)
     private MarketData fetchMarketDataFromExternalService(String instrument) {
         // TODO: Implement actual market data service integration
@@ -142,9 +363,10 @@ public class TradeEnrichmentService {
         return data;
     }
 
-    private BigDecimal calculateTradeValue(BigDecimal quantity, BigDecimal price, 
-            MarketData marketData) {
-        // TODO: Implement actual trade value calculation using market data
+    /**
+     * Calculates the notional value of a trade at its own price, exactly, with no rounding.
+     */
+    private BigDecimal calculateTradeValue(BigDecimal quantity, BigDecimal price) {
         return quantity.multiply(price);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.example.trade.enrichment.valuation;
+
+/**
+ * Day-count conventions used to accrue coupon interest.
+ * <p>
+ * Dates are passed as epoch days and, for the 30/360 convention, as civil
+ * year/month/day fields, so a year fraction can be computed without creating
+ * date objects.
+ */
+public enum DayCountConvention {
+    /** Actual days over a 360-day year. */
+    ACT_360,
+    /** Actual days over a 365-day year. */
+    ACT_365,
+    /** US 30/360 bond basis: every month counts as 30 days. */
+    THIRTY_360,
+    /** Actual/Actual (ICMA): actual days over the actual days in the coupon period. */
+    ACT_ACT;
+
+    /**
+     * Computes the year fraction between the start of a coupon period and a date within it.
+     * @param startDay Accrual start as epoch day
+     * @param startDate Accrual start as civil date packed by {@link #civil(long)}
+     * @param endDay Accrual end as epoch day
+     * @param periodDays Length of the full coupon period in days
+     * @param paymentsPerYear Coupon payments per year
+     * @return The accrued year fraction, never negative
+     */
+    public double yearFraction(long startDay, int startDate, long endDay, long periodDays, int paymentsPerYear) {
+        long days = endDay - startDay;
+        if (days <= 0) {
+            return 0.0;
+        }
+        switch (this) {
+            case ACT_360:
+                return days / 360.0;
+            case ACT_365:
+                return days / 365.0;
+            case THIRTY_360:
+                return thirty360Days(startDate, civil(endDay)) / 360.0;
+            case ACT_ACT:
+            default:
+                return periodDays > 0 && paymentsPerYear > 0
+                    ? (double) days / (periodDays * (double) paymentsPerYear)
+                    : days / 365.0;
+        }
+    }
+
+    /**
+     * Converts an epoch day to a civil date packed as {@code year * 10000 + month * 100 + day}.
+     * Uses the proleptic Gregorian calendar, like {@link java.time.LocalDate}.
+     */
+    public static int civil(long epochDay) {
+        // Days since 0000-03-01, so leap days fall at the end of each era-year
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) year * 10_000 + month * 100 + day;
+    }
+
+    private static int thirty360Days(int start, int end) {
+        int y1 = start / 10_000;
+        int m1 = start / 100 % 100;
+        int d1 = start % 100;
+        int y2 = end / 10_000;
+        int m2 = end / 100 % 100;
+        int d2 = end % 100;
+        if (d1 == 31) {
+            d1 = 30;
+        }
+        if (d2 == 31 && d1 == 30) {
+            d2 = 30;
+        }
+        return 360 * (y2 - y1) + 30 * (m2 - m1) + (d2 - d1);
+    }
+}
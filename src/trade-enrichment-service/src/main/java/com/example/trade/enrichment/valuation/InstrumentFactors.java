@@ -0,0 +1,175 @@
+package com.example.trade.enrichment.valuation;
+
+import com.example.trade.enrichment.model.ReferenceData;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Valuation factors of one instrument, derived from its reference data: FX rate to the
+ * reporting currency, day-count convention, coupon schedule and par value.
+ * <p>
+ * The coupon period containing the most recent valuation date is kept as well, so
+ * accruing interest for another trade in the same period is plain arithmetic.
+ * The period is replaced, not mutated, when a trade falls outside it.
+ */
+final class InstrumentFactors {
+    private static final double NO_FX_RATE = Double.NaN;
+
+    // Reference data the factors were derived from, to detect changes
+    private final BigDecimal couponRate;
+    private final String paymentFrequency;
+    private final LocalDate maturityDate;
+    private final LocalDate issueDate;
+    private final BigDecimal parValue;
+    private final String currency;
+    private final String assetClass;
+
+    final double fxRate;
+    final String valuationCurrency;
+    final DayCountConvention dayCount;
+    final double annualCouponPerUnit;
+    final int paymentsPerYear;
+    final long issueDay;
+    final long maturityDay;
+
+    private volatile CouponPeriod period;
+
+    /**
+     * One coupon period, as epoch days. Accrual starts at the later of the period
+     * start and the issue date, to handle a short first coupon.
+     */
+    static final class CouponPeriod {
+        final long accrualStartDay;
+        final int accrualStartDate;
+        final long endDay;
+        final long lengthDays;
+
+        CouponPeriod(long startDay, long accrualStartDay, long endDay) {
+            this.accrualStartDay = accrualStartDay;
+            this.accrualStartDate = DayCountConvention.civil(accrualStartDay);
+            this.endDay = endDay;
+            this.lengthDays = endDay - startDay;
+        }
+
+        boolean contains(long day) {
+            return day >= accrualStartDay && day < endDay;
+        }
+    }
+
+    InstrumentFactors(ReferenceData referenceData, double fxRate, String reportingCurrency,
+            DayCountConvention dayCount) {
+        this.couponRate = referenceData.getCouponRate();
+        this.paymentFrequency = referenceData.getPaymentFrequency();
+        this.maturityDate = referenceData.getMaturityDate();
+        this.issueDate = referenceData.getIssueDate();
+        this.parValue = referenceData.getParValue();
+        this.currency = referenceData.getCurrency();
+        this.assetClass = referenceData.getAssetClass();
+
+        boolean converted = !Double.isNaN(fxRate);
+        this.fxRate = converted ? fxRate : 1.0;
+        this.valuationCurrency = converted ? reportingCurrency : currency;
+        this.dayCount = dayCount;
+        this.paymentsPerYear = paymentsPerYear(paymentFrequency);
+
+        // Coupon rates are annual percentages of par; quantity is in units of par
+        double par = parValue != null ? parValue.doubleValue() : 1.0;
+        this.annualCouponPerUnit = couponRate != null && paymentsPerYear > 0 && maturityDate != null
+            ? par * couponRate.doubleValue() / 100.0
+            : 0.0;
+        this.issueDay = issueDate != null ? issueDate.toEpochDay() : Long.MIN_VALUE;
+        this.maturityDay = maturityDate != null ? maturityDate.toEpochDay() : Long.MIN_VALUE;
+    }
+
+    /**
+     * Whether these factors were derived from reference data equal in every field that affects valuation.
+     */
+    boolean matches(ReferenceData referenceData) {
+        return sameDecimal(couponRate, referenceData.getCouponRate())
+            && Objects.equals(paymentFrequency, referenceData.getPaymentFrequency())
+            && Objects.equals(maturityDate, referenceData.getMaturityDate())
+            && Objects.equals(issueDate, referenceData.getIssueDate())
+            && sameDecimal(parValue, referenceData.getParValue())
+            && Objects.equals(currency, referenceData.getCurrency())
+            && Objects.equals(assetClass, referenceData.getAssetClass());
+    }
+
+    /**
+     * Computes accrued coupon interest per unit of quantity at the given date.
+     * @param valuationDay Valuation date as epoch day
+     * @return Accrued interest per unit, in the instrument currency
+     */
+    double accruedPerUnit(long valuationDay) {
+        if (annualCouponPerUnit == 0.0 || valuationDay >= maturityDay || valuationDay < issueDay) {
+            return 0.0;
+        }
+        CouponPeriod current = period;
+        if (current == null || !current.contains(valuationDay)) {
+            current = couponPeriod(valuationDay);
+            period = current;
+        }
+        return annualCouponPerUnit * dayCount.yearFraction(current.accrualStartDay, current.accrualStartDate,
+            valuationDay, current.lengthDays, paymentsPerYear);
+    }
+
+    /**
+     * Finds the coupon period containing a date by stepping back from maturity.
+     */
+    private CouponPeriod couponPeriod(long valuationDay) {
+        LocalDate date = LocalDate.ofEpochDay(valuationDay);
+        long monthsPerPeriod = 12 / paymentsPerYear;
+        long periods = ChronoUnit.MONTHS.between(date, maturityDate) / monthsPerPeriod;
+
+        LocalDate end = maturityDate.minusMonths(periods * monthsPerPeriod);
+        while (!end.isAfter(date)) {
+            periods--;
+            end = maturityDate.minusMonths(periods * monthsPerPeriod);
+        }
+        LocalDate start = maturityDate.minusMonths((periods + 1) * monthsPerPeriod);
+        while (start.isAfter(date)) {
+            periods++;
+            end = start;
+            start = maturityDate.minusMonths((periods + 1) * monthsPerPeriod);
+        }
+
+        long startDay = start.toEpochDay();
+        return new CouponPeriod(startDay, Math.max(startDay, issueDay), end.toEpochDay());
+    }
+
+    private static int paymentsPerYear(String frequency) {
+        if (frequency == null) {
+            return 0;
+        }
+        switch (frequency.trim().toUpperCase().replace("-", "").replace("_", "").replace(" ", "")) {
+            case "ANNUAL":
+            case "ANNUALLY":
+            case "YEARLY":
+            case "1":
+                return 1;
+            case "SEMIANNUAL":
+            case "SEMIANNUALLY":
+            case "2":
+                return 2;
+            case "QUARTERLY":
+            case "4":
+                return 4;
+            case "MONTHLY":
+            case "12":
+                return 12;
+            default:
+                // Zero coupon, or an unknown frequency: no accrual
+                return 0;
+        }
+    }
+
+    private static boolean sameDecimal(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    static double fxRateOrNone(BigDecimal rate) {
+        return rate != null && rate.signum() > 0 ? rate.doubleValue() : NO_FX_RATE;
+    }
+}
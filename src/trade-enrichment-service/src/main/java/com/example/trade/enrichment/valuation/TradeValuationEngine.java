@@ -0,0 +1,134 @@
+package com.example.trade.enrichment.valuation;
+
+import com.example.trade.enrichment.config.ValuationConfig;
+import com.example.trade.enrichment.model.EnrichedTrade;
+import com.example.trade.enrichment.model.FixedPoint;
+import com.example.trade.enrichment.model.MarketData;
+import com.example.trade.enrichment.model.ReferenceData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Values trades against live market data.
+ * <p>
+ * For each trade it computes the mark price (bid/ask mid, else last price), the
+ * mark-to-market value and unrealized P&amp;L, the slippage against the touch, and
+ * the coupon interest accrued up to the trade date. Values are converted to the
+ * reporting currency when an FX rate for the instrument currency is configured.
+ * <p>
+ * FX rates, day-count conventions and the current coupon period are cached per
+ * instrument, and the per-trade arithmetic works on primitives, so valuing a trade
+ * allocates only the BigDecimals written to the result.
+ */
+@Component
+public class TradeValuationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(TradeValuationEngine.class);
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    // Above this magnitude a value no longer fits in a FixedPoint long
+    private static final double MAX_FIXED_POINT_VALUE = 9.0e12;
+
+    private final ValuationConfig config;
+    private final Map<String, InstrumentFactors> factors = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TradeValuationEngine(ValuationConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Values a trade as of today.
+     * @see #value(EnrichedTrade, MarketData, ReferenceData, long)
+     */
+    public void value(EnrichedTrade trade, MarketData marketData, ReferenceData referenceData) {
+        value(trade, marketData, referenceData, Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_DAY));
+    }
+
+    /**
+     * Values a trade and writes the results to it. The trade must carry quantity and price.
+     * @param trade The trade to value; its valuation fields are set
+     * @param marketData Market data of the instrument
+     * @param referenceData Reference data of the instrument
+     * @param valuationDay Date to accrue interest to, as epoch day
+     */
+    public void value(EnrichedTrade trade, MarketData marketData, ReferenceData referenceData, long valuationDay) {
+        double quantity = trade.getQuantity().doubleValue();
+        double price = trade.getPrice().doubleValue();
+        double bid = positiveOrNaN(marketData.getBidPrice());
+        double ask = positiveOrNaN(marketData.getAskPrice());
+        double last = positiveOrNaN(marketData.getLastPrice());
+
+        InstrumentFactors instrument = factorsFor(trade.getInstrument(), referenceData);
+        double fx = instrument.fxRate;
+
+        // Mark at the mid when there is a two-sided quote, else at the last price
+        boolean quoted = !Double.isNaN(bid) && !Double.isNaN(ask) && ask >= bid;
+        double mid = (bid + ask) * 0.5;
+        double mark = quoted ? mid : (!Double.isNaN(last) ? last : price);
+
+        // Trades at or above the mid are taken as buys and measured against the ask,
+        // the rest as sells against the bid; positive slippage is worse than the touch
+        double slippage = price >= mid ? price - ask : bid - price;
+        double slippageBps = slippage / mid * 10_000.0;
+
+        double markToMarket = quantity * mark * fx;
+        double unrealizedPnl = quantity * (mark - price) * fx;
+        double accruedInterest = quantity * instrument.accruedPerUnit(valuationDay) * fx;
+
+        trade.setMarkPrice(toDecimal(mark));
+        trade.setMarkToMarketValue(toDecimal(markToMarket));
+        trade.setUnrealizedPnl(toDecimal(unrealizedPnl));
+        trade.setSlippageBps(quoted ? toDecimal(slippageBps) : null);
+        trade.setAccruedInterest(toDecimal(accruedInterest));
+        trade.setValuationCurrency(instrument.valuationCurrency);
+    }
+
+    /**
+     * Gets the cached factors of an instrument, rebuilding them when its reference data has changed.
+     */
+    private InstrumentFactors factorsFor(String instrument, ReferenceData referenceData) {
+        InstrumentFactors cached = factors.get(instrument);
+        if (cached != null && cached.matches(referenceData)) {
+            return cached;
+        }
+
+        String currency = referenceData.getCurrency();
+        String reportingCurrency = config.getReportingCurrency();
+        double fxRate = currency == null || currency.equals(reportingCurrency)
+            ? 1.0
+            : InstrumentFactors.fxRateOrNone(config.getFxRates().get(currency));
+        if (Double.isNaN(fxRate) && currency != null) {
+            logger.debug("No FX rate from {} to {}; valuing {} in {}", currency, reportingCurrency, instrument, currency);
+        }
+        DayCountConvention dayCount = referenceData.getAssetClass() != null
+            ? config.getDayCounts().getOrDefault(referenceData.getAssetClass(), config.getDefaultDayCount())
+            : config.getDefaultDayCount();
+
+        InstrumentFactors rebuilt = new InstrumentFactors(referenceData, fxRate, reportingCurrency, dayCount);
+        if (factors.size() >= config.getMaxCachedInstruments()) {
+            logger.info("Valuation factor cache reached {} instruments; clearing", factors.size());
+            factors.clear();
+        }
+        factors.put(instrument, rebuilt);
+        return rebuilt;
+    }
+
+    private static double positiveOrNaN(BigDecimal value) {
+        return value != null && value.signum() > 0 ? value.doubleValue() : Double.NaN;
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return null;
+        }
+        if (Math.abs(value) < MAX_FIXED_POINT_VALUE) {
+            return FixedPoint.toBigDecimal(Math.round(value * FixedPoint.ONE));
+        }
+        return BigDecimal.valueOf(value);
+    }
+}
@@ -1,26 +1,54 @@
 package com.example.trade.validation.config;
 
+import com.example.trade.validation.metrics.RetryMetrics;
+import com.example.trade.validation.model.Trade;
 import com.example.trade.validation.model.TradeMessage;
+import com.example.trade.validation.model.ValidationFailure;
+import com.example.trade.validation.parallel.ParallelValidationDispatcher;
+import com.example.trade.validation.serialization.BinaryTradeCodec;
+import com.example.trade.validation.serialization.StringPool;
+import com.example.trade.validation.serialization.TradeMessageDeserializer;
+import com.example.trade.validation.serialization.WireFormat;
+import com.example.trade.validation.serialization.WireFormatDeserializer;
+import com.example.trade.validation.serialization.WireFormatSerializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.retry.support.RetryTemplate;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Configuration for Kafka consumer setup in the Trade Validation Service.
+ * Configuration for Kafka consumer and producer setup in the Trade Validation Service.
  */
 @Configuration
 public class KafkaConfig {
@@ -35,64 +63,350 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset}")
     private String autoOffsetReset;
 
+    @Value("${trade-validation.kafka.value-deserializer}")
+    private String valueDeserializer;
+
+    @Value("${trade-validation.kafka.string-pool-size}")
+    private int stringPoolSize;
+
+    @Value("${trade-validation.kafka.batch.max-poll-records}")
+    private int batchMaxPollRecords;
+
+    @Value("${trade-validation.kafka.batch.fetch-min-bytes}")
+    private int batchFetchMinBytes;
+
+    @Value("${trade-validation.kafka.batch.fetch-max-wait-ms}")
+    private int batchFetchMaxWaitMs;
+
+    @Value("${trade-validation.kafka.batch.dead-letter-topic}")
+    private String batchDeadLetterTopic;
+
+    @Value("${trade-validation.kafka.parallel.idle-commit-interval-ms}")
+    private long parallelIdleCommitIntervalMs;
+
+    @Value("${trade-validation.kafka.input-topic}")
+    private String inputTopic;
+
+    @Value("${trade-validation.retry.max-attempts}")
+    private int retryMaxAttempts;
+
+    @Value("${trade-validation.retry.initial-interval}")
+    private long retryInitialInterval;
+
+    @Value("${trade-validation.retry.multiplier}")
+    private double retryMultiplier;
+
+    @Value("${trade-validation.retry.max-interval}")
+    private long retryMaxInterval;
+
+    @Value("${trade-validation.retry.topic-partitions}")
+    private int retryTopicPartitions;
+
+    @Value("${trade-validation.retry.topic-replication-factor}")
+    private short retryTopicReplicationFactor;
+
+    @Value("${trade-validation.kafka.producer.linger-ms}")
+    private int producerLingerMs;
+
+    @Value("${trade-validation.kafka.producer.batch-size}")
+    private int producerBatchSize;
+
+    @Value("${trade-validation.kafka.producer.compression-type}")
+    private String producerCompressionType;
+
+    @Value("${trade-validation.kafka.producer.max-block-ms}")
+    private long producerMaxBlockMs;
+
+    @Value("${trade-validation.kafka.producer.delivery-timeout-ms}")
+    private int producerDeliveryTimeoutMs;
+
+    /**
+     * Consumer factory for the single-record listeners. Records that cannot be
+     * deserialized fail with a DeserializationException, which sends them to the
+     * dead letter topic, instead of failing the poll.
+     */
     @Bean
     public ConsumerFactory<String, TradeMessage> consumerFactory() {
+        return createConsumerFactory(consumerProperties());
+    }
+
+    /**
+     * Consumer factory for the batch and parallel listeners. Polls larger batches and lets
+     * the broker accumulate data before answering a fetch. Records that cannot be
+     * deserialized reach the listener with a null value instead of failing the poll.
+     */
+    @Bean
+    public ConsumerFactory<String, TradeMessage> batchConsumerFactory() {
+        Map<String, Object> props = consumerProperties();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchFetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchFetchMaxWaitMs);
+        return createConsumerFactory(props);
+    }
+
+    private Map<String, Object> consumerProperties() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        return props;
+    }
+
+    private ConsumerFactory<String, TradeMessage> createConsumerFactory(Map<String, Object> props) {
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+
+        return new DefaultKafkaConsumerFactory<>(
+            props,
+            new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(createWireFormatDeserializer())
+        );
+    }
+
+    private WireFormatDeserializer<TradeMessage> createWireFormatDeserializer() {
+        // Accept both JSON and binary records while producers migrate between formats
+        return new WireFormatDeserializer<>(
+            createValueDeserializer(), BinaryTradeCodec::decodeTradeMessage, BinaryTradeCodec::isBinary);
+    }
+
+    /**
+     * Creates the TradeMessage deserializer selected by trade-validation.kafka.value-deserializer:
+     * "streaming" for the dedicated streaming parser, anything else for Spring's JsonDeserializer.
+     */
+    private Deserializer<TradeMessage> createValueDeserializer() {
+        if ("streaming".equalsIgnoreCase(valueDeserializer)) {
+            logger.info("Using streaming TradeMessage deserializer with string pool of {}", stringPoolSize);
+            return new TradeMessageDeserializer(new StringPool(stringPoolSize));
+        }
 
         JsonDeserializer<TradeMessage> deserializer = new JsonDeserializer<>(TradeMessage.class);
         deserializer.setRemoveTypeHeaders(false);
         deserializer.addTrustedPackages("com.example.trade.validation.model");
         deserializer.setUseTypeMapperForKey(true);
+        return deserializer;
+    }
 
-        return new DefaultKafkaConsumerFactory<>(
+    /**
+     * Producer factory for trades. The encoding of each topic is chosen by
+     * {@link WireFormatConfig}; records carry a content-type header either way.
+     */
+    @Bean
+    public ProducerFactory<String, Trade> tradeProducerFactory(WireFormatConfig wireFormatConfig) {
+        Map<String, Object> props = producerProperties();
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, WireFormatSerializer.class);
+
+        JsonSerializer<Trade> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+
+        return new DefaultKafkaProducerFactory<>(
             props,
-            new StringDeserializer(),
-            deserializer
+            new StringSerializer(),
+            new WireFormatSerializer<>(jsonSerializer, BinaryTradeCodec::encode,
+                wireFormatConfig.getTopics(), wireFormatConfig.getDefaultFormat())
         );
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, TradeMessage> kafkaListenerContainerFactory() {
+    public KafkaTemplate<String, Trade> tradeKafkaTemplate(ProducerFactory<String, Trade> tradeProducerFactory) {
+        return new KafkaTemplate<>(tradeProducerFactory);
+    }
+
+    /**
+     * Template for rejected trades and system errors, published as JSON.
+     */
+    @Bean
+    public KafkaTemplate<String, ValidationFailure> validationFailureKafkaTemplate() {
+        Map<String, Object> props = producerProperties();
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+
+        JsonSerializer<ValidationFailure> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            props, new StringSerializer(), jsonSerializer));
+    }
+
+    /**
+     * Template for simulated and load-test trades. Batches harder than the result
+     * templates, as throughput matters more than latency for generated load.
+     */
+    @Bean
+    public KafkaTemplate<String, TradeMessage> simulationKafkaTemplate(WireFormatConfig wireFormatConfig,
+            LoadGeneratorConfig loadGeneratorConfig) {
+        Map<String, Object> props = producerProperties();
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, WireFormatSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, loadGeneratorConfig.getLingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, loadGeneratorConfig.getBatchSize());
+
+        JsonSerializer<TradeMessage> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            props,
+            new StringSerializer(),
+            new WireFormatSerializer<>(jsonSerializer, BinaryTradeCodec::encode,
+                wireFormatConfig.getTopics(), wireFormatConfig.getDefaultFormat())
+        ));
+    }
+
+    /**
+     * Producer settings shared by all templates. The producer is idempotent, so retried
+     * sends cannot duplicate or reorder records within a partition. Records are batched
+     * with a short linger and compressed. A send that cannot get metadata or buffer space
+     * fails after max-block-ms instead of stalling the listener thread.
+     */
+    private Map<String, Object> producerProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType);
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, producerMaxBlockMs);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, producerDeliveryTimeoutMs);
+        return props;
+    }
+
+    /**
+     * Container factory for the no-retry listener. Records that reach the error handler,
+     * such as ones that cannot be deserialized, go to the batch dead letter topic at once.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TradeMessage> kafkaListenerContainerFactory(
+            DeadLetterPublishingRecoverer batchDeadLetterRecoverer) {
         ConcurrentKafkaListenerContainerFactory<String, TradeMessage> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(batchDeadLetterRecoverer, new FixedBackOff(0L, 0L)));
         return factory;
     }
 
+    /**
+     * Publishes records the batch and parallel listeners gave up on to the batch dead
+     * letter topic: trade messages in the wire format of the input topic, records that
+     * could not be deserialized as their raw bytes.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer batchDeadLetterRecoverer(
+            @Qualifier("retryKafkaTemplate") KafkaTemplate<String, TradeMessage> retryKafkaTemplate) {
+        KafkaTemplate<String, byte[]> rawTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            producerProperties(), new StringSerializer(), new ByteArraySerializer()));
+
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, rawTemplate);
+        templates.put(TradeMessage.class, retryKafkaTemplate);
+        // A negative partition lets the producer choose, so the DLT may have any partition count
+        return new DeadLetterPublishingRecoverer(templates,
+            (record, exception) -> new TopicPartition(batchDeadLetterTopic, -1));
+    }
+
+    /**
+     * Error handler for the batch listener. The records of a failed batch from the failed
+     * one on are retried with exponential backoff from trade-validation.retry, and the
+     * failed record is then published to the batch dead letter topic. Records that cannot
+     * be deserialized are not retried; their raw bytes go straight to the dead letter topic.
+     */
+    @Bean
+    public DefaultErrorHandler batchErrorHandler(DeadLetterPublishingRecoverer batchDeadLetterRecoverer) {
+        ExponentialBackOffWithMaxRetries backOff =
+            new ExponentialBackOffWithMaxRetries(Math.max(0, retryMaxAttempts - 1));
+        backOff.setInitialInterval(retryInitialInterval);
+        backOff.setMultiplier(retryMultiplier);
+        backOff.setMaxInterval(retryMaxInterval);
+        return new DefaultErrorHandler(batchDeadLetterRecoverer, backOff);
+    }
+
+    /**
+     * Container factory for batch consumption. The listener receives every record
+     * returned by a poll, and offsets are committed once per batch.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TradeMessage> batchKafkaListenerContainerFactory(
+            DefaultErrorHandler batchErrorHandler) {
+        ConcurrentKafkaListenerContainerFactory<String, TradeMessage> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(batchErrorHandler);
+        return factory;
+    }
+
+    /**
+     * Container factory for parallel validation. Polls like the batch listener, but
+     * the container never commits: the dispatcher commits each partition up to its
+     * first unfinished record, and needs idle events to commit the tail of a burst.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TradeMessage> parallelKafkaListenerContainerFactory(
+            ParallelValidationDispatcher dispatcher) {
+        ConcurrentKafkaListenerContainerFactory<String, TradeMessage> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setIdleEventInterval(parallelIdleCommitIntervalMs);
+        factory.getContainerProperties().setConsumerRebalanceListener(dispatcher);
+        return factory;
+    }
+
+    /**
+     * Container factory for the retrying listener and its retry tier and dead letter
+     * consumers. Retries are not handled in the listener thread; see
+     * {@link #tradeRetryTopicConfiguration}.
+     */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, TradeMessage> retryableKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, TradeMessage> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setRetryTemplate(retryTemplate());
-        factory.setRecoveryCallback(context -> {
-            // Log the failure and return null to acknowledge the message
-            String messageId = context.getAttribute("messageId") != null ? 
-                context.getAttribute("messageId").toString() : "unknown";
-            logger.error("Failed to process message {} after maximum retries", messageId);
-            return null;
-        });
         return factory;
     }
 
+    /**
+     * Template that forwards failed trade messages to the retry tiers and the dead letter
+     * topic. Uses the wire format of the input topic, so the content-type header copied
+     * from the original record is rewritten to match the forwarded payload.
+     */
+    @Bean
+    public KafkaTemplate<String, TradeMessage> retryKafkaTemplate(WireFormatConfig wireFormatConfig) {
+        Map<String, Object> props = producerProperties();
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, WireFormatSerializer.class);
+
+        JsonSerializer<TradeMessage> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        WireFormat format = wireFormatConfig.getTopics()
+            .getOrDefault(inputTopic, wireFormatConfig.getDefaultFormat());
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            props,
+            new StringSerializer(),
+            new WireFormatSerializer<>(jsonSerializer, BinaryTradeCodec::encode, Collections.emptyMap(), format)
+        ));
+    }
+
+    /**
+     * Non-blocking retries for the input topic. A message that fails with an unexpected
+     * error is forwarded to the next retry tier topic, whose consumer holds it back until
+     * its exponential backoff has elapsed, so later records on the original partition keep
+     * flowing. After the last attempt the message goes to the dead letter topic.
+     */
     @Bean
-    public RetryTemplate retryTemplate() {
-        RetryTemplate retryTemplate = new RetryTemplate();
-        
-        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
-        backOffPolicy.setBackOffPeriod(1000); // 1 second
-        
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
-        retryPolicy.setMaxAttempts(3);
-        
-        retryTemplate.setBackOffPolicy(backOffPolicy);
-        retryTemplate.setRetryPolicy(retryPolicy);
-        
-        return retryTemplate;
-    }
-}
\ No newline at end of file
+    public RetryTopicConfiguration tradeRetryTopicConfiguration(
+            @Qualifier("retryKafkaTemplate") KafkaTemplate<String, TradeMessage> retryKafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+            .includeTopic(inputTopic)
+            .maxAttempts(retryMaxAttempts)
+            .exponentialBackoff(retryInitialInterval, retryMultiplier, retryMaxInterval)
+            .retryTopicSuffix(RetryMetrics.RETRY_TOPIC_SUFFIX)
+            .dltSuffix(RetryMetrics.DLT_SUFFIX)
+            .suffixTopicsWithIndexValues()
+            .autoCreateTopicsWith(retryTopicPartitions, retryTopicReplicationFactor)
+            .listenerFactory("retryableKafkaListenerContainerFactory")
+            .dltHandlerMethod("tradeMessageListener", "handleDeadLetter")
+            .create(retryKafkaTemplate);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.trade.validation.config;
+
+import com.example.trade.validation.simulation.load.RateProfile;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the load generator.
+ * Rates are in trades per second; the profile scales the target rate over time.
+ */
+@Component
+@Configuration
+@ConfigurationProperties(prefix = "trade-validation.simulation.load")
+public class LoadGeneratorConfig {
+    // Rate and duration
+    private double targetTps = 10_000;
+    private RateProfile.Shape profile = RateProfile.Shape.CONSTANT;
+    private long rampUpMs = 0;                 // Linear ramp from zero to the profile rate
+    private long durationMs = 0;               // 0 runs until stopped
+    private int threads = 2;                   // Generator threads; each paces its share of the rate
+    private long burstMs = 50;                 // Backlog a thread may catch up on after a stall
+    private long reportIntervalMs = 5000;      // How often achieved and target rates are compared
+
+    // STEP: multipliers of the target rate, each held for the step duration, the last one until the end
+    private List<Double> stepMultipliers = new ArrayList<>(List.of(0.25, 0.5, 0.75, 1.0));
+    private long stepDurationMs = 30_000;
+
+    // SINUSOIDAL: a trading session compressed into the period, busiest at the open and close
+    private long sessionPeriodMs = 600_000;
+    private double sessionDepth = 0.6;         // Fraction the rate drops by at mid-session
+
+    // REPLAY: multipliers at offsets into the period, interpolated linearly and repeated
+    private List<ReplayPoint> replay = new ArrayList<>();
+
+    // Producer batching for generated trades
+    private int lingerMs = 10;
+    private int batchSize = 262_144;
+
+    /**
+     * A multiplier of the target rate at an offset into the replay period.
+     */
+    public static class ReplayPoint {
+        private long offsetMs;
+        private double multiplier;
+
+        public long getOffsetMs() { return offsetMs; }
+        public void setOffsetMs(long offsetMs) { this.offsetMs = offsetMs; }
+
+        public double getMultiplier() { return multiplier; }
+        public void setMultiplier(double multiplier) { this.multiplier = multiplier; }
+    }
+
+    // Getters and Setters
+    public double getTargetTps() {
+        return targetTps;
+    }
+
+    public void setTargetTps(double targetTps) {
+        this.targetTps = targetTps;
+    }
+
+    public RateProfile.Shape getProfile() {
+        return profile;
+    }
+
+    public void setProfile(RateProfile.Shape profile) {
+        this.profile = profile;
+    }
+
+    public long getRampUpMs() {
+        return rampUpMs;
+    }
+
+    public void setRampUpMs(long rampUpMs) {
+        this.rampUpMs = rampUpMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public long getBurstMs() {
+        return burstMs;
+    }
+
+    public void setBurstMs(long burstMs) {
+        this.burstMs = burstMs;
+    }
+
+    public long getReportIntervalMs() {
+        return reportIntervalMs;
+    }
+
+    public void setReportIntervalMs(long reportIntervalMs) {
+        this.reportIntervalMs = reportIntervalMs;
+    }
+
+    public List<Double> getStepMultipliers() {
+        return stepMultipliers;
+    }
+
+    public void setStepMultipliers(List<Double> stepMultipliers) {
+        this.stepMultipliers = stepMultipliers;
+    }
+
+    public long getStepDurationMs() {
+        return stepDurationMs;
+    }
+
+    public void setStepDurationMs(long stepDurationMs) {
+        this.stepDurationMs = stepDurationMs;
+    }
+
+    public long getSessionPeriodMs() {
+        return sessionPeriodMs;
+    }
+
+    public void setSessionPeriodMs(long sessionPeriodMs) {
+        this.sessionPeriodMs = sessionPeriodMs;
+    }
+
+    public double getSessionDepth() {
+        return sessionDepth;
+    }
+
+    public void setSessionDepth(double sessionDepth) {
+        this.sessionDepth = sessionDepth;
+    }
+
+    public List<ReplayPoint> getReplay() {
+        return replay;
+    }
+
+    public void setReplay(List<ReplayPoint> replay) {
+        this.replay = replay;
+    }
+
+    public int getLingerMs() {
+        return lingerMs;
+    }
+
+    public void setLingerMs(int lingerMs) {
+        this.lingerMs = lingerMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.trade.validation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for correlated price simulation.
+ * Any two correlated symbols share the market correlation; symbols of the same
+ * sector share the sector's correlation instead.
+ */
+@Component
+@Configuration
+@ConfigurationProperties(prefix = "market.correlation")
+public class MarketCorrelationConfig {
+    private boolean enabled = false;
+    private long tickIntervalMs = 100;        // How often all correlated symbols move together
+    private double marketCorrelation = 0.3;   // Between any two correlated symbols, 0.0 - 1.0
+
+    // Sectors by name; every listed symbol is moved by correlated ticks
+    private Map<String, Sector> sectors = new LinkedHashMap<>();
+
+    /**
+     * Symbols that move together more closely than the market as a whole.
+     */
+    public static class Sector {
+        private List<String> symbols = new ArrayList<>();
+        private double correlation;           // Between two symbols of the sector, at least the market correlation
+
+        public List<String> getSymbols() { return symbols; }
+        public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+
+        public double getCorrelation() { return correlation; }
+        public void setCorrelation(double correlation) { this.correlation = correlation; }
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTickIntervalMs() {
+        return tickIntervalMs;
+    }
+
+    public void setTickIntervalMs(long tickIntervalMs) {
+        this.tickIntervalMs = tickIntervalMs;
+    }
+
+    public double getMarketCorrelation() {
+        return marketCorrelation;
+    }
+
+    public void setMarketCorrelation(double marketCorrelation) {
+        this.marketCorrelation = marketCorrelation;
+    }
+
+    public Map<String, Sector> getSectors() {
+        return sectors;
+    }
+
+    public void setSectors(Map<String, Sector> sectors) {
+        this.sectors = sectors;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.trade.validation.config;
 
 import com.example.trade.validation.rule.TradeAmountValidationRule;
 import com.example.trade.validation.rule.CurrencyValidationRule;
+import com.example.trade.validation.rule.RuleCompiler;
 import com.example.trade.validation.rule.ValidationRule;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -28,6 +29,9 @@ public class ValidationConfig {
     @Value("${trade-validation.rules.allowed-currencies}")
     private List<String> allowedCurrencies;
 
+    @Value("${trade-validation.rules.fail-fast}")
+    private boolean failFast;
+
     @Bean
     public TradeAmountValidationRule tradeAmountValidationRule() {
         return new TradeAmountValidationRule(minTradeAmount, maxTradeAmount);
@@ -48,4 +52,9 @@ public class ValidationConfig {
             currencyValidationRule
         );
     }
+
+    @Bean
+    public RuleCompiler ruleCompiler() {
+        return new RuleCompiler(failFast);
+    }
 }
\ No newline at end of file
@@ -2,9 +2,12 @@ package com.example.trade.validation.controller;
 
 import com.example.trade.validation.metrics.SimulationMetrics;
 import com.example.trade.validation.simulation.TradeSimulationService;
+import com.example.trade.validation.simulation.load.LoadGenerator;
+import com.example.trade.validation.simulation.load.RateProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,11 +24,14 @@ public class SimulationController {
     
     private final TradeSimulationService simulationService;
     private final SimulationMetrics metrics;
+    private final LoadGenerator loadGenerator;
 
     @Autowired
-    public SimulationController(TradeSimulationService simulationService, SimulationMetrics metrics) {
+    public SimulationController(TradeSimulationService simulationService, SimulationMetrics metrics,
+            LoadGenerator loadGenerator) {
         this.simulationService = simulationService;
         this.metrics = metrics;
+        this.loadGenerator = loadGenerator;
     }
 
     /**
@@ -54,6 +60,71 @@ public class SimulationController {
         }
     }
 
+    /**
+     * Starts a rate-controlled load run.
+     * @param targetTps Target rate in trades per second; the configured rate if omitted
+     * @param profile Rate profile shape; the configured profile if omitted
+     * @param durationSeconds How long to run; the configured duration if omitted, 0 to run until stopped
+     * @return Response indicating success or failure
+     */
+    @PostMapping("/load/start")
+    public ResponseEntity<Map<String, String>> startLoad(
+            @RequestParam(required = false) Double targetTps,
+            @RequestParam(required = false) RateProfile.Shape profile,
+            @RequestParam(required = false) Long durationSeconds) {
+        try {
+            loadGenerator.start(profile, targetTps != null ? targetTps : 0,
+                durationSeconds != null ? durationSeconds * 1000 : -1);
+            RateProfile running = loadGenerator.getProfile();
+            return ResponseEntity.ok()
+                .body(Map.of("message", String.format("Load run started: %s profile at %.0f trades/s",
+                    running.getShape(), running.getTargetTps())));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stops the current load run.
+     */
+    @PostMapping("/load/stop")
+    public ResponseEntity<Map<String, String>> stopLoad() throws InterruptedException {
+        loadGenerator.stop();
+        return ResponseEntity.ok(Map.of("message", "Load run stopped"));
+    }
+
+    /**
+     * Gets the progress of the current or last load run, with the achieved rate against the target.
+     */
+    @GetMapping("/load/status")
+    public ResponseEntity<Map<String, Object>> getLoadStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        RateProfile profile = loadGenerator.getProfile();
+        status.put("running", loadGenerator.isRunning());
+        status.put("profile", profile != null ? profile.getShape() : null);
+        status.put("configuredTps", profile != null ? profile.getTargetTps() : null);
+        status.put("elapsedMs", loadGenerator.getElapsedMillis());
+
+        Map<String, Object> rate = new LinkedHashMap<>();
+        rate.put("targetTps", Math.round(loadGenerator.getTargetTps()));
+        rate.put("achievedTps", Math.round(loadGenerator.getAchievedTps()));
+        status.put("rate", rate);
+
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("sent", loadGenerator.getSent());
+        counts.put("failed", loadGenerator.getFailed());
+        counts.put("missed", loadGenerator.getMissed());
+        status.put("trades", counts);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("meanMs", String.format("%.2f", loadGenerator.getLatencyMean()));
+        latency.put("p99Ms", String.format("%.2f", loadGenerator.getLatencyP99()));
+        latency.put("maxMs", String.format("%.2f", loadGenerator.getLatencyMax()));
+        status.put("latencyFromIntendedTime", latency);
+
+        return ResponseEntity.ok(status);
+    }
+
     /**
      * Gets the current simulation metrics and status.
      * @return Current metrics and configuration status
@@ -64,7 +135,7 @@ public class SimulationController {
         
         // Basic status
         status.put("status", simulationService.isEnabled() ? "active" : "inactive");
-        status.put("mode", "scheduled");
+        status.put("mode", loadGenerator.isRunning() ? "load" : "scheduled");
         
         // Configuration
         Map<String, Object> config = new LinkedHashMap<>();
@@ -0,0 +1,122 @@
+package com.example.trade.validation.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe blocked Bloom filter over 64-bit hash pairs.
+ * <p>
+ * The first hash picks a 512-bit block, one cache line, and every bit of the key
+ * is set within it, so a lookup costs one cache miss however many hash functions
+ * are used. Blocking makes the false-positive rate slightly higher than that of a
+ * classic filter, which the sizing compensates for with extra bits. Callers hash a
+ * key once with {@link #hash1(String)} and {@link #hash2(long)} and probe several
+ * filters with it. Bits are set with atomic OR, so concurrent inserts never lose
+ * bits, and neither inserts nor lookups allocate.
+ */
+final class BloomFilter {
+    private static final double LN2 = Math.log(2);
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_BITS_SHIFT = 55;
+    // Extra bits that bring a blocked filter back to the false-positive rate of a classic one
+    private static final double BLOCKING_OVERHEAD = 1.6;
+
+    private final AtomicLongArray words;
+    private final long blockCount;
+    private final int hashCount;
+
+    /**
+     * Sizes a filter for the expected number of keys at the given false-positive rate.
+     * @param expectedInsertions Keys the filter is expected to hold
+     * @param falsePositiveRate Acceptable false-positive probability at that load
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-12), 0.5);
+        double bitsPerKey = -Math.log(p) / (LN2 * LN2);
+        long bits = (long) Math.ceil(n * bitsPerKey * BLOCKING_OVERHEAD);
+        long blocks = Math.max(1, Math.min((Integer.MAX_VALUE - 8) / WORDS_PER_BLOCK, (bits + 511) >>> 9));
+        this.words = new AtomicLongArray((int) blocks * WORDS_PER_BLOCK);
+        this.blockCount = blocks;
+        this.hashCount = Math.max(1, Math.min(16, (int) Math.round(bitsPerKey * LN2)));
+    }
+
+    /**
+     * Whether the key may have been added; false means it definitely was not.
+     */
+    boolean mightContain(long hash1, long hash2) {
+        int base = blockBase(hash1);
+        long combined = hash2;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (int) (combined >>> BLOCK_BITS_SHIFT);
+            if ((words.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += hash1 | 1L;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a key.
+     * @return true if every bit of the key was already set, i.e. the key may have been added before
+     */
+    boolean put(long hash1, long hash2) {
+        int base = blockBase(hash1);
+        boolean present = true;
+        long combined = hash2;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (int) (combined >>> BLOCK_BITS_SHIFT);
+            int word = base + (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(word) & mask) == 0) {
+                present &= (words.getAndAccumulate(word, mask, BloomFilter::or) & mask) != 0;
+            }
+            combined += hash1 | 1L;
+        }
+        return present;
+    }
+
+    long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * First hash of a key: 64-bit FNV-1a over its chars, finished with the MurmurHash3 mixer.
+     */
+    static long hash1(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Second hash derived from the first, used to place bits within the block.
+     */
+    static long hash2(long hash1) {
+        return mix(hash1 ^ 0x9e3779b97f4a7c15L);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int blockBase(long hash1) {
+        return (int) Long.remainderUnsigned(hash1, blockCount) * WORDS_PER_BLOCK;
+    }
+
+    private static long or(long a, long b) {
+        return a | b;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.trade.validation.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Idempotency filter for trade message ids, with memory bounded by configuration
+ * rather than by traffic.
+ * <p>
+ * Ids seen within the exact window are kept in a hash map, so a redelivery shortly
+ * after the original, the usual case after a rebalance or a producer retry, is
+ * recognised with certainty. Older ids are remembered for the retention period in a
+ * ring of Bloom filters, one per time bucket: the newest filter takes inserts, all of
+ * them are probed, and the oldest is dropped when a new bucket starts. A Bloom match
+ * is treated as a duplicate; the false-positive budget bounds how often a new message
+ * is wrongly dropped, summed over all filters.
+ * <p>
+ * Checking an id does not record it: ids are recorded once their message has been
+ * handed off, so a message that failed is not dropped as a duplicate when it is
+ * redelivered. Copies of one message processed at the same time are not caught.
+ */
+@Component
+public class MessageDeduplicator {
+    private static final Logger logger = LoggerFactory.getLogger(MessageDeduplicator.class);
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final long expectedPerBucket;
+    private final double falsePositiveRatePerFilter;
+    private final long exactWindowMillis;
+    private final int maxExactEntries;
+
+    private final Map<String, Long> recentIds = new ConcurrentHashMap<>();
+    private volatile Generation generation;
+
+    private final Counter exactDuplicatesCounter;
+    private final Counter probableDuplicatesCounter;
+
+    /**
+     * The Bloom filters of the current time bucket and the buckets still retained.
+     * Replaced as a whole when a new bucket starts.
+     */
+    private static final class Generation {
+        final long bucket;
+        // Newest first
+        final BloomFilter[] filters;
+
+        Generation(long bucket, BloomFilter[] filters) {
+            this.bucket = bucket;
+            this.filters = filters;
+        }
+    }
+
+    @Autowired
+    public MessageDeduplicator(MeterRegistry registry,
+            @Value("${trade-validation.dedup.enabled}") boolean enabled,
+            @Value("${trade-validation.dedup.retention-ms}") long retentionMillis,
+            @Value("${trade-validation.dedup.buckets}") int buckets,
+            @Value("${trade-validation.dedup.expected-ids-per-hour}") long expectedIdsPerHour,
+            @Value("${trade-validation.dedup.false-positive-rate}") double falsePositiveRate,
+            @Value("${trade-validation.dedup.exact-window-ms}") long exactWindowMillis,
+            @Value("${trade-validation.dedup.max-exact-entries}") int maxExactEntries) {
+        this.enabled = enabled;
+        this.bucketMillis = Math.max(1, retentionMillis / Math.max(1, buckets));
+        // One more filter than buckets, as the newest bucket is only partly filled
+        this.bucketCount = Math.max(1, buckets) + 1;
+        this.expectedPerBucket = Math.max(1, expectedIdsPerHour * bucketMillis / MILLIS_PER_HOUR);
+        this.falsePositiveRatePerFilter = falsePositiveRate / bucketCount;
+        this.exactWindowMillis = exactWindowMillis;
+        this.maxExactEntries = maxExactEntries;
+
+        this.exactDuplicatesCounter = Counter.builder("validation.dedup.duplicates")
+            .description("Duplicate trade messages dropped")
+            .tag("match", "exact")
+            .register(registry);
+        this.probableDuplicatesCounter = Counter.builder("validation.dedup.duplicates")
+            .description("Duplicate trade messages dropped")
+            .tag("match", "probable")
+            .register(registry);
+        Gauge.builder("validation.dedup.recent.ids", recentIds, Map::size)
+            .description("Message ids held exactly")
+            .register(registry);
+        Gauge.builder("validation.dedup.filter.bytes", this, MessageDeduplicator::filterBytes)
+            .description("Memory held by the Bloom filters")
+            .register(registry);
+
+        if (enabled) {
+            this.generation = new Generation(bucketOf(System.currentTimeMillis()), newFilters());
+            logger.info("Deduplicating message ids over {} buckets of {} ms, {} ids and {} hash functions per filter, "
+                    + "{} bytes of filters", bucketCount, bucketMillis, expectedPerBucket,
+                generation.filters[0].hashCount(), (long) filterBytes());
+        }
+    }
+
+    /**
+     * Reports whether a message id has been recorded within the retention period.
+     * Does not record the id; see {@link #recordProcessed(String)}.
+     * @param messageId The message id; null ids are never treated as duplicates
+     * @return true if the message is a duplicate and should be skipped
+     */
+    public boolean isDuplicate(String messageId) {
+        if (!enabled || messageId == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Generation current = currentGeneration(now);
+
+        Long previous = recentIds.get(messageId);
+        if (previous != null && now - previous <= exactWindowMillis) {
+            exactDuplicatesCounter.increment();
+            return true;
+        }
+
+        long hash1 = BloomFilter.hash1(messageId);
+        long hash2 = BloomFilter.hash2(hash1);
+        boolean seen = false;
+        for (int i = 0; i < current.filters.length && !seen; i++) {
+            seen = current.filters[i].mightContain(hash1, hash2);
+        }
+        if (seen) {
+            probableDuplicatesCounter.increment();
+        }
+        return seen;
+    }
+
+    /**
+     * Records the id of a message whose outcome has been published, so later copies
+     * are skipped. Call only after a successful hand-off.
+     * @param messageId The message id; null ids are ignored
+     */
+    public void recordProcessed(String messageId) {
+        if (!enabled || messageId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Generation current = currentGeneration(now);
+        if (recentIds.size() < maxExactEntries || recentIds.containsKey(messageId)) {
+            recentIds.put(messageId, now);
+        }
+        long hash1 = BloomFilter.hash1(messageId);
+        current.filters[0].put(hash1, BloomFilter.hash2(hash1));
+    }
+
+    /**
+     * Drops exactly held ids older than the exact window; they remain in the Bloom filters.
+     */
+    @Scheduled(fixedDelayString = "${trade-validation.dedup.exact-window-ms}")
+    public void expireRecentIds() {
+        long cutoff = System.currentTimeMillis() - exactWindowMillis;
+        int before = recentIds.size();
+        for (Iterator<Long> it = recentIds.values().iterator(); it.hasNext(); ) {
+            if (it.next() < cutoff) {
+                it.remove();
+            }
+        }
+        logger.debug("Expired {} recent message ids, {} remain", before - recentIds.size(), recentIds.size());
+    }
+
+    /**
+     * Gets the generation for the given time, starting a new bucket when it has moved on.
+     */
+    private Generation currentGeneration(long now) {
+        Generation current = generation;
+        long bucket = bucketOf(now);
+        if (bucket <= current.bucket) {
+            return current;
+        }
+        synchronized (this) {
+            current = generation;
+            long elapsed = bucket - current.bucket;
+            if (elapsed <= 0) {
+                return current;
+            }
+            BloomFilter[] filters = new BloomFilter[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                long source = i - elapsed;
+                filters[i] = source >= 0 ? current.filters[(int) source] : newFilter();
+            }
+            generation = new Generation(bucket, filters);
+            logger.debug("Started message id bucket {}", bucket);
+            return generation;
+        }
+    }
+
+    private BloomFilter[] newFilters() {
+        BloomFilter[] filters = new BloomFilter[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            filters[i] = newFilter();
+        }
+        return filters;
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedPerBucket, falsePositiveRatePerFilter);
+    }
+
+    private long bucketOf(long time) {
+        return time / bucketMillis;
+    }
+
+    private double filterBytes() {
+        Generation current = generation;
+        if (current == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (BloomFilter filter : current.filters) {
+            bytes += filter.sizeInBytes();
+        }
+        return bytes;
+    }
+}
@@ -1,22 +1,45 @@
 package com.example.trade.validation.exception;
 
+import com.example.trade.validation.rule.ValidationResult;
+
 /**
  * Exception thrown when trade validation fails.
  */
 public class ValidationException extends RuntimeException {
     private final String ruleId;
+    private final ValidationResult result;
 
     public ValidationException(String message, String ruleId) {
         super(message);
         this.ruleId = ruleId;
+        this.result = null;
     }
 
     public ValidationException(String message, String ruleId, Throwable cause) {
         super(message, cause);
         this.ruleId = ruleId;
+        this.result = null;
+    }
+
+    /**
+     * Creates an exception for the failures recorded in a validation result.
+     * @param result The failures; not reset or reused afterwards
+     */
+    public ValidationException(String message, String ruleId, ValidationResult result) {
+        super(message);
+        this.ruleId = ruleId;
+        this.result = result;
     }
 
     public String getRuleId() {
         return ruleId;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the failures behind this exception, with their rule IDs and codes.
+     * @return The failures, or null if the exception was not raised from a validation result
+     */
+    public ValidationResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.trade.validation.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics for non-blocking retries of trade messages.
+ * <p>
+ * Tracks deliveries per retry tier, the time from the original record to a
+ * successful retry, and the number of records that exhausted their retries.
+ * The depth of each retry tier and of the dead letter topic, meaning the records
+ * not yet consumed by its consumer group, is refreshed on a schedule.
+ */
+@Component
+public class RetryMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(RetryMetrics.class);
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+
+    /** Suffix of the retry tier topics; tiers are numbered from 0. */
+    public static final String RETRY_TOPIC_SUFFIX = "-retry";
+    /** Suffix of the dead letter topic. */
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private final MeterRegistry registry;
+    private final String bootstrapServers;
+    // Consumer group of each tier topic, in tier order, ending with the dead letter topic
+    private final Map<String, String> tierGroups = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> depths = new HashMap<>();
+    private final Map<String, Counter> attemptCounters = new ConcurrentHashMap<>();
+    private final Timer timeToSuccessTimer;
+    private final Counter exhaustedCounter;
+    private volatile AdminClient adminClient;
+
+    @Autowired
+    public RetryMetrics(MeterRegistry registry,
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${spring.kafka.consumer.group-id}") String groupId,
+            @Value("${trade-validation.kafka.input-topic}") String inputTopic,
+            @Value("${trade-validation.retry.max-attempts}") int maxAttempts) {
+        this.registry = registry;
+        this.bootstrapServers = bootstrapServers;
+
+        for (int tier = 0; tier < maxAttempts - 1; tier++) {
+            String suffix = RETRY_TOPIC_SUFFIX + "-" + tier;
+            tierGroups.put(inputTopic + suffix, groupId + suffix);
+        }
+        tierGroups.put(inputTopic + DLT_SUFFIX, groupId + DLT_SUFFIX);
+        for (String topic : tierGroups.keySet()) {
+            AtomicLong depth = new AtomicLong();
+            depths.put(topic, depth);
+            Gauge.builder("validation.retry.depth", depth, AtomicLong::get)
+                .description("Records waiting in a retry tier or the dead letter topic")
+                .tag("topic", topic)
+                .register(registry);
+        }
+
+        this.timeToSuccessTimer = Timer.builder("validation.retry.time.to.success")
+            .description("Time from the original record to its successful retry")
+            .register(registry);
+        this.exhaustedCounter = Counter.builder("validation.retry.exhausted")
+            .description("Number of trade messages sent to the dead letter topic after exhausting retries")
+            .register(registry);
+    }
+
+    /**
+     * Records a delivery of a trade message; deliveries from retry tiers are counted per topic.
+     */
+    public void recordDelivery(ConsumerRecord<?, ?> record) {
+        if (deliveryAttempt(record) > 1) {
+            attemptCounters.computeIfAbsent(record.topic(), topic -> Counter.builder("validation.retry.attempts")
+                .description("Number of trade messages redelivered from a retry tier")
+                .tag("topic", topic)
+                .register(registry))
+                .increment();
+        }
+    }
+
+    /**
+     * Records a successfully processed trade message. For retried messages, the
+     * time since the original record was produced is recorded.
+     */
+    public void recordSuccess(ConsumerRecord<?, ?> record) {
+        Header originalTimestamp = record.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP);
+        if (originalTimestamp != null && deliveryAttempt(record) > 1) {
+            long elapsed = System.currentTimeMillis() - new BigInteger(originalTimestamp.value()).longValue();
+            timeToSuccessTimer.record(Math.max(0, elapsed), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Records a trade message that exhausted its retries.
+     */
+    public void recordExhausted() {
+        exhaustedCounter.increment();
+    }
+
+    /**
+     * Refreshes the depth of each retry tier and the dead letter topic from the
+     * end offsets of its partitions and the offsets committed by its consumer group.
+     */
+    @Scheduled(fixedDelayString = "${trade-validation.retry.depth-check-interval-ms}")
+    public void updateDepths() {
+        try {
+            AdminClient admin = admin();
+            Map<String, TopicDescription> descriptions = admin.describeTopics(tierGroups.keySet())
+                .allTopicNames()
+                .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            for (Map.Entry<String, String> tier : tierGroups.entrySet()) {
+                TopicDescription description = descriptions.get(tier.getKey());
+                if (description != null) {
+                    depths.get(tier.getKey()).set(depth(admin, description, tier.getValue()));
+                }
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.debug("Could not update retry tier depths: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+
+    private long depth(AdminClient admin, TopicDescription description, String group) throws Exception {
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+        for (TopicPartitionInfo partition : description.partitions()) {
+            TopicPartition topicPartition = new TopicPartition(description.name(), partition.partition());
+            latest.put(topicPartition, OffsetSpec.latest());
+            earliest.put(topicPartition, OffsetSpec.earliest());
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets =
+            admin.listOffsets(latest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> startOffsets =
+            admin.listOffsets(earliest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(group)
+            .partitionsToOffsetAndMetadata()
+            .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        long depth = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end : endOffsets.entrySet()) {
+            OffsetAndMetadata position = committed.get(end.getKey());
+            long consumed = position != null
+                ? position.offset()
+                : startOffsets.get(end.getKey()).offset();
+            depth += Math.max(0, end.getValue().offset() - consumed);
+        }
+        return depth;
+    }
+
+    private AdminClient admin() {
+        if (adminClient == null) {
+            synchronized (this) {
+                if (adminClient == null) {
+                    adminClient = AdminClient.create(Collections.singletonMap(
+                        AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+                }
+            }
+        }
+        return adminClient;
+    }
+
+    /**
+     * Gets the delivery attempt of a record from the retry topic header; 1 for records on the main topic.
+     */
+    public static int deliveryAttempt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        return header != null ? new BigInteger(header.value()).intValue() : 1;
+    }
+}
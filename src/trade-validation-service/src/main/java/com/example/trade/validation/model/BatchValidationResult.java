@@ -0,0 +1,58 @@
+package com.example.trade.validation.model;
+
+import com.example.trade.validation.rule.ValidationResult;
+
+/**
+ * Outcome of validating a batch of trades in a single pass.
+ * Rule failures and unexpected errors are tracked per position so callers
+ * can report them against the record they came from.
+ */
+public class BatchValidationResult {
+    private final ValidationResult[] failures;
+    private final RuntimeException[] errors;
+    private int failureCount;
+    private int errorCount;
+
+    public BatchValidationResult(int size) {
+        this.failures = new ValidationResult[size];
+        this.errors = new RuntimeException[size];
+    }
+
+    /**
+     * Records a failure for the trade at the given position in the batch.
+     * @param index Position of the trade in the batch
+     * @param failure The failed validation result, which must not be reused afterwards
+     */
+    public void recordFailure(int index, ValidationResult failure) {
+        if (failures[index] == null) {
+            failureCount++;
+        }
+        failures[index] = failure;
+    }
+
+    /**
+     * Records an unexpected error raised while validating the trade at the given position.
+     * @param index Position of the trade in the batch
+     * @param error The error; the trade was neither accepted nor rejected
+     */
+    public void recordError(int index, RuntimeException error) {
+        if (errors[index] == null) {
+            errorCount++;
+        }
+        errors[index] = error;
+    }
+
+    public int size() { return failures.length; }
+
+    public boolean isValid(int index) { return failures[index] == null && errors[index] == null; }
+
+    public ValidationResult getFailure(int index) { return failures[index]; }
+
+    public RuntimeException getError(int index) { return errors[index]; }
+
+    public int getFailureCount() { return failureCount; }
+
+    public int getErrorCount() { return errorCount; }
+
+    public int getSuccessCount() { return failures.length - failureCount - errorCount; }
+}
@@ -1,5 +1,6 @@
 package com.example.trade.validation.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -13,6 +14,11 @@ public class Trade {
     private String counterparty;
     private String status;
 
+    // Fixed-point views of quantity and price, derived on first use
+    private long quantityFixed;
+    private long priceFixed;
+    private boolean fixedPointResolved;
+
     // Getters and Setters
     public String getTradeId() { return tradeId; }
     public void setTradeId(String tradeId) { this.tradeId = tradeId; }
@@ -21,10 +27,16 @@ public class Trade {
     public void setInstrument(String instrument) { this.instrument = instrument; }
 
     public BigDecimal getQuantity() { return quantity; }
-    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+        this.fixedPointResolved = false;
+    }
 
     public BigDecimal getPrice() { return price; }
-    public void setPrice(BigDecimal price) { this.price = price; }
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+        this.fixedPointResolved = false;
+    }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
@@ -37,4 +49,32 @@ public class Trade {
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    /**
+     * Gets the quantity as a fixed-point value.
+     * @return The scaled quantity, or {@link FixedPoint#INVALID} if missing or not representable
+     */
+    @JsonIgnore
+    public long getQuantityFixed() {
+        resolveFixedPoint();
+        return quantityFixed;
+    }
+
+    /**
+     * Gets the price as a fixed-point value.
+     * @return The scaled price, or {@link FixedPoint#INVALID} if missing or not representable
+     */
+    @JsonIgnore
+    public long getPriceFixed() {
+        resolveFixedPoint();
+        return priceFixed;
+    }
+
+    private void resolveFixedPoint() {
+        if (!fixedPointResolved) {
+            quantityFixed = FixedPoint.fromBigDecimal(quantity);
+            priceFixed = FixedPoint.fromBigDecimal(price);
+            fixedPointResolved = true;
+        }
+    }
 }
\ No newline at end of file
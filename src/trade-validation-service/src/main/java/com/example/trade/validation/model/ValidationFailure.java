@@ -0,0 +1,44 @@
+package com.example.trade.validation.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A trade that did not pass validation, published to the rejected or system error topic.
+ */
+public class ValidationFailure {
+    /** Trade broke one or more validation rules. */
+    public static final String TYPE_REJECTED = "REJECTED";
+    /** Trade could not be validated because of an unexpected error. */
+    public static final String TYPE_SYSTEM_ERROR = "SYSTEM_ERROR";
+
+    private String messageId;
+    private String failureType;
+    private Trade trade;
+    private List<String> ruleIds;
+    private List<String> codes;
+    private String message;
+    private LocalDateTime failedAt;
+
+    // Getters and Setters
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+
+    public String getFailureType() { return failureType; }
+    public void setFailureType(String failureType) { this.failureType = failureType; }
+
+    public Trade getTrade() { return trade; }
+    public void setTrade(Trade trade) { this.trade = trade; }
+
+    public List<String> getRuleIds() { return ruleIds; }
+    public void setRuleIds(List<String> ruleIds) { this.ruleIds = ruleIds; }
+
+    public List<String> getCodes() { return codes; }
+    public void setCodes(List<String> codes) { this.codes = codes; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getFailedAt() { return failedAt; }
+    public void setFailedAt(LocalDateTime failedAt) { this.failedAt = failedAt; }
+}
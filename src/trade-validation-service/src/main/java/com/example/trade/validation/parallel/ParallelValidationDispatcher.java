@@ -0,0 +1,316 @@
+package com.example.trade.validation.parallel;
+
+import com.example.trade.validation.model.TradeMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs trade validation off the consumer thread, on a striped worker pool keyed by
+ * instrument. Trades of one instrument are validated one at a time in the order they
+ * were consumed, while different instruments use all lanes, so throughput is not
+ * limited by the partition count of the input topic.
+ * <p>
+ * Offsets are committed only up to the first record that has not finished, per
+ * partition: a record that finishes early on an idle lane does not let the commit
+ * pass a slower record before it. Commits are made on the consumer thread, after each
+ * dispatch and when the container goes idle. When partitions are revoked, their
+ * in-flight records are allowed to finish and their offsets are committed before the
+ * partitions move to another consumer. A record whose outcome could not be published
+ * is dispatched again after a backoff; it may then run after later trades of its
+ * instrument. After max-attempts it is published to the dead letter topic instead and
+ * counts as finished, so it does not hold back the commits of its partition.
+ */
+@Component
+public class ParallelValidationDispatcher implements ConsumerAwareRebalanceListener {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelValidationDispatcher.class);
+    private static final long REVOKE_POLL_MILLIS = 10;
+
+    /** Id of the parallel listener; its containers are numbered from it. */
+    public static final String LISTENER_ID = "trade-validation-parallel";
+
+    private final StripedExecutor executor;
+    private final long revokeTimeoutMillis;
+    private final long retryBackoffMillis;
+    private final int maxAttempts;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final Queue<Redelivery> redeliveries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Validates one record and publishes its outcome. Called on a worker lane.
+     * The record finishes when the returned future completes. If the future fails, the
+     * record is dispatched again after the retry backoff, and its partition is not
+     * committed past it until it succeeds or is dead-lettered. Exceptions thrown by the processor itself
+     * finish the record, so they should be handled by the processor.
+     */
+    @FunctionalInterface
+    public interface RecordProcessor {
+        CompletableFuture<?> process(ConsumerRecord<String, TradeMessage> record);
+    }
+
+    /**
+     * A record whose outcome could not be published, waiting to be dispatched again.
+     */
+    private static final class Redelivery {
+        final ConsumerRecord<String, TradeMessage> record;
+        final PartitionOffsets offsets;
+        final RecordProcessor processor;
+        final int attempts;
+        final Throwable error;
+        final long notBefore;
+
+        Redelivery(ConsumerRecord<String, TradeMessage> record, PartitionOffsets offsets,
+                RecordProcessor processor, int attempts, Throwable error, long notBefore) {
+            this.record = record;
+            this.offsets = offsets;
+            this.processor = processor;
+            this.attempts = attempts;
+            this.error = error;
+            this.notBefore = notBefore;
+        }
+    }
+
+    @Autowired
+    public ParallelValidationDispatcher(MeterRegistry registry, DeadLetterPublishingRecoverer deadLetterRecoverer,
+            @Value("${trade-validation.kafka.parallel.enabled}") boolean enabled,
+            @Value("${trade-validation.kafka.parallel.workers}") int workers,
+            @Value("${trade-validation.kafka.parallel.queue-capacity}") int queueCapacity,
+            @Value("${trade-validation.kafka.parallel.revoke-timeout-ms}") long revokeTimeoutMillis,
+            @Value("${trade-validation.kafka.parallel.retry-backoff-ms}") long retryBackoffMillis,
+            @Value("${trade-validation.kafka.parallel.max-attempts}") int maxAttempts) {
+        this.deadLetterRecoverer = deadLetterRecoverer;
+        this.revokeTimeoutMillis = revokeTimeoutMillis;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        if (enabled) {
+            int lanes = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+            this.executor = new StripedExecutor("validation-lane", lanes, queueCapacity);
+            Gauge.builder("validation.parallel.pending", executor, StripedExecutor::pending)
+                .description("Trade messages queued or being validated on the worker lanes")
+                .register(registry);
+            logger.info("Validating trades on {} lanes of up to {} queued messages", lanes, queueCapacity);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Hands polled records to the worker lanes in order, after any failed records due
+     * to be dispatched again, then commits what has finished.
+     * Called on the consumer thread; blocks while the lane of a record is full.
+     * @param records The polled records
+     * @param consumer The consumer the records were polled by
+     * @param processor Validates a record
+     */
+    public void dispatch(List<ConsumerRecord<String, TradeMessage>> records, Consumer<?, ?> consumer,
+            RecordProcessor processor) {
+        if (executor == null) {
+            throw new IllegalStateException("Parallel validation is not enabled");
+        }
+        redispatchFailed(consumer);
+        for (ConsumerRecord<String, TradeMessage> record : records) {
+            PartitionOffsets offsets = partitions.computeIfAbsent(
+                new TopicPartition(record.topic(), record.partition()), partition -> new PartitionOffsets());
+            offsets.dispatched(record.offset());
+            submit(record, offsets, processor, 1);
+        }
+        commitFinished(consumer, consumer.assignment(), false);
+    }
+
+    /**
+     * Commits finished records once the parallel listener has had nothing to consume
+     * for the idle interval, so the tail of a burst is not left uncommitted.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        Consumer<?, ?> consumer = event.getConsumer();
+        if (consumer != null && executor != null) {
+            redispatchFailed(consumer);
+            commitFinished(consumer, consumer.assignment(), false);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        if (executor == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + revokeTimeoutMillis;
+        try {
+            while (!allIdle(revoked) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(REVOKE_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!allIdle(revoked)) {
+            logger.warn("Revoked partitions still had trade messages in flight after {} ms; "
+                + "they will be redelivered to the new owner", revokeTimeoutMillis);
+        }
+        commitFinished(consumer, revoked, true);
+        revoked.forEach(partitions::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        // Another consumer may already own these; committing for them would be rejected
+        lost.forEach(partitions::remove);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (executor != null && !executor.shutdown(revokeTimeoutMillis)) {
+            logger.warn("Worker lanes did not finish within {} ms", revokeTimeoutMillis);
+        }
+    }
+
+    private void submit(ConsumerRecord<String, TradeMessage> record, PartitionOffsets offsets,
+            RecordProcessor processor, int attempt) {
+        long offset = record.offset();
+        String instrument = record.value() != null ? record.value().getInstrument() : null;
+        executor.execute(instrument, () -> {
+            CompletableFuture<?> outcome;
+            try {
+                outcome = processor.process(record);
+            } catch (Exception e) {
+                logger.error("Unhandled error validating {}-{}@{}: {}",
+                    record.topic(), record.partition(), offset, e.getMessage());
+                offsets.finished(offset);
+                return;
+            }
+            outcome.whenComplete((result, error) -> {
+                if (error == null) {
+                    offsets.finished(offset);
+                    return;
+                }
+                logger.warn("Could not publish the outcome of {}-{}@{} (attempt {} of {}): {}",
+                    record.topic(), record.partition(), offset, attempt, maxAttempts, error.getMessage());
+                offsets.retrying(offset);
+                redeliveries.add(new Redelivery(record, offsets, processor, attempt, error,
+                    System.currentTimeMillis() + retryBackoffMillis));
+            });
+        });
+    }
+
+    /**
+     * Dispatches failed records again once their backoff has elapsed, or dead-letters
+     * them once they have used all their attempts. Records of partitions no longer owned
+     * are dropped; the new owner resumes from the committed offset, which is not past
+     * them. Called on the consumer thread.
+     */
+    private void redispatchFailed(Consumer<?, ?> consumer) {
+        long now = System.currentTimeMillis();
+        // Only the records queued so far, so records failing again are not retried in this call
+        for (int pending = redeliveries.size(); pending > 0; pending--) {
+            Redelivery redelivery = redeliveries.poll();
+            if (redelivery == null) {
+                return;
+            }
+            ConsumerRecord<String, TradeMessage> record = redelivery.record;
+            if (partitions.get(new TopicPartition(record.topic(), record.partition())) != redelivery.offsets) {
+                continue;
+            }
+            if (now < redelivery.notBefore) {
+                redeliveries.add(redelivery);
+                continue;
+            }
+            if (redelivery.attempts >= maxAttempts) {
+                deadLetter(redelivery, consumer);
+                continue;
+            }
+            redelivery.offsets.retried(record.offset());
+            submit(record, redelivery.offsets, redelivery.processor, redelivery.attempts + 1);
+        }
+    }
+
+    /**
+     * Publishes a record that used all its attempts to the dead letter topic and lets
+     * its partition commit past it. If the dead letter topic cannot be reached either,
+     * the record is kept and tried again after the backoff.
+     */
+    private void deadLetter(Redelivery redelivery, Consumer<?, ?> consumer) {
+        ConsumerRecord<String, TradeMessage> record = redelivery.record;
+        try {
+            deadLetterRecoverer.accept(record, consumer, new KafkaException("Could not publish the outcome after "
+                + redelivery.attempts + " attempts", redelivery.error));
+        } catch (RuntimeException e) {
+            logger.error("Could not dead-letter {}-{}@{}; keeping it: {}",
+                record.topic(), record.partition(), record.offset(), e.getMessage());
+            redeliveries.add(new Redelivery(record, redelivery.offsets, redelivery.processor, redelivery.attempts,
+                redelivery.error, System.currentTimeMillis() + retryBackoffMillis));
+            return;
+        }
+        logger.error("Dead-lettered {}-{}@{} after {} attempts to publish its outcome",
+            record.topic(), record.partition(), record.offset(), redelivery.attempts);
+        redelivery.offsets.retried(record.offset());
+        redelivery.offsets.finished(record.offset());
+    }
+
+    private void commitFinished(Consumer<?, ?> consumer, Collection<TopicPartition> owned, boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition partition : owned) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets == null) {
+                continue;
+            }
+            long committable = offsets.committable();
+            if (committable > offsets.committedOffset()) {
+                commits.put(partition, new OffsetAndMetadata(committable));
+                offsets.committed(committable);
+            }
+        }
+        if (commits.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            consumer.commitSync(commits);
+        } else {
+            consumer.commitAsync(commits, (committed, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to commit offsets {}: {}", committed, error.getMessage());
+                    // Commit these partitions again on the next attempt, even if nothing else finishes
+                    for (TopicPartition partition : committed.keySet()) {
+                        PartitionOffsets offsets = partitions.get(partition);
+                        if (offsets != null) {
+                            offsets.committed(-1);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private boolean allIdle(Collection<TopicPartition> owned) {
+        for (TopicPartition partition : owned) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null && !offsets.isIdle()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
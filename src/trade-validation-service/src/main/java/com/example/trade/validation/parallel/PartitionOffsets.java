@@ -0,0 +1,79 @@
+package com.example.trade.validation.parallel;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Offsets of one partition that have been dispatched but not yet finished.
+ * <p>
+ * Records finish out of order when they run on different lanes, so the offset that
+ * can be committed is the lowest one still in flight: every record before it has
+ * finished. With nothing in flight it is the offset after the last dispatched record.
+ * A record whose result could not be published stays in flight until it has been
+ * dispatched again and succeeded.
+ * Records are dispatched by the consumer thread only; they finish on the lanes.
+ */
+class PartitionOffsets {
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    // In flight, but waiting to be dispatched again after a failure
+    private final ConcurrentSkipListSet<Long> retrying = new ConcurrentSkipListSet<>();
+    private volatile long nextOffset = -1;
+    // Touched by the consumer thread only, including commit callbacks
+    private long committedOffset = -1;
+
+    /**
+     * Marks a record as dispatched. Offsets must be dispatched in increasing order.
+     */
+    void dispatched(long offset) {
+        inFlight.add(offset);
+        nextOffset = offset + 1;
+    }
+
+    /**
+     * Marks a dispatched record as finished.
+     */
+    void finished(long offset) {
+        inFlight.remove(offset);
+    }
+
+    /**
+     * Marks a dispatched record as failed and waiting to be dispatched again.
+     * It stays in flight, so the partition is not committed past it.
+     */
+    void retrying(long offset) {
+        retrying.add(offset);
+    }
+
+    /**
+     * Marks a failed record as dispatched again.
+     */
+    void retried(long offset) {
+        retrying.remove(offset);
+    }
+
+    /**
+     * Gets the offset up to which all records have finished, or -1 if no record has been dispatched.
+     */
+    long committable() {
+        // Read the dispatch position first: a record dispatched after this read lies
+        // beyond it, and one dispatched before is already in the in-flight set
+        long next = nextOffset;
+        Long lowest = inFlight.ceiling(Long.MIN_VALUE);
+        return lowest != null ? Math.min(lowest, next) : next;
+    }
+
+    /**
+     * Whether no record is being processed. Records waiting to be dispatched again do
+     * not count; when the partition is revoked they are left to its next owner.
+     */
+    boolean isIdle() {
+        return retrying.containsAll(inFlight);
+    }
+
+    long committedOffset() {
+        return committedOffset;
+    }
+
+    void committed(long offset) {
+        committedOffset = offset;
+    }
+}
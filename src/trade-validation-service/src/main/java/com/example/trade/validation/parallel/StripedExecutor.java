@@ -0,0 +1,102 @@
+package com.example.trade.validation.parallel;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed set of single-threaded lanes. Tasks with the same key always run on the
+ * same lane, so they run one at a time and in submission order; tasks with
+ * different keys spread over all lanes.
+ * <p>
+ * Each lane has a bounded queue. A submit to a full lane blocks the submitting
+ * thread until there is room, rather than reordering or running the task itself.
+ */
+class StripedExecutor {
+    private final ThreadPoolExecutor[] lanes;
+
+    StripedExecutor(String name, int laneCount, int queueCapacity) {
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(name + "-" + i),
+                StripedExecutor::blockUntilQueued);
+        }
+    }
+
+    /**
+     * Runs a task on the lane of its key, after every task submitted earlier with a key on the same lane.
+     * Must be called from a single thread for the ordering to hold.
+     * @param key The ordering key; null keys share a lane
+     * @param task The task
+     */
+    void execute(String key, Runnable task) {
+        lanes[laneOf(key)].execute(task);
+    }
+
+    int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Number of tasks queued or running over all lanes.
+     */
+    int pending() {
+        int pending = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            pending += lane.getQueue().size() + lane.getActiveCount();
+        }
+        return pending;
+    }
+
+    /**
+     * Stops accepting tasks and waits for the queued ones to finish.
+     * @return true if all lanes finished within the timeout
+     */
+    boolean shutdown(long timeoutMillis) throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (ThreadPoolExecutor lane : lanes) {
+            long remaining = deadline - System.nanoTime();
+            if (!lane.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int laneOf(String key) {
+        if (key == null) {
+            return 0;
+        }
+        // Spread the hash bits, as instrument codes often differ only in their last characters
+        int hash = key.hashCode() * 0x9E3779B9;
+        return (hash >>> 1) % lanes.length;
+    }
+
+    private static void blockUntilQueued(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("Lane is shut down");
+        }
+        try {
+            lane.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room on a lane", e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, count.getAndIncrement() == 0 ? name : name + "-" + count.get());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
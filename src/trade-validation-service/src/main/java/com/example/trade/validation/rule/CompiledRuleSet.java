@@ -0,0 +1,92 @@
+package com.example.trade.validation.rule;
+
+import com.example.trade.validation.model.Trade;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, ordered evaluator built from a list of validation rules by {@link RuleCompiler}.
+ * Built-in rule types are dispatched through a switch on a precomputed kind, so each
+ * call site sees a single receiver class and can be inlined by the JIT. Other rules
+ * fall back to interface dispatch.
+ */
+public final class CompiledRuleSet {
+    static final byte KIND_GENERIC = 0;
+    static final byte KIND_CURRENCY = 1;
+    static final byte KIND_TRADE_AMOUNT = 2;
+
+    private final ValidationRule[] rules;
+    private final byte[] kinds;
+    private final boolean[] fatal;
+    private final RuleStatistics[] statistics;
+    private final boolean failFast;
+
+    CompiledRuleSet(ValidationRule[] rules, RuleStatistics[] statistics, boolean failFast) {
+        this.rules = rules;
+        this.statistics = statistics;
+        this.failFast = failFast;
+        this.kinds = new byte[rules.length];
+        this.fatal = new boolean[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            kinds[i] = kindOf(rules[i]);
+            fatal[i] = rules[i].isFatal();
+        }
+    }
+
+    /**
+     * Evaluates all rules against a trade, recording failures in the result.
+     * In fail-fast mode evaluation stops at the first fatal failure.
+     * @param trade The trade to validate
+     * @param result The result to record failures in
+     * @return true if the trade passed every rule
+     */
+    public boolean evaluate(Trade trade, ValidationResult result) {
+        for (int i = 0; i < rules.length; i++) {
+            boolean passed;
+            switch (kinds[i]) {
+                case KIND_CURRENCY:
+                    passed = ((CurrencyValidationRule) rules[i]).check(trade, result);
+                    break;
+                case KIND_TRADE_AMOUNT:
+                    passed = ((TradeAmountValidationRule) rules[i]).check(trade, result);
+                    break;
+                default:
+                    passed = rules[i].check(trade, result);
+                    break;
+            }
+
+            statistics[i].recordEvaluation();
+            if (!passed) {
+                statistics[i].recordRejection();
+                if (failFast && fatal[i]) {
+                    return false;
+                }
+            }
+        }
+        return result.isValid();
+    }
+
+    /**
+     * Gets the rules in evaluation order.
+     */
+    public List<ValidationRule> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    private static byte kindOf(ValidationRule rule) {
+        // Exact class match only: subclasses may override check() and must use interface dispatch
+        if (rule.getClass() == CurrencyValidationRule.class) {
+            return KIND_CURRENCY;
+        }
+        if (rule.getClass() == TradeAmountValidationRule.class) {
+            return KIND_TRADE_AMOUNT;
+        }
+        return KIND_GENERIC;
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.trade.validation.rule;
 
 import com.example.trade.validation.model.Trade;
-import com.example.trade.validation.exception.ValidationException;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -18,22 +17,39 @@ public class CurrencyValidationRule implements ValidationRule {
 
     @Override
     public boolean validate(Trade trade) {
-        if (trade.getCurrency() == null || trade.getCurrency().trim().isEmpty()) {
-            throw new ValidationException("Trade currency must not be null or empty", RULE_ID);
+        ValidationResult result = ValidationResult.scratch();
+        if (!check(trade, result)) {
+            throw result.toException();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean check(Trade trade, ValidationResult result) {
+        String currency = trade.getCurrency();
+        if (currency == null || currency.isBlank()) {
+            return result.reject(RULE_ID, ValidationCode.CURRENCY_MISSING);
         }
 
-        String currency = trade.getCurrency().toUpperCase();
+        // toUpperCase returns the same instance when the code is already upper case
+        currency = currency.toUpperCase();
         if (!allowedCurrencies.contains(currency)) {
-            throw new ValidationException(
-                String.format("Currency %s is not in the list of allowed currencies: %s",
-                    currency, allowedCurrencies),
-                RULE_ID
-            );
+            return result.reject(RULE_ID, ValidationCode.CURRENCY_NOT_ALLOWED, currency, allowedCurrencies);
         }
 
         return true;
     }
 
+    @Override
+    public String getRuleId() {
+        return RULE_ID;
+    }
+
+    @Override
+    public int getCost() {
+        return 1;
+    }
+
     @Override
     public String getErrorMessage() {
         return String.format("Currency must be one of: %s", allowedCurrencies);
@@ -51,4 +67,4 @@ public class CurrencyValidationRule implements ValidationRule {
         defaultCurrencies.add("JPY");
         return new CurrencyValidationRule(defaultCurrencies);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.example.trade.validation.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a list of validation rules into a {@link CompiledRuleSet}.
+ * Rules are ordered so that cheap rules with high reject rates run first;
+ * ties keep their configured order. Statistics are kept per rule instance
+ * so that recompiling reorders rules based on what has been observed.
+ */
+public class RuleCompiler {
+    private final boolean failFast;
+    private final Map<ValidationRule, RuleStatistics> statistics =
+        Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public RuleCompiler(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    /**
+     * Builds an evaluator for the given rules.
+     * @param rules The configured rules
+     * @return A new compiled rule set
+     */
+    public CompiledRuleSet compile(List<ValidationRule> rules) {
+        List<ValidationRule> ordered = new ArrayList<>(rules);
+        Map<ValidationRule, Double> scores = new IdentityHashMap<>();
+        for (ValidationRule rule : ordered) {
+            scores.put(rule, score(rule, statisticsFor(rule)));
+        }
+        ordered.sort(Comparator.comparingDouble(scores::get));
+
+        ValidationRule[] compiledRules = ordered.toArray(new ValidationRule[0]);
+        RuleStatistics[] compiledStatistics = new RuleStatistics[compiledRules.length];
+        for (int i = 0; i < compiledRules.length; i++) {
+            compiledStatistics[i] = statisticsFor(compiledRules[i]);
+        }
+        return new CompiledRuleSet(compiledRules, compiledStatistics, failFast);
+    }
+
+    /**
+     * Gets the statistics collected for a rule.
+     */
+    public RuleStatistics statisticsFor(ValidationRule rule) {
+        return statistics.computeIfAbsent(rule, r -> new RuleStatistics());
+    }
+
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * Expected cost paid per rejection: lower scores run earlier.
+     */
+    private static double score(ValidationRule rule, RuleStatistics stats) {
+        return Math.max(1, rule.getCost()) / stats.getRejectRate();
+    }
+}
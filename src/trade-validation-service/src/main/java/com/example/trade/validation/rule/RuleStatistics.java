@@ -0,0 +1,32 @@
+package com.example.trade.validation.rule;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluation and rejection counts for a single rule.
+ * Survives recompilation so that rule ordering can adapt to observed reject rates.
+ */
+public class RuleStatistics {
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    void recordEvaluation() {
+        evaluations.increment();
+    }
+
+    void recordRejection() {
+        rejections.increment();
+    }
+
+    public long getEvaluations() { return evaluations.sum(); }
+
+    public long getRejections() { return rejections.sum(); }
+
+    /**
+     * Gets the smoothed reject rate. Rules that have not been evaluated yet
+     * are assumed to reject half of the time.
+     */
+    public double getRejectRate() {
+        return (rejections.sum() + 1.0) / (evaluations.sum() + 2.0);
+    }
+}
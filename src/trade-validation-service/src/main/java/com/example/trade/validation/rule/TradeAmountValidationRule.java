@@ -1,7 +1,7 @@
 package com.example.trade.validation.rule;
 
+import com.example.trade.validation.model.FixedPoint;
 import com.example.trade.validation.model.Trade;
-import com.example.trade.validation.exception.ValidationException;
 import java.math.BigDecimal;
 
 /**
@@ -10,42 +10,76 @@ import java.math.BigDecimal;
 public class TradeAmountValidationRule implements ValidationRule {
     private final BigDecimal minAmount;
     private final BigDecimal maxAmount;
+    private final long minAmountFixed;
+    private final long maxAmountFixed;
     private static final String RULE_ID = "TRADE_AMOUNT";
 
     public TradeAmountValidationRule(BigDecimal minAmount, BigDecimal maxAmount) {
         this.minAmount = minAmount;
         this.maxAmount = maxAmount;
+        this.minAmountFixed = FixedPoint.fromBigDecimal(minAmount);
+        this.maxAmountFixed = FixedPoint.fromBigDecimal(maxAmount);
     }
 
     @Override
     public boolean validate(Trade trade) {
+        ValidationResult result = ValidationResult.scratch();
+        if (!check(trade, result)) {
+            throw result.toException();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean check(Trade trade, ValidationResult result) {
         if (trade.getQuantity() == null || trade.getPrice() == null) {
-            throw new ValidationException("Trade quantity and price must not be null", RULE_ID);
+            return result.reject(RULE_ID, ValidationCode.AMOUNT_MISSING);
+        }
+
+        // Fast path: exact fixed-point comparison, no allocation for passing trades
+        long quantity = trade.getQuantityFixed();
+        long price = trade.getPriceFixed();
+        long amount = FixedPoint.multiplyFloor(quantity, price);
+        if (amount != FixedPoint.INVALID
+                && minAmountFixed != FixedPoint.INVALID && maxAmountFixed != FixedPoint.INVALID) {
+            if (amount < minAmountFixed) {
+                return result.reject(RULE_ID, ValidationCode.AMOUNT_BELOW_MINIMUM,
+                    trade.getQuantity().multiply(trade.getPrice()), minAmount);
+            }
+            if (amount > maxAmountFixed
+                    || (amount == maxAmountFixed && !FixedPoint.isProductExact(quantity, price))) {
+                return result.reject(RULE_ID, ValidationCode.AMOUNT_ABOVE_MAXIMUM,
+                    trade.getQuantity().multiply(trade.getPrice()), maxAmount);
+            }
+            return true;
         }
 
+        // Values outside the fixed-point range are checked with BigDecimal
         BigDecimal tradeAmount = trade.getQuantity().multiply(trade.getPrice());
 
         if (tradeAmount.compareTo(minAmount) < 0) {
-            throw new ValidationException(
-                String.format("Trade amount %s is below minimum allowed amount %s", 
-                    tradeAmount, minAmount),
-                RULE_ID
-            );
+            return result.reject(RULE_ID, ValidationCode.AMOUNT_BELOW_MINIMUM, tradeAmount, minAmount);
         }
 
         if (tradeAmount.compareTo(maxAmount) > 0) {
-            throw new ValidationException(
-                String.format("Trade amount %s exceeds maximum allowed amount %s", 
-                    tradeAmount, maxAmount),
-                RULE_ID
-            );
+            return result.reject(RULE_ID, ValidationCode.AMOUNT_ABOVE_MAXIMUM, tradeAmount, maxAmount);
         }
 
         return true;
     }
 
+    @Override
+    public String getRuleId() {
+        return RULE_ID;
+    }
+
+    @Override
+    public int getCost() {
+        return 4;
+    }
+
     @Override
     public String getErrorMessage() {
         return String.format("Trade amount must be between %s and %s", minAmount, maxAmount);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.example.trade.validation.rule;
+
+/**
+ * Reason codes reported by validation rules.
+ * Each code carries a message template that is only formatted
+ * when a caller actually reads the failure message.
+ */
+public enum ValidationCode {
+    CURRENCY_MISSING("Trade currency must not be null or empty"),
+    CURRENCY_NOT_ALLOWED("Currency %s is not in the list of allowed currencies: %s"),
+    AMOUNT_MISSING("Trade quantity and price must not be null"),
+    AMOUNT_BELOW_MINIMUM("Trade amount %s is below minimum allowed amount %s"),
+    AMOUNT_ABOVE_MAXIMUM("Trade amount %s exceeds maximum allowed amount %s"),
+    RULE_FAILED("%s");
+
+    private final String template;
+
+    ValidationCode(String template) {
+        this.template = template;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Formats the message for this code with the recorded arguments.
+     */
+    public String format(Object arg0, Object arg1) {
+        return String.format(template, arg0, arg1);
+    }
+}
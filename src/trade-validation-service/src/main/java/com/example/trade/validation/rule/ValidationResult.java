@@ -0,0 +1,163 @@
+package com.example.trade.validation.rule;
+
+import com.example.trade.validation.exception.ValidationException;
+
+import java.util.Arrays;
+
+/**
+ * Mutable, reusable holder for the outcome of validating a trade.
+ * Rules record failures as a rule ID, a {@link ValidationCode} and up to two
+ * arguments; messages are only formatted when {@link #getMessage(int)} is called.
+ * Instances are not thread-safe and are meant to be reused by one thread
+ * via {@link #reset()}.
+ */
+public class ValidationResult {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final ThreadLocal<ValidationResult> SCRATCH =
+        ThreadLocal.withInitial(() -> new ValidationResult(1));
+
+    private String[] ruleIds;
+    private ValidationCode[] codes;
+    private Object[] firstArgs;
+    private Object[] secondArgs;
+    private int failureCount;
+
+    public ValidationResult() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ValidationResult(int capacity) {
+        this.ruleIds = new String[capacity];
+        this.codes = new ValidationCode[capacity];
+        this.firstArgs = new Object[capacity];
+        this.secondArgs = new Object[capacity];
+    }
+
+    /**
+     * Gets a cleared result owned by the calling thread, so rules can implement
+     * {@link ValidationRule#validate} on top of their check without allocating when the
+     * trade passes. It is cleared again by the next call on the thread, so it must not
+     * be kept; {@link #toException()} copies the failures out.
+     */
+    public static ValidationResult scratch() {
+        return SCRATCH.get().reset();
+    }
+
+    /**
+     * Clears all recorded failures so the instance can be reused.
+     */
+    public ValidationResult reset() {
+        for (int i = 0; i < failureCount; i++) {
+            firstArgs[i] = null;
+            secondArgs[i] = null;
+        }
+        failureCount = 0;
+        return this;
+    }
+
+    /**
+     * Records a failure without message arguments.
+     * @return always false, so rules can {@code return result.reject(...)}
+     */
+    public boolean reject(String ruleId, ValidationCode code) {
+        return reject(ruleId, code, null, null);
+    }
+
+    /**
+     * Records all failures of another result, keeping their rule IDs and codes.
+     * @return true if the other result has no failures
+     */
+    public boolean rejectAll(ValidationResult other) {
+        for (int i = 0; i < other.failureCount; i++) {
+            reject(other.ruleIds[i], other.codes[i], other.firstArgs[i], other.secondArgs[i]);
+        }
+        return other.failureCount == 0;
+    }
+
+    /**
+     * Records a failure. Arguments are kept by reference and only used
+     * when the message is formatted.
+     * @return always false, so rules can {@code return result.reject(...)}
+     */
+    public boolean reject(String ruleId, ValidationCode code, Object arg0, Object arg1) {
+        if (failureCount == ruleIds.length) {
+            grow();
+        }
+        ruleIds[failureCount] = ruleId;
+        codes[failureCount] = code;
+        firstArgs[failureCount] = arg0;
+        secondArgs[failureCount] = arg1;
+        failureCount++;
+        return false;
+    }
+
+    public boolean isValid() { return failureCount == 0; }
+
+    public int getFailureCount() { return failureCount; }
+
+    public String getRuleId(int index) { return ruleIds[checkIndex(index)]; }
+
+    public ValidationCode getCode(int index) { return codes[checkIndex(index)]; }
+
+    /**
+     * Formats the message for the failure at the given index.
+     */
+    public String getMessage(int index) {
+        checkIndex(index);
+        return codes[index].format(firstArgs[index], secondArgs[index]);
+    }
+
+    /**
+     * Formats all failure messages, separated by "; ".
+     */
+    public String getMessages() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < failureCount; i++) {
+            if (i > 0) {
+                sb.append("; ");
+            }
+            sb.append(getMessage(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates a right-sized copy of this result, for callers that need to keep
+     * the failures after this instance is reset.
+     */
+    public ValidationResult copy() {
+        ValidationResult copy = new ValidationResult(Math.max(1, failureCount));
+        for (int i = 0; i < failureCount; i++) {
+            copy.reject(ruleIds[i], codes[i], firstArgs[i], secondArgs[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Converts the recorded failures into a {@link ValidationException}.
+     * A single failure keeps its own rule ID; several are reported as VALIDATION_FAILED.
+     * The exception carries a copy of the failures, so this instance can be reused.
+     */
+    public ValidationException toException() {
+        if (failureCount == 0) {
+            throw new IllegalStateException("Validation result has no failures");
+        }
+        String ruleId = failureCount == 1 ? ruleIds[0] : "VALIDATION_FAILED";
+        return new ValidationException(getMessages(), ruleId, copy());
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= failureCount) {
+            throw new IndexOutOfBoundsException("No failure at index " + index);
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = ruleIds.length * 2;
+        ruleIds = Arrays.copyOf(ruleIds, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        firstArgs = Arrays.copyOf(firstArgs, capacity);
+        secondArgs = Arrays.copyOf(secondArgs, capacity);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.trade.validation.rule;
 
 import com.example.trade.validation.model.Trade;
+import com.example.trade.validation.exception.ValidationException;
 
 /**
  * Interface for trade validation rules.
@@ -20,4 +21,52 @@ public interface ValidationRule {
      * @return The error message associated with this rule
      */
     String getErrorMessage();
-}
\ No newline at end of file
+
+    /**
+     * Gets the identifier reported with failures of this rule.
+     * @return The rule identifier
+     */
+    default String getRuleId() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Gets a relative cost hint used to order rules when they are compiled.
+     * Cheap field checks should report low values, arithmetic or lookups higher ones.
+     * @return The relative evaluation cost of this rule
+     */
+    default int getCost() {
+        return 10;
+    }
+
+    /**
+     * Whether a failure of this rule makes further checks pointless.
+     * In fail-fast mode evaluation stops at the first fatal failure.
+     * @return true if failures of this rule are fatal
+     */
+    default boolean isFatal() {
+        return true;
+    }
+
+    /**
+     * Validates a trade without throwing. Failures are recorded in the given result.
+     * Implementations should override this so that passing trades allocate nothing;
+     * the default adapts {@link #validate(Trade)} for existing rules.
+     * @param trade The trade to validate
+     * @param result The result to record failures in
+     * @return true if the trade passes validation, false otherwise
+     */
+    default boolean check(Trade trade, ValidationResult result) {
+        try {
+            if (validate(trade)) {
+                return true;
+            }
+            return result.reject(getRuleId(), ValidationCode.RULE_FAILED, getErrorMessage(), null);
+        } catch (ValidationException e) {
+            if (e.getResult() != null) {
+                return result.rejectAll(e.getResult());
+            }
+            return result.reject(e.getRuleId(), ValidationCode.RULE_FAILED, e.getMessage(), null);
+        }
+    }
+}
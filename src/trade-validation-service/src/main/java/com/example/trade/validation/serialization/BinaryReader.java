@@ -0,0 +1,108 @@
+package com.example.trade.validation.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads values written by {@link BinaryWriter}.
+ */
+public final class BinaryReader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public BinaryReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public BinaryReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public byte readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    public int readInt() {
+        require(4);
+        return ((buffer[position++] & 0xFF) << 24)
+            | ((buffer[position++] & 0xFF) << 16)
+            | ((buffer[position++] & 0xFF) << 8)
+            | (buffer[position++] & 0xFF);
+    }
+
+    public long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public String readString() {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public BigDecimal readDecimal() {
+        byte kind = readByte();
+        if (kind == BinaryWriter.ABSENT) {
+            return null;
+        }
+        int scale = readInt();
+        if (kind == BinaryWriter.DECIMAL_COMPACT) {
+            return BigDecimal.valueOf(readLong(), scale);
+        }
+        if (kind == BinaryWriter.DECIMAL_WIDE) {
+            int length = readInt();
+            require(length);
+            BigInteger unscaled = new BigInteger(buffer, position, length);
+            position += length;
+            return new BigDecimal(unscaled, scale);
+        }
+        throw new SerializationException("Unknown decimal encoding: " + kind);
+    }
+
+    public LocalDateTime readDateTime() {
+        if (readByte() == BinaryWriter.ABSENT) {
+            return null;
+        }
+        long epochSecond = readLong();
+        int nanos = readInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+    }
+
+    public LocalDate readDate() {
+        if (readByte() == BinaryWriter.ABSENT) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(readLong());
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    private void require(int bytes) {
+        if (bytes < 0 || position + bytes > limit) {
+            throw new SerializationException("Truncated binary record: needed " + bytes
+                + " bytes at position " + position + " of " + limit);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.trade.validation.serialization;
+
+import com.example.trade.validation.model.Trade;
+import com.example.trade.validation.model.TradeMessage;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Schema-versioned binary encoding of {@link Trade} and {@link TradeMessage}.
+ * <p>
+ * Layout: one byte schema version, one byte record type, then the fields in
+ * declaration order using {@link BinaryWriter} encodings. New fields must only
+ * be appended and guarded by a version check in the decoder, so older records
+ * stay readable.
+ */
+public final class BinaryTradeCodec {
+    public static final byte SCHEMA_VERSION = 1;
+
+    static final byte TYPE_TRADE = 1;
+    static final byte TYPE_TRADE_MESSAGE = 2;
+
+    private static final int ESTIMATED_RECORD_SIZE = 160;
+
+    private BinaryTradeCodec() {
+    }
+
+    public static byte[] encode(Trade trade) {
+        BinaryWriter writer = new BinaryWriter(ESTIMATED_RECORD_SIZE)
+            .writeByte(SCHEMA_VERSION)
+            .writeByte(TYPE_TRADE);
+        writer.writeString(trade.getTradeId())
+            .writeString(trade.getInstrument())
+            .writeDecimal(trade.getQuantity())
+            .writeDecimal(trade.getPrice())
+            .writeString(trade.getCurrency())
+            .writeDateTime(trade.getTradeDate())
+            .writeString(trade.getCounterparty())
+            .writeString(trade.getStatus());
+        return writer.toByteArray();
+    }
+
+    public static byte[] encode(TradeMessage message) {
+        BinaryWriter writer = new BinaryWriter(ESTIMATED_RECORD_SIZE)
+            .writeByte(SCHEMA_VERSION)
+            .writeByte(TYPE_TRADE_MESSAGE);
+        writer.writeString(message.getMessageId())
+            .writeString(message.getTradeId())
+            .writeString(message.getInstrument())
+            .writeDecimal(message.getQuantity())
+            .writeDecimal(message.getPrice())
+            .writeString(message.getCurrency())
+            .writeDateTime(message.getTradeDate())
+            .writeString(message.getCounterparty())
+            .writeDateTime(message.getReceivedTimestamp());
+        return writer.toByteArray();
+    }
+
+    public static Trade decodeTrade(byte[] data) {
+        BinaryReader reader = open(data, TYPE_TRADE);
+        Trade trade = new Trade();
+        trade.setTradeId(reader.readString());
+        trade.setInstrument(reader.readString());
+        trade.setQuantity(reader.readDecimal());
+        trade.setPrice(reader.readDecimal());
+        trade.setCurrency(reader.readString());
+        trade.setTradeDate(reader.readDateTime());
+        trade.setCounterparty(reader.readString());
+        trade.setStatus(reader.readString());
+        return trade;
+    }
+
+    /**
+     * Decodes a TradeMessage. A plain Trade record is accepted as well, so
+     * producers publishing trades can feed the validation topic directly.
+     */
+    public static TradeMessage decodeTradeMessage(byte[] data) {
+        if (data.length > 1 && data[1] == TYPE_TRADE) {
+            Trade trade = decodeTrade(data);
+            TradeMessage message = new TradeMessage();
+            message.setTradeId(trade.getTradeId());
+            message.setInstrument(trade.getInstrument());
+            message.setQuantity(trade.getQuantity());
+            message.setPrice(trade.getPrice());
+            message.setCurrency(trade.getCurrency());
+            message.setTradeDate(trade.getTradeDate());
+            message.setCounterparty(trade.getCounterparty());
+            return message;
+        }
+
+        BinaryReader reader = open(data, TYPE_TRADE_MESSAGE);
+        TradeMessage message = new TradeMessage();
+        message.setMessageId(reader.readString());
+        message.setTradeId(reader.readString());
+        message.setInstrument(reader.readString());
+        message.setQuantity(reader.readDecimal());
+        message.setPrice(reader.readDecimal());
+        message.setCurrency(reader.readString());
+        message.setTradeDate(reader.readDateTime());
+        message.setCounterparty(reader.readString());
+        message.setReceivedTimestamp(reader.readDateTime());
+        return message;
+    }
+
+    /**
+     * Whether the payload looks like a record written by this codec.
+     * Used to tell formats apart when a record carries no content-type header.
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1
+            && data[0] > 0 && data[0] <= SCHEMA_VERSION
+            && (data[1] == TYPE_TRADE || data[1] == TYPE_TRADE_MESSAGE);
+    }
+
+    private static BinaryReader open(byte[] data, byte expectedType) {
+        BinaryReader reader = new BinaryReader(data);
+        byte version = reader.readByte();
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new SerializationException("Unsupported trade schema version: " + version);
+        }
+        byte type = reader.readByte();
+        if (type != expectedType) {
+            throw new SerializationException("Unexpected record type " + type + ", expected " + expectedType);
+        }
+        return reader;
+    }
+}
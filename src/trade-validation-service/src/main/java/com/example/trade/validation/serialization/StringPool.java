@@ -0,0 +1,61 @@
+package com.example.trade.validation.serialization;
+
+/**
+ * Bounded, direct-mapped pool of canonical strings.
+ * Looks strings up straight from a character buffer, so a value that is already
+ * pooled (an instrument, currency or counterparty code) costs no allocation.
+ * A colliding value replaces the previous entry, which keeps memory bounded
+ * regardless of how many distinct values are seen.
+ * Safe for concurrent use: races can only cause an extra allocation.
+ */
+public final class StringPool {
+    private static final int MAX_POOLED_LENGTH = 64;
+
+    private final String[] entries;
+    private final int mask;
+
+    /**
+     * @param capacity Maximum number of pooled strings, rounded up to a power of two of at least 16
+     */
+    public StringPool(int capacity) {
+        int size = capacity <= 16 ? 16 : Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the pooled string with the given characters, creating and pooling it if needed.
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (length > MAX_POOLED_LENGTH) {
+            return new String(chars, offset, length);
+        }
+
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        String pooled = entries[index];
+        if (pooled != null && matches(pooled, chars, offset, length)) {
+            return pooled;
+        }
+
+        String value = new String(chars, offset, length);
+        entries[index] = value;
+        return value;
+    }
+
+    private static boolean matches(String value, char[] chars, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.trade.validation.serialization;
+
+import com.example.trade.validation.model.TradeMessage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Kafka deserializer for {@link TradeMessage} built on Jackson's streaming parser.
+ * Reads fields straight from the record bytes without databind reflection or type headers.
+ * Instrument, currency and counterparty codes are taken from a bounded {@link StringPool},
+ * and ISO-8601 timestamps are parsed from the parser's character buffer.
+ */
+public class TradeMessageDeserializer implements Deserializer<TradeMessage> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final StringPool stringPool;
+
+    public TradeMessageDeserializer(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    @Override
+    public TradeMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SerializationException("Trade message on topic " + topic + " is not a JSON object");
+            }
+
+            TradeMessage message = new TradeMessage();
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "messageId":
+                        message.setMessageId(parser.getText());
+                        break;
+                    case "tradeId":
+                        message.setTradeId(parser.getText());
+                        break;
+                    case "instrument":
+                        message.setInstrument(pooledText(parser));
+                        break;
+                    case "currency":
+                        message.setCurrency(pooledText(parser));
+                        break;
+                    case "counterparty":
+                        message.setCounterparty(pooledText(parser));
+                        break;
+                    case "quantity":
+                        message.setQuantity(readDecimal(parser, token));
+                        break;
+                    case "price":
+                        message.setPrice(readDecimal(parser, token));
+                        break;
+                    case "tradeDate":
+                        message.setTradeDate(readDateTime(parser, token));
+                        break;
+                    case "receivedTimestamp":
+                        message.setReceivedTimestamp(readDateTime(parser, token));
+                        break;
+                    default:
+                        // Unknown fields are ignored, as with @JsonIgnoreProperties(ignoreUnknown = true)
+                        parser.skipChildren();
+                        break;
+                }
+            }
+            return message;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof SerializationException) {
+                throw (SerializationException) e;
+            }
+            throw new SerializationException("Error deserializing trade message from topic " + topic, e);
+        }
+    }
+
+    private String pooledText(JsonParser parser) throws IOException {
+        return stringPool.intern(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        return parser.getDecimalValue();
+    }
+
+    /**
+     * Reads a LocalDateTime written either as an ISO-8601 string or, when dates are
+     * written as timestamps, as an array of [year, month, day, hour, minute, second, nanos].
+     */
+    private static LocalDateTime readDateTime(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            int[] parts = new int[7];
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count < parts.length) {
+                    parts[count++] = parser.getIntValue();
+                }
+            }
+            if (count < 5) {
+                throw new SerializationException("Timestamp array needs at least 5 elements");
+            }
+            return LocalDateTime.of(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], parts[6]);
+        }
+        return parseIsoDateTime(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    /**
+     * Parses yyyy-MM-ddTHH:mm[:ss[.fraction]] directly from characters.
+     * Other layouts fall back to {@link LocalDateTime#parse(CharSequence)}.
+     */
+    static LocalDateTime parseIsoDateTime(char[] chars, int offset, int length) {
+        int end = offset + length;
+        if (length < 16 || chars[offset + 4] != '-' || chars[offset + 7] != '-'
+                || (chars[offset + 10] != 'T' && chars[offset + 10] != ' ') || chars[offset + 13] != ':') {
+            return LocalDateTime.parse(new String(chars, offset, length));
+        }
+
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        int hour = digits(chars, offset + 11, 2);
+        int minute = digits(chars, offset + 14, 2);
+        int second = 0;
+        int nanos = 0;
+
+        int pos = offset + 16;
+        if (pos + 3 <= end && chars[pos] == ':') {
+            second = digits(chars, pos + 1, 2);
+            pos += 3;
+            if (pos < end && chars[pos] == '.') {
+                pos++;
+                int scale = 100_000_000;
+                while (pos < end && scale > 0 && chars[pos] >= '0' && chars[pos] <= '9') {
+                    nanos += (chars[pos++] - '0') * scale;
+                    scale /= 10;
+                }
+            }
+        }
+        if (pos != end || year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return LocalDateTime.parse(new String(chars, offset, length));
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
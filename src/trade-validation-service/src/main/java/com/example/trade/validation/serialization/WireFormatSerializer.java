@@ -0,0 +1,76 @@
+package com.example.trade.validation.serialization;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Serializer that picks JSON or binary encoding per topic and tags each record
+ * with a {@link WireFormat#CONTENT_TYPE_HEADER} header.
+ *
+ * @param <T> The record value type
+ */
+public class WireFormatSerializer<T> implements Serializer<T> {
+    private final Serializer<T> jsonSerializer;
+    private final Function<T, byte[]> binaryEncoder;
+    private final Map<String, WireFormat> topicFormats;
+    private final WireFormat defaultFormat;
+
+    /**
+     * @param jsonSerializer Serializer used for topics in JSON format
+     * @param binaryEncoder Encoder used for topics in binary format
+     * @param topicFormats Format per topic
+     * @param defaultFormat Format for topics not listed in topicFormats
+     */
+    public WireFormatSerializer(Serializer<T> jsonSerializer, Function<T, byte[]> binaryEncoder,
+            Map<String, WireFormat> topicFormats, WireFormat defaultFormat) {
+        this.jsonSerializer = jsonSerializer;
+        this.binaryEncoder = binaryEncoder;
+        this.topicFormats = new HashMap<>(topicFormats);
+        this.defaultFormat = defaultFormat;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return encode(topic, data, formatFor(topic));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data instanceof byte[]) {
+            // Already encoded, e.g. a record that could not be decoded on its way to a dead letter topic
+            return (byte[]) data;
+        }
+        WireFormat format = formatFor(topic);
+        headers.remove(WireFormat.CONTENT_TYPE_HEADER);
+        headers.add(WireFormat.CONTENT_TYPE_HEADER, format.getContentTypeBytes());
+        return encode(topic, data, format);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+    public WireFormat formatFor(String topic) {
+        return topicFormats.getOrDefault(topic, defaultFormat);
+    }
+
+    private byte[] encode(String topic, T data, WireFormat format) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[]) {
+            return (byte[]) data;
+        }
+        return format == WireFormat.BINARY ? binaryEncoder.apply(data) : jsonSerializer.serialize(topic, data);
+    }
+}
@@ -1,15 +1,44 @@
 package com.example.trade.validation.service;
 
+import com.example.trade.validation.dedup.MessageDeduplicator;
+import com.example.trade.validation.metrics.RetryMetrics;
+import com.example.trade.validation.model.BatchValidationResult;
 import com.example.trade.validation.model.Trade;
 import com.example.trade.validation.model.TradeMessage;
-import com.example.trade.validation.exception.ValidationException;
+import com.example.trade.validation.parallel.ParallelValidationDispatcher;
+import com.example.trade.validation.rule.ValidationResult;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.DestinationTopicResolver;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Service that listens for trade messages from Kafka and processes them through validation.
  */
@@ -17,68 +46,348 @@ import org.springframework.stereotype.Service;
 public class TradeMessageListener {
     private static final Logger logger = LoggerFactory.getLogger(TradeMessageListener.class);
     private final TradeValidationService validationService;
+    private final ValidationResultPublisher resultPublisher;
+    private final RetryMetrics retryMetrics;
+    private final MessageDeduplicator deduplicator;
+    private final ParallelValidationDispatcher parallelDispatcher;
+    private final ObjectProvider<DestinationTopicResolver> destinationTopicResolver;
+    private final long publishTimeoutMillis;
+
+    // Runs publish callbacks off the producer I/O thread; single-threaded, so it also guards retryForwarder
+    private ExecutorService callbackExecutor;
+    private DeadLetterPublishingRecoverer retryForwarder;
 
     @Autowired
-    public TradeMessageListener(TradeValidationService validationService) {
+    public TradeMessageListener(TradeValidationService validationService,
+            ValidationResultPublisher resultPublisher, RetryMetrics retryMetrics,
+            MessageDeduplicator deduplicator, ParallelValidationDispatcher parallelDispatcher,
+            ObjectProvider<DestinationTopicResolver> destinationTopicResolver,
+            @Value("${trade-validation.kafka.publish-timeout-ms}") long publishTimeoutMillis) {
         this.validationService = validationService;
+        this.resultPublisher = resultPublisher;
+        this.retryMetrics = retryMetrics;
+        this.deduplicator = deduplicator;
+        this.parallelDispatcher = parallelDispatcher;
+        this.destinationTopicResolver = destinationTopicResolver;
+        this.publishTimeoutMillis = publishTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.callbackExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validation-publish-callback");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackExecutor.shutdown();
     }
 
     /**
      * Processes incoming trade messages with retry capability.
-     * Uses a separate container factory with retry configuration.
+     * Also consumes the retry tier topics configured in KafkaConfig.
+     * Rule failures are published as rejections and not retried, since the outcome
+     * would not change; unexpected errors are retried through the retry tiers without
+     * blocking the partition, and end in the dead letter topic.
+     * The outcome is published without waiting for the broker, so the offset may be
+     * committed first; if the publish fails, the message is forwarded to the next retry
+     * tier, or the dead letter topic after the last one, from the publish callback.
+     * Records that cannot be deserialized go straight to the dead letter topic.
      */
     @KafkaListener(
         topics = "${trade-validation.kafka.input-topic}",
         groupId = "${spring.kafka.consumer.group-id}",
         containerFactory = "retryableKafkaListenerContainerFactory"
     )
-    public void processTradeMessage(@Payload TradeMessage message) {
+    public void processTradeMessage(ConsumerRecord<String, TradeMessage> record) {
+        TradeMessage message = record.value();
+        if (message == null) {
+            // Fatal to the retry topics, so the record goes straight to the dead letter topic
+            throw undeserializable(record);
+        }
         String messageId = message.getMessageId();
-        logger.info("Received trade message: {}", messageId);
+        logger.info("Received trade message: {} from {}", messageId, record.topic());
+        retryMetrics.recordDelivery(record);
+        if (deduplicator.isDuplicate(messageId)) {
+            logger.warn("Skipping duplicate trade message: {}", messageId);
+            return;
+        }
 
+        CompletableFuture<Void> published;
         try {
-            Trade trade = message.toTrade();
-            boolean isValid = validationService.validateTrade(trade);
-            
-            if (isValid) {
-                logger.info("Trade validation successful for message: {}", messageId);
-                // TODO: Send validation success message to output topic
-            }
-        } catch (ValidationException e) {
-            logger.error("Validation failed for message {}: {}", messageId, e.getMessage());
-            // TODO: Send validation failure message to error topic
-            throw e; // Allow retry mechanism to handle the error
+            published = validateAndPublish(messageId, message.toTrade());
         } catch (Exception e) {
             logger.error("Unexpected error processing message {}: {}", messageId, e.getMessage());
-            // TODO: Send system error message to error topic
             throw e; // Allow retry mechanism to handle the error
         }
+        recordWhenPublished(messageId, published).whenCompleteAsync((ignored, error) -> {
+            if (error == null) {
+                retryMetrics.recordSuccess(record);
+            } else {
+                forwardToRetryTier(record, messageId, unwrap(error));
+            }
+        }, callbackExecutor);
+    }
+
+    /**
+     * Sends a message whose outcome could not be published on through the retry tiers,
+     * as the container would have for an exception thrown by the listener.
+     */
+    private void forwardToRetryTier(ConsumerRecord<String, TradeMessage> record, String messageId, Throwable cause) {
+        logger.error("Failed to publish the outcome of message {}, forwarding it for retry: {}",
+            messageId, cause.getMessage());
+        if (retryForwarder == null) {
+            retryForwarder = new DeadLetterPublishingRecovererFactory(destinationTopicResolver.getObject()).create();
+        }
+        try {
+            retryForwarder.accept(record, null,
+                new KafkaException("Failed to publish the outcome of message " + messageId, cause));
+        } catch (RuntimeException e) {
+            logger.error("Could not forward message {} ({}-{}@{}) for retry; it is lost: {}",
+                messageId, record.topic(), record.partition(), record.offset(), e.getMessage());
+        }
+    }
+
+    /**
+     * Handles trade messages that exhausted their retries, by publishing them as system errors.
+     * Registered as the dead letter handler in KafkaConfig.
+     */
+    public void handleDeadLetter(ConsumerRecord<String, TradeMessage> record,
+            @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) String exceptionMessage) {
+        TradeMessage message = record.value();
+        String messageId = message != null ? message.getMessageId() : "unknown";
+        logger.error("Trade message {} exhausted its retries: {}", messageId, exceptionMessage);
+        retryMetrics.recordExhausted();
+        resultPublisher.publishSystemError(messageId, message != null ? message.toTrade() : null,
+            "Retries exhausted: " + exceptionMessage);
     }
 
     /**
      * Processes incoming trade messages without retry (for messages that shouldn't be retried).
+     * Unexpected errors are published as system errors, and so is a failure to publish the
+     * outcome, from the publish callback rather than by waiting on the listener thread.
+     * Records that cannot be deserialized go to the batch dead letter topic.
      */
     @KafkaListener(
         topics = "${trade-validation.kafka.input-topic-no-retry}",
         groupId = "${spring.kafka.consumer.group-id}",
         containerFactory = "kafkaListenerContainerFactory"
     )
-    public void processTradeMessageNoRetry(@Payload TradeMessage message) {
+    public void processTradeMessageNoRetry(ConsumerRecord<String, TradeMessage> record) {
+        TradeMessage message = record.value();
+        if (message == null) {
+            throw undeserializable(record);
+        }
         String messageId = message.getMessageId();
         logger.info("Received trade message (no retry): {}", messageId);
+        validateOrReportError(message).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                logger.error("Failed to publish the outcome of message {}: {}", messageId, cause.getMessage());
+                resultPublisher.publishSystemError(messageId, message.toTrade(),
+                    "Failed to publish validation outcome: " + cause.getMessage());
+            }
+        }, callbackExecutor);
+    }
+
+    /**
+     * Processes polled trade messages on the striped worker pool, for rule sets too
+     * CPU-heavy for the consumer threads. Messages of one instrument are validated and
+     * published in the order they were consumed; offsets are committed by the dispatcher
+     * once every earlier message of the partition has finished, and messages whose outcome
+     * could not be published are dispatched again, up to max-attempts, then dead-lettered.
+     * An alternative to the batch listener on the same topic; enable one of the two.
+     */
+    @KafkaListener(
+        id = ParallelValidationDispatcher.LISTENER_ID,
+        topics = "${trade-validation.kafka.input-topic-batch}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "parallelKafkaListenerContainerFactory",
+        autoStartup = "${trade-validation.kafka.parallel.enabled}"
+    )
+    public void processTradesInParallel(List<ConsumerRecord<String, TradeMessage>> polled, Consumer<?, ?> consumer) {
+        parallelDispatcher.dispatch(polled, consumer, record -> record.value() != null
+            ? validateOrReportError(record.value())
+            : reportUndeserializable(record));
+    }
 
+    /**
+     * Creates the exception that sends a record that could not be deserialized to the
+     * dead letter topic without retrying it.
+     */
+    private static DeserializationException undeserializable(ConsumerRecord<String, TradeMessage> record) {
+        logger.error("Could not deserialize trade message at {}-{}@{}",
+            record.topic(), record.partition(), record.offset());
+        return new DeserializationException(String.format("Could not deserialize trade message at %s-%d@%d",
+            record.topic(), record.partition(), record.offset()), null, false, null);
+    }
+
+    /**
+     * Publishes a record that could not be deserialized as a system error.
+     */
+    private CompletableFuture<Void> reportUndeserializable(ConsumerRecord<String, TradeMessage> record) {
+        logger.error("Could not deserialize trade message at {}-{}@{}",
+            record.topic(), record.partition(), record.offset());
+        return resultPublisher.publishSystemError("unknown", null, String.format(
+            "Could not deserialize trade message at %s-%d@%d", record.topic(), record.partition(), record.offset()));
+    }
+
+    /**
+     * Validates a trade message and publishes the outcome; errors are published as
+     * system errors rather than rethrown.
+     *
+     * @return completes once the outcome has been published, or exceptionally if it could not be
+     */
+    private CompletableFuture<Void> validateOrReportError(TradeMessage message) {
+        String messageId = message.getMessageId();
+        if (deduplicator.isDuplicate(messageId)) {
+            logger.warn("Skipping duplicate trade message: {}", messageId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Trade trade = message.toTrade();
+        CompletableFuture<Void> published;
         try {
-            Trade trade = message.toTrade();
-            boolean isValid = validationService.validateTrade(trade);
-            
-            if (isValid) {
-                logger.info("Trade validation successful for message: {}", messageId);
-                // TODO: Send validation success message to output topic
-            }
+            published = validateAndPublish(messageId, trade);
         } catch (Exception e) {
-            logger.error("Error processing message {} (no retry): {}", messageId, e.getMessage());
-            // TODO: Send error message to error topic
+            logger.error("Error processing message {}: {}", messageId, e.getMessage());
             // Don't rethrow - we don't want to retry these messages
+            published = resultPublisher.publishSystemError(messageId, trade, e);
+        }
+        return recordWhenPublished(messageId, published);
+    }
+
+    /**
+     * Records a message as processed for deduplication once its outcome has been
+     * published, so a message that fails is not skipped when it is redelivered.
+     */
+    private CompletableFuture<Void> recordWhenPublished(String messageId, CompletableFuture<Void> published) {
+        return published.thenRun(() -> deduplicator.recordProcessed(messageId));
+    }
+
+    /**
+     * Validates a trade and publishes it as validated, or as rejected on a rule failure.
+     * Unexpected errors are thrown to the caller.
+     *
+     * @return completes once the outcome has been published, or exceptionally if it could not be
+     */
+    private CompletableFuture<Void> validateAndPublish(String messageId, Trade trade) {
+        ValidationResult result = validationService.evaluate(trade);
+        if (!result.isValid()) {
+            logger.error("Validation failed for message {}: [{}] {}",
+                messageId, result.getRuleId(0), result.getMessages());
+            return resultPublisher.publishRejected(messageId, trade, result.copy());
+        }
+        logger.info("Trade validation successful for message: {}", messageId);
+        return resultPublisher.publishValidated(trade);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Processes a polled batch of trade messages in a single pass.
+     * Duplicate messages are dropped before validation, including repeats within the batch.
+     * Rule failures are published as rejections and unexpected errors as system errors,
+     * per record; neither fails the batch.
+     * Results are published asynchronously and awaited together before the method
+     * returns. If any could not be published, the batch fails at the first such record:
+     * offsets before it are committed and the rest are redelivered by the error handler.
+     * Records that could not be deserialized are skipped, and the batch fails at the
+     * first of them after the rest is published, so the error handler dead-letters it.
+     */
+    @KafkaListener(
+        topics = "${trade-validation.kafka.input-topic-batch}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "${trade-validation.kafka.batch.enabled}"
+    )
+    public void processTradeBatch(List<ConsumerRecord<String, TradeMessage>> polled) throws InterruptedException {
+        List<ConsumerRecord<String, TradeMessage>> records = new ArrayList<>(polled.size());
+        List<Trade> trades = new ArrayList<>(polled.size());
+        Set<String> batchIds = new HashSet<>();
+        int undeserializable = -1;
+        for (int i = 0; i < polled.size(); i++) {
+            ConsumerRecord<String, TradeMessage> record = polled.get(i);
+            if (record.value() == null) {
+                // Not deserializable; left to the error handler once the rest is published
+                if (undeserializable < 0) {
+                    undeserializable = i;
+                }
+                continue;
+            }
+            String messageId = record.value().getMessageId();
+            if ((messageId != null && !batchIds.add(messageId)) || deduplicator.isDuplicate(messageId)) {
+                logger.warn("Skipping duplicate trade message: {}", messageId);
+                continue;
+            }
+            records.add(record);
+            trades.add(record.value().toTrade());
+        }
+
+        BatchValidationResult result = validationService.validateTrades(trades);
+
+        List<CompletableFuture<Void>> published = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, TradeMessage> record = records.get(i);
+            String messageId = record.value().getMessageId();
+            CompletableFuture<Void> outcome;
+            if (result.isValid(i)) {
+                outcome = resultPublisher.publishValidated(trades.get(i));
+            } else if (result.getError(i) != null) {
+                outcome = resultPublisher.publishSystemError(messageId, trades.get(i), result.getError(i));
+            } else {
+                ValidationResult failure = result.getFailure(i);
+                logger.error("Validation failed for message {} ({}-{}@{}): [{}] {}",
+                    messageId, record.topic(), record.partition(),
+                    record.offset(), failure.getRuleId(0), failure.getMessages());
+                outcome = resultPublisher.publishRejected(messageId, trades.get(i), failure);
+            }
+            published.add(recordWhenPublished(messageId, outcome));
+        }
+        int unpublished = firstUnpublished(published);
+
+        logger.info("Processed batch of {} trade messages: {} valid, {} rejected, {} errors",
+            records.size(), result.getSuccessCount(), result.getFailureCount(), result.getErrorCount());
+
+        ConsumerRecord<String, TradeMessage> failed = unpublished >= 0 ? records.get(unpublished) : null;
+        if (undeserializable >= 0 && (failed == null || undeserializable < polled.indexOf(failed))) {
+            // Marked as a deserialization failure so the error handler dead-letters it without retrying
+            throw new BatchListenerFailedException("Undeserializable record in validation batch",
+                new DeserializationException("Could not deserialize trade message", null, false, null),
+                undeserializable);
+        }
+        if (failed != null) {
+            CompletableFuture<Void> future = published.get(unpublished);
+            Throwable cause = future.isDone() ? future.handle((ignored, error) -> error).join() : null;
+            throw new BatchListenerFailedException("Failed to publish the outcome of message "
+                + failed.value().getMessageId(), cause, failed);
+        }
+    }
+
+    /**
+     * Waits for the outcomes of a batch to be published.
+     *
+     * @return The index of the first outcome not published within the publish timeout, or -1 if all were
+     */
+    private int firstUnpublished(List<CompletableFuture<Void>> published) throws InterruptedException {
+        try {
+            CompletableFuture.allOf(published.toArray(new CompletableFuture<?>[0]))
+                .get(publishTimeoutMillis, TimeUnit.MILLISECONDS);
+            return -1;
+        } catch (ExecutionException | TimeoutException e) {
+            // Find the first record that failed below
+        }
+        for (int i = 0; i < published.size(); i++) {
+            CompletableFuture<Void> future = published.get(i);
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                return i;
+            }
         }
+        return -1;
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,20 @@
 package com.example.trade.validation.service;
 
+import com.example.trade.validation.model.BatchValidationResult;
 import com.example.trade.validation.model.Trade;
+import com.example.trade.validation.rule.CompiledRuleSet;
+import com.example.trade.validation.rule.RuleCompiler;
+import com.example.trade.validation.rule.ValidationResult;
 import com.example.trade.validation.rule.ValidationRule;
 import com.example.trade.validation.exception.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service responsible for validating trades using configured validation rules.
@@ -17,10 +22,22 @@ import java.util.stream.Collectors;
 @Service
 public class TradeValidationService {
     private static final Logger logger = LoggerFactory.getLogger(TradeValidationService.class);
+    private static final ThreadLocal<ValidationResult> RESULT_BUFFER =
+        ThreadLocal.withInitial(ValidationResult::new);
+
     private final List<ValidationRule> validationRules;
+    private final RuleCompiler ruleCompiler;
+    private volatile CompiledRuleSet compiledRules;
 
     public TradeValidationService(List<ValidationRule> validationRules) {
+        this(validationRules, new RuleCompiler(true));
+    }
+
+    @Autowired
+    public TradeValidationService(List<ValidationRule> validationRules, RuleCompiler ruleCompiler) {
         this.validationRules = new ArrayList<>(validationRules);
+        this.ruleCompiler = ruleCompiler;
+        this.compiledRules = ruleCompiler.compile(this.validationRules);
     }
 
     /**
@@ -28,49 +45,94 @@ public class TradeValidationService {
      * @param trade The trade to validate
      * @return true if the trade passes all validation rules
      * @throws ValidationException if any validation rule fails
+     * @throws RuntimeException any other error raised by a rule, which callers should retry
+     *         or report as a system error rather than as a rejection
      */
     public boolean validateTrade(Trade trade) {
         logger.debug("Validating trade: {}", trade.getTradeId());
-        
-        List<String> errors = validationRules.stream()
-            .filter(rule -> {
-                try {
-                    return !rule.validate(trade);
-                } catch (ValidationException e) {
-                    logger.error("Validation failed for trade {}: {}", trade.getTradeId(), e.getMessage());
-                    throw e;
-                } catch (Exception e) {
-                    logger.error("Unexpected error validating trade {}: {}", trade.getTradeId(), e.getMessage());
-                    throw new ValidationException("Unexpected validation error", "SYSTEM_ERROR", e);
-                }
-            })
-            .map(ValidationRule::getErrorMessage)
-            .collect(Collectors.toList());
-
-        if (!errors.isEmpty()) {
-            String errorMessage = String.join("; ", errors);
-            logger.error("Trade {} failed validation: {}", trade.getTradeId(), errorMessage);
-            throw new ValidationException(errorMessage, "VALIDATION_FAILED");
+
+        ValidationResult result = evaluate(trade);
+        if (!result.isValid()) {
+            ValidationException failure = result.toException();
+            logger.error("Trade {} failed validation: {}", trade.getTradeId(), failure.getMessage());
+            throw failure;
         }
 
         logger.info("Trade {} passed all validations", trade.getTradeId());
         return true;
     }
 
+    /**
+     * Validates a trade without throwing, using the compiled rule set.
+     * The returned result is a per-thread buffer: it stays valid only until the
+     * next call to this method on the same thread. Use {@link ValidationResult#copy()}
+     * to keep it longer.
+     * @param trade The trade to validate
+     * @return The validation result for the trade
+     * @throws RuntimeException any unexpected error raised by a rule; it is not recorded
+     *         as a rule failure, so it is not published as a rejection
+     */
+    public ValidationResult evaluate(Trade trade) {
+        ValidationResult result = RESULT_BUFFER.get().reset();
+        compiledRules.evaluate(trade, result);
+        return result;
+    }
+
+    /**
+     * Validates a batch of trades in one pass.
+     * A failing trade does not stop the batch; its failure, or the unexpected error
+     * raised while validating it, is recorded against its position in the returned result.
+     * @param trades The trades to validate
+     * @return Per-trade validation outcome
+     */
+    public BatchValidationResult validateTrades(List<Trade> trades) {
+        BatchValidationResult batchResult = new BatchValidationResult(trades.size());
+
+        for (int i = 0; i < trades.size(); i++) {
+            ValidationResult result;
+            try {
+                result = evaluate(trades.get(i));
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error validating trade {}: {}", trades.get(i).getTradeId(), e.getMessage());
+                batchResult.recordError(i, e);
+                continue;
+            }
+            if (!result.isValid()) {
+                batchResult.recordFailure(i, result.copy());
+            }
+        }
+
+        logger.debug("Validated batch of {} trades: {} passed, {} failed, {} errors", batchResult.size(),
+            batchResult.getSuccessCount(), batchResult.getFailureCount(), batchResult.getErrorCount());
+        return batchResult;
+    }
+
     /**
      * Adds a new validation rule to the service.
+     * The rule set is recompiled and swapped in atomically; in-flight
+     * evaluations finish against the previous rule set.
      * @param rule The validation rule to add
      */
-    public void addValidationRule(ValidationRule rule) {
+    public synchronized void addValidationRule(ValidationRule rule) {
         validationRules.add(rule);
+        compiledRules = ruleCompiler.compile(validationRules);
         logger.info("Added new validation rule: {}", rule.getClass().getSimpleName());
     }
 
+    /**
+     * Recompiles the rule set so the evaluation order reflects observed reject rates.
+     */
+    @Scheduled(fixedDelayString = "${trade-validation.rules.reorder-interval-ms}")
+    public synchronized void recompileRules() {
+        compiledRules = ruleCompiler.compile(validationRules);
+        logger.debug("Recompiled validation rules: {}", compiledRules.getRules());
+    }
+
     /**
      * Gets the current list of validation rules.
      * @return List of configured validation rules
      */
-    public List<ValidationRule> getValidationRules() {
+    public synchronized List<ValidationRule> getValidationRules() {
         return new ArrayList<>(validationRules);
     }
-}
\ No newline at end of file
+}
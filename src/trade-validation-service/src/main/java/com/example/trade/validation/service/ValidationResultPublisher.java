@@ -0,0 +1,204 @@
+package com.example.trade.validation.service;
+
+import com.example.trade.validation.exception.ValidationException;
+import com.example.trade.validation.model.Trade;
+import com.example.trade.validation.model.ValidationFailure;
+import com.example.trade.validation.rule.ValidationCode;
+import com.example.trade.validation.rule.ValidationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes validation outcomes: valid trades to the validated topic, rule failures
+ * to the rejected topic and unexpected errors to the system error topic.
+ * <p>
+ * Sends are asynchronous. The listener thread only serializes and hands the record
+ * to the producer; delivery is tracked in a callback that records per-topic send
+ * latency and failures. Each publish returns a future that completes once the broker
+ * has acknowledged the record, or exceptionally if it could not be sent, so callers
+ * can hold back the offset commit and have the record redelivered.
+ */
+@Component
+public class ValidationResultPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(ValidationResultPublisher.class);
+    static final String STATUS_VALIDATED = "VALIDATED";
+
+    private final KafkaTemplate<String, Trade> tradeKafkaTemplate;
+    private final KafkaTemplate<String, ValidationFailure> validationFailureKafkaTemplate;
+    private final String validatedTopic;
+    private final String rejectedTopic;
+    private final String systemErrorTopic;
+    private final TopicMetrics validatedMetrics;
+    private final TopicMetrics rejectedMetrics;
+    private final TopicMetrics systemErrorMetrics;
+
+    /**
+     * Send latency and failure count of one output topic.
+     */
+    private static final class TopicMetrics {
+        private final Timer sendTimer;
+        private final Counter failureCounter;
+
+        TopicMetrics(MeterRegistry registry, String topic) {
+            this.sendTimer = Timer.builder("validation.publish.time")
+                .description("Time from send to broker acknowledgement of validation results")
+                .tag("topic", topic)
+                .register(registry);
+            this.failureCounter = Counter.builder("validation.publish.failed")
+                .description("Number of validation results that failed to publish")
+                .tag("topic", topic)
+                .register(registry);
+        }
+    }
+
+    @Autowired
+    public ValidationResultPublisher(KafkaTemplate<String, Trade> tradeKafkaTemplate,
+            KafkaTemplate<String, ValidationFailure> validationFailureKafkaTemplate,
+            MeterRegistry registry,
+            @Value("${trade-validation.kafka.validated-topic}") String validatedTopic,
+            @Value("${trade-validation.kafka.rejected-topic}") String rejectedTopic,
+            @Value("${trade-validation.kafka.system-error-topic}") String systemErrorTopic) {
+        this.tradeKafkaTemplate = tradeKafkaTemplate;
+        this.validationFailureKafkaTemplate = validationFailureKafkaTemplate;
+        this.validatedTopic = validatedTopic;
+        this.rejectedTopic = rejectedTopic;
+        this.systemErrorTopic = systemErrorTopic;
+        this.validatedMetrics = new TopicMetrics(registry, validatedTopic);
+        this.rejectedMetrics = new TopicMetrics(registry, rejectedTopic);
+        this.systemErrorMetrics = new TopicMetrics(registry, systemErrorTopic);
+    }
+
+    /**
+     * Publishes a trade that passed validation.
+     * @param trade The validated trade
+     * @return Completes when the broker has acknowledged the record
+     */
+    public CompletableFuture<Void> publishValidated(Trade trade) {
+        trade.setStatus(STATUS_VALIDATED);
+        return send(validatedTopic, validatedMetrics, trade.getTradeId(),
+            () -> tradeKafkaTemplate.send(validatedTopic, trade.getTradeId(), trade).completable());
+    }
+
+    /**
+     * Publishes a trade rejected by validation rules.
+     * @param messageId Id of the message the trade arrived in
+     * @param trade The rejected trade
+     * @param result The failures recorded for the trade
+     * @return Completes when the broker has acknowledged the record
+     */
+    public CompletableFuture<Void> publishRejected(String messageId, Trade trade, ValidationResult result) {
+        List<String> ruleIds = new ArrayList<>(result.getFailureCount());
+        List<String> codes = new ArrayList<>(result.getFailureCount());
+        for (int i = 0; i < result.getFailureCount(); i++) {
+            ruleIds.add(result.getRuleId(i));
+            codes.add(result.getCode(i).name());
+        }
+        return publishFailure(rejectedTopic, rejectedMetrics,
+            failure(messageId, ValidationFailure.TYPE_REJECTED, trade, ruleIds, codes, result.getMessages()));
+    }
+
+    /**
+     * Publishes a trade rejected by validation rules, from the exception raised for it.
+     * Exceptions raised from a validation result are published with its failures; others
+     * as a single {@link ValidationCode#RULE_FAILED} failure of their rule.
+     * @param messageId Id of the message the trade arrived in
+     * @param trade The rejected trade
+     * @param exception The validation failure
+     * @return Completes when the broker has acknowledged the record
+     */
+    public CompletableFuture<Void> publishRejected(String messageId, Trade trade, ValidationException exception) {
+        if (exception.getResult() != null) {
+            return publishRejected(messageId, trade, exception.getResult());
+        }
+        return publishFailure(rejectedTopic, rejectedMetrics, failure(messageId, ValidationFailure.TYPE_REJECTED, trade,
+            Collections.singletonList(exception.getRuleId()),
+            Collections.singletonList(ValidationCode.RULE_FAILED.name()), exception.getMessage()));
+    }
+
+    /**
+     * Publishes a trade that could not be validated because of an unexpected error.
+     * @param messageId Id of the message the trade arrived in
+     * @param trade The trade, or null if it could not be read
+     * @param error The error
+     * @return Completes when the broker has acknowledged the record
+     */
+    public CompletableFuture<Void> publishSystemError(String messageId, Trade trade, Throwable error) {
+        return publishSystemError(messageId, trade,
+            error != null ? error.getClass().getSimpleName() + ": " + error.getMessage() : null);
+    }
+
+    /**
+     * Publishes a trade that could not be validated because of an unexpected error.
+     * @param messageId Id of the message the trade arrived in
+     * @param trade The trade, or null if it could not be read
+     * @param message Description of the error
+     * @return Completes when the broker has acknowledged the record
+     */
+    public CompletableFuture<Void> publishSystemError(String messageId, Trade trade, String message) {
+        return publishFailure(systemErrorTopic, systemErrorMetrics, failure(messageId, ValidationFailure.TYPE_SYSTEM_ERROR,
+            trade, Collections.emptyList(), Collections.emptyList(), message));
+    }
+
+    private CompletableFuture<Void> publishFailure(String topic, TopicMetrics metrics, ValidationFailure failure) {
+        String key = failure.getTrade() != null ? failure.getTrade().getTradeId() : failure.getMessageId();
+        return send(topic, metrics, key, () -> validationFailureKafkaTemplate.send(topic, key, failure).completable());
+    }
+
+    private CompletableFuture<Void> send(String topic, TopicMetrics metrics, String key, SendAction action) {
+        long start = System.nanoTime();
+        CompletableFuture<Void> published = new CompletableFuture<>();
+        CompletableFuture<?> future;
+        try {
+            future = action.send();
+        } catch (Exception e) {
+            // Serialization errors, or no metadata or buffer space within max.block.ms
+            metrics.failureCounter.increment();
+            logger.error("Failed to publish {} to {}: {}", key, topic, e.getMessage());
+            published.completeExceptionally(e);
+            return published;
+        }
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                metrics.failureCounter.increment();
+                logger.error("Failed to publish {} to {}: {}", key, topic, error.getMessage());
+                published.completeExceptionally(error);
+            } else {
+                metrics.sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                published.complete(null);
+            }
+        });
+        return published;
+    }
+
+    private static ValidationFailure failure(String messageId, String type, Trade trade,
+            List<String> ruleIds, List<String> codes, String message) {
+        ValidationFailure failure = new ValidationFailure();
+        failure.setMessageId(messageId);
+        failure.setFailureType(type);
+        failure.setTrade(trade);
+        failure.setRuleIds(ruleIds);
+        failure.setCodes(codes);
+        failure.setMessage(message);
+        failure.setFailedAt(LocalDateTime.now());
+        return failure;
+    }
+
+    @FunctionalInterface
+    private interface SendAction {
+        CompletableFuture<?> send();
+    }
+}
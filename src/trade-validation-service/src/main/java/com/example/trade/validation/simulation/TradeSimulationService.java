@@ -1,14 +1,23 @@
 package com.example.trade.validation.simulation;
 
 import com.example.trade.validation.metrics.SimulationMetrics;
-import com.example.trade.validation.model.Trade;
+import com.example.trade.validation.model.TradeMessage;
+import com.example.trade.validation.simulation.market.MarketCondition;
 import com.example.trade.validation.simulation.market.MarketSimulator;
+import com.example.trade.validation.simulation.market.RandomStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Random;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -16,37 +25,49 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * Simulates trade generation with realistic market conditions.
  * Uses market simulation to generate realistic price movements and
  * trading patterns based on current market state.
+ * For sustained high rates, see {@link com.example.trade.validation.simulation.load.LoadGenerator}.
  */
 @Service
 public class TradeSimulationService {
-    private final KafkaTemplate<String, Trade> kafkaTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(TradeSimulationService.class);
+
+    private final KafkaTemplate<String, TradeMessage> kafkaTemplate;
     private final SimulationMetrics metrics;
     private final MarketSimulator marketSimulator;
-    private final Random random;
+    private final String topic;
+    // Guarded by this
+    private final SplittableRandom random;
     private final AtomicBoolean isRunning;
+    // Market simulator index of each symbol
+    private final int[] symbolIndexes;
 
     private static final String[] SYMBOLS = {"AAPL", "GOOGL", "MSFT", "AMZN", "META"};
     private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY"};
+    private static final String[] COUNTERPARTIES = {"GS", "JPM", "MS", "BARC", "DB", "UBS"};
     private static final double BASE_TRADE_AMOUNT = 10000.0;
-    private static final String KAFKA_TOPIC = "trades";
+    private static final int PRICE_SCALE = 4;
 
     @Autowired
     public TradeSimulationService(
-            KafkaTemplate<String, Trade> kafkaTemplate,
+            @Qualifier("simulationKafkaTemplate") KafkaTemplate<String, TradeMessage> kafkaTemplate,
             SimulationMetrics metrics,
-            MarketSimulator marketSimulator) {
+            MarketSimulator marketSimulator,
+            RandomStreams randomStreams,
+            @Value("${trade-validation.simulation.topic}") String topic) {
         this.kafkaTemplate = kafkaTemplate;
         this.metrics = metrics;
         this.marketSimulator = marketSimulator;
-        this.random = new Random();
+        this.topic = topic;
+        this.random = randomStreams.stream("trade-simulation");
         this.isRunning = new AtomicBoolean(false);
 
         // Initialize market conditions for each symbol
-        for (String symbol : SYMBOLS) {
+        this.symbolIndexes = new int[SYMBOLS.length];
+        for (int i = 0; i < SYMBOLS.length; i++) {
             // Set initial price and volatility for each symbol
             double basePrice = 100.0 + random.nextDouble() * 900.0; // $100-$1000
-            marketSimulator.getNextPrice(symbol, basePrice);
-            marketSimulator.setSymbolVolatility(symbol, 0.2 + random.nextDouble() * 0.3); // 20-50% volatility
+            symbolIndexes[i] = marketSimulator.registerSymbol(SYMBOLS[i], basePrice);
+            marketSimulator.setSymbolVolatility(SYMBOLS[i], 0.2 + random.nextDouble() * 0.3); // 20-50% volatility
         }
     }
 
@@ -55,7 +76,7 @@ public class TradeSimulationService {
      */
     public void startSimulation() {
         isRunning.set(true);
-        metrics.recordSimulationStart();
+        logger.info("Trade simulation started");
     }
 
     /**
@@ -63,64 +84,88 @@ public class TradeSimulationService {
      */
     public void stopSimulation() {
         isRunning.set(false);
-        metrics.recordSimulationStop();
+        logger.info("Trade simulation stopped");
+    }
+
+    public boolean isEnabled() {
+        return isRunning.get();
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            startSimulation();
+        } else {
+            stopSimulation();
+        }
     }
 
     /**
      * Generates and sends trades at regular intervals.
      */
     @Scheduled(fixedRate = 1000) // Generate trade every second
-    public void generateTrade() {
+    public synchronized void generateTrade() {
         if (!isRunning.get()) {
             return;
         }
+        sendTrade(createTrade(random));
+    }
 
-        try {
-            Trade trade = generateRandomTrade();
-            kafkaTemplate.send(KAFKA_TOPIC, trade.getSymbol(), trade);
-            metrics.recordTradeGenerated();
-        } catch (Exception e) {
-            metrics.recordError();
+    /**
+     * Generates and sends a number of trades at once.
+     * @param count Number of trades to generate
+     */
+    public synchronized void generateTradeBurst(int count) {
+        for (int i = 0; i < count; i++) {
+            sendTrade(createTrade(random));
         }
     }
 
     /**
-     * Generates a random trade with realistic market-driven prices.
+     * Creates a trade message with a market-driven price.
+     * Safe to call from several threads, each with its own random stream.
+     * @param random Random stream of the calling thread
+     * @return The trade message, keyed for sending by its instrument
      */
-    private Trade generateRandomTrade() {
-        String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+    public TradeMessage createTrade(SplittableRandom random) {
+        int symbolIndex = random.nextInt(SYMBOLS.length);
+        String symbol = SYMBOLS[symbolIndex];
         String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
-        
+
         // Get market-driven price
-        double marketPrice = marketSimulator.getNextPrice(symbol, 100.0);
-        
+        double marketPrice = marketSimulator.getNextPrice(symbolIndexes[symbolIndex], 100.0);
+
         // Generate trade amount based on market conditions
         double baseAmount = BASE_TRADE_AMOUNT * (0.5 + random.nextDouble());
         double volumeAdjustment = marketSimulator.getCurrentMarketCondition().getTradingVolume();
         double tradeAmount = baseAmount * volumeAdjustment;
 
-        return Trade.builder()
-                .id(UUID.randomUUID().toString())
-                .symbol(symbol)
-                .price(marketPrice)
-                .amount(tradeAmount)
-                .currency(currency)
-                .timestamp(System.currentTimeMillis())
-                .build();
+        TradeMessage message = new TradeMessage();
+        // Built from the caller's stream, so ids replay with the run seed and do not contend on SecureRandom
+        message.setMessageId(new UUID(random.nextLong(), random.nextLong()).toString());
+        message.setTradeId("SIM-" + Long.toHexString(random.nextLong()));
+        message.setInstrument(symbol);
+        message.setPrice(BigDecimal.valueOf(marketPrice).setScale(PRICE_SCALE, RoundingMode.HALF_UP));
+        message.setQuantity(BigDecimal.valueOf(Math.max(1L, Math.round(tradeAmount / marketPrice))));
+        message.setCurrency(currency);
+        message.setCounterparty(COUNTERPARTIES[random.nextInt(COUNTERPARTIES.length)]);
+        message.setTradeDate(LocalDateTime.now());
+
+        metrics.recordTradeGenerated();
+        return message;
     }
 
     /**
      * Simulates a market event (e.g., earnings announcement, economic news)
      */
-    public void simulateMarketEvent(String description) {
+    public synchronized void simulateMarketEvent(String description) {
         double eventVolatility = 0.6 + random.nextDouble() * 0.4; // 60-100% volatility
         marketSimulator.simulateMarketEvent(
             eventVolatility,
-            random.nextBoolean() 
-                ? MarketCondition.MarketState.VOLATILE 
+            random.nextBoolean()
+                ? MarketCondition.MarketState.VOLATILE
                 : MarketCondition.MarketState.MARKET_EVENT
         );
-        metrics.recordMarketEvent(description);
+        logger.info("Simulated market event: {}", description);
     }
 
     /**
@@ -136,4 +181,30 @@ public class TradeSimulationService {
     public double getCurrentPrice(String symbol) {
         return marketSimulator.getCurrentPrice(symbol, 100.0);
     }
-}
\ No newline at end of file
+
+    public int getInstrumentCount() {
+        return SYMBOLS.length;
+    }
+
+    public int getCounterpartyCount() {
+        return COUNTERPARTIES.length;
+    }
+
+    private void sendTrade(TradeMessage message) {
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(topic, message.getInstrument(), message).completable().whenComplete((result, error) -> {
+                if (error != null) {
+                    metrics.recordTradeSendFailed();
+                    logger.error("Failed to send simulated trade {}: {}", message.getTradeId(), error.getMessage());
+                } else {
+                    metrics.recordTradeSent();
+                    metrics.recordSendTime((System.nanoTime() - start) / 1_000_000);
+                }
+            });
+        } catch (Exception e) {
+            metrics.recordTradeSendFailed();
+            logger.error("Failed to send simulated trade {}: {}", message.getTradeId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.trade.validation.simulation.load;
+
+import com.example.trade.validation.config.LoadGeneratorConfig;
+import com.example.trade.validation.metrics.SimulationMetrics;
+import com.example.trade.validation.model.TradeMessage;
+import com.example.trade.validation.simulation.TradeSimulationService;
+import com.example.trade.validation.simulation.market.RandomStreams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates simulated trades at a controlled rate for load testing the pipeline.
+ * <p>
+ * Dedicated threads each pace their share of the rate profile with a token bucket
+ * and hand trades to an asynchronous, batching producer. Every trade carries its
+ * intended send time as the record timestamp, and send latency is measured from
+ * that time to the broker acknowledgement, so a generator that falls behind shows
+ * the delay instead of silently sending less (coordinated omission). Tokens a thread
+ * could not catch up on are counted as missed. The achieved rate is compared with
+ * the target on every report interval.
+ */
+@Component
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final TradeSimulationService simulationService;
+    private final KafkaTemplate<String, TradeMessage> kafkaTemplate;
+    private final SimulationMetrics metrics;
+    private final RandomStreams randomStreams;
+    private final LoadGeneratorConfig config;
+    private final String topic;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+    private final Counter missedCounter;
+    private final Timer latencyTimer;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicInteger activeThreads = new AtomicInteger();
+    private int runCount;
+    private volatile boolean running;
+    private volatile RateProfile profile;
+    private volatile long startNanos;
+    private volatile long startEpochMillis;
+
+    // Rate over the last report interval
+    private volatile double achievedTps;
+    private volatile double targetTps;
+    private long lastReportNanos;
+    private long lastReportSent;
+
+    @Autowired
+    public LoadGenerator(TradeSimulationService simulationService,
+            @Qualifier("simulationKafkaTemplate") KafkaTemplate<String, TradeMessage> kafkaTemplate,
+            SimulationMetrics metrics,
+            RandomStreams randomStreams,
+            LoadGeneratorConfig config,
+            MeterRegistry registry,
+            @Value("${trade-validation.simulation.topic}") String topic) {
+        this.simulationService = simulationService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.metrics = metrics;
+        this.randomStreams = randomStreams;
+        this.config = config;
+        this.topic = topic;
+
+        this.missedCounter = Counter.builder("simulation.load.missed")
+            .description("Trades the load generator fell too far behind to send")
+            .register(registry);
+        this.latencyTimer = Timer.builder("simulation.load.latency")
+            .description("Time from the intended send time of a generated trade to its broker acknowledgement")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .register(registry);
+        Gauge.builder("simulation.load.target.rate", this, LoadGenerator::getTargetTps)
+            .description("Target rate of the load generator, in trades per second")
+            .register(registry);
+        Gauge.builder("simulation.load.achieved.rate", this, LoadGenerator::getAchievedTps)
+            .description("Acknowledged trades per second over the last report interval")
+            .register(registry);
+    }
+
+    /**
+     * Starts a load run.
+     * @param shape The rate profile shape, or null for the configured one
+     * @param tps The target rate in trades per second, or zero or less for the configured one
+     * @param durationMillis How long to run; zero to run until stopped, negative for the configured duration
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public synchronized void start(RateProfile.Shape shape, double tps, long durationMillis) {
+        if (running) {
+            throw new IllegalStateException("A load run is already in progress");
+        }
+        RateProfile runProfile = new RateProfile(shape != null ? shape : config.getProfile(),
+            tps > 0 ? tps : config.getTargetTps(), config);
+        int threadCount = Math.max(1, config.getThreads());
+        long burstNanos = config.getBurstMs() * NANOS_PER_MILLI;
+        long runMillis = durationMillis >= 0 ? durationMillis : config.getDurationMs();
+
+        threads.clear();
+        sent.reset();
+        failed.reset();
+        missed.reset();
+        profile = runProfile;
+        startEpochMillis = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+        lastReportNanos = startNanos;
+        lastReportSent = 0;
+        achievedTps = 0;
+        long endNanos = runMillis > 0 ? startNanos + runMillis * NANOS_PER_MILLI : Long.MAX_VALUE;
+        running = true;
+
+        activeThreads.set(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            TokenBucket bucket = new TokenBucket(runProfile, 1.0 / threadCount, startNanos, burstNanos);
+            // Numbered by run as well, so a second run does not repeat the message ids of the first
+            SplittableRandom random = randomStreams.stream("load-run-" + runCount, i);
+            Thread thread = new Thread(() -> generate(bucket, random, endNanos), "load-generator-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+        logger.info("Load run {} started: {} profile at {} trades/s on {} threads{}, seed {}", runCount,
+            runProfile.getShape(), runProfile.getTargetTps(), threadCount,
+            runMillis > 0 ? " for " + runMillis + " ms" : "", randomStreams.getRunSeed());
+        runCount++;
+    }
+
+    /**
+     * Stops the current load run and waits for the generator threads to finish.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        kafkaTemplate.flush();
+    }
+
+    /**
+     * Logs the achieved rate against the target and refreshes the rate gauges.
+     */
+    @Scheduled(fixedDelayString = "${trade-validation.simulation.load.report-interval-ms}")
+    public synchronized void report() {
+        RateProfile current = profile;
+        if (current == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long total = sent.sum();
+        double seconds = (now - lastReportNanos) / 1e9;
+        if (seconds > 0) {
+            achievedTps = (total - lastReportSent) / seconds;
+        }
+        lastReportNanos = now;
+        lastReportSent = total;
+        targetTps = running ? current.rateAt(now - startNanos) : 0.0;
+
+        if (running || achievedTps > 0) {
+            logger.info("Load run: target {} trades/s, achieved {} trades/s; {} sent, {} failed, {} missed, "
+                    + "p99 latency {} ms", Math.round(targetTps), Math.round(achievedTps), total, failed.sum(),
+                missed.sum(), String.format("%.2f", getLatencyP99()));
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public RateProfile getProfile() {
+        return profile;
+    }
+
+    public double getTargetTps() {
+        return targetTps;
+    }
+
+    public double getAchievedTps() {
+        return achievedTps;
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getMissed() {
+        return missed.sum();
+    }
+
+    /**
+     * Gets the time since the start of the current or last run, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return profile != null ? (System.nanoTime() - startNanos) / NANOS_PER_MILLI : 0;
+    }
+
+    public double getLatencyMean() {
+        return latencyTimer.mean(TimeUnit.MILLISECONDS);
+    }
+
+    public double getLatencyP99() {
+        for (ValueAtPercentile value : latencyTimer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == 0.99) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    public double getLatencyMax() {
+        return latencyTimer.max(TimeUnit.MILLISECONDS);
+    }
+
+    private void generate(TokenBucket bucket, SplittableRandom random, long endNanos) {
+        try {
+            while (running && System.nanoTime() < endNanos) {
+                if (bucket.acquire()) {
+                    send(simulationService.createTrade(random), bucket.intendedNanos());
+                }
+                long dropped = bucket.drainMissed();
+                if (dropped > 0) {
+                    missed.add(dropped);
+                    missedCounter.increment(dropped);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Load generator thread failed: {}", e.getMessage(), e);
+        } finally {
+            if (activeThreads.decrementAndGet() == 0) {
+                running = false;
+                logger.info("Load run finished: {} sent, {} failed, {} missed", sent.sum(), failed.sum(), missed.sum());
+            }
+        }
+    }
+
+    private void send(TradeMessage message, long intendedNanos) {
+        // The record timestamp is the intended send time, so downstream latency is measured from it too
+        long timestamp = startEpochMillis + (intendedNanos - startNanos) / NANOS_PER_MILLI;
+        ProducerRecord<String, TradeMessage> record =
+            new ProducerRecord<>(topic, null, timestamp, message.getInstrument(), message);
+        try {
+            kafkaTemplate.send(record).completable().whenComplete((result, error) -> {
+                if (error != null) {
+                    failed.increment();
+                    metrics.recordTradeSendFailed();
+                } else {
+                    sent.increment();
+                    metrics.recordTradeSent();
+                    latencyTimer.record(System.nanoTime() - intendedNanos, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (Exception e) {
+            // No buffer space or metadata within max.block.ms; the trade counts against the achieved rate
+            failed.increment();
+            metrics.recordTradeSendFailed();
+            logger.debug("Failed to send load trade: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.trade.validation.simulation.load;
+
+import com.example.trade.validation.config.LoadGeneratorConfig;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Target trade rate over the course of a load run.
+ * <p>
+ * The profile shape gives a multiplier of the target rate at each point in time,
+ * and an optional linear ramp-up scales it from zero at the start of the run.
+ * Immutable; shared by all generator threads.
+ */
+public final class RateProfile {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * How the rate varies over a run.
+     */
+    public enum Shape {
+        CONSTANT,       // The target rate throughout
+        STEP,           // Rising steps of the target rate, e.g. to find the saturation point
+        SINUSOIDAL,     // An intraday curve, busiest at the open and close
+        REPLAY          // Recorded multipliers, e.g. open and close spikes, repeated
+    }
+
+    private final Shape shape;
+    private final double targetTps;
+    private final long rampUpNanos;
+    private final double[] stepMultipliers;
+    private final long stepNanos;
+    private final long sessionNanos;
+    private final double sessionDepth;
+    private final long[] replayOffsets;
+    private final double[] replayMultipliers;
+
+    /**
+     * Creates a profile from the load generator configuration.
+     * @param shape The profile shape
+     * @param targetTps The target rate, in trades per second
+     * @param config The configuration holding the parameters of each shape
+     */
+    public RateProfile(Shape shape, double targetTps, LoadGeneratorConfig config) {
+        this.shape = shape;
+        this.targetTps = targetTps;
+        this.rampUpNanos = config.getRampUpMs() * NANOS_PER_MILLI;
+        this.stepMultipliers = config.getStepMultipliers().stream().mapToDouble(Double::doubleValue).toArray();
+        this.stepNanos = Math.max(1, config.getStepDurationMs()) * NANOS_PER_MILLI;
+        this.sessionNanos = Math.max(1, config.getSessionPeriodMs()) * NANOS_PER_MILLI;
+        this.sessionDepth = Math.min(1.0, Math.max(0.0, config.getSessionDepth()));
+
+        List<LoadGeneratorConfig.ReplayPoint> points = config.getReplay().stream()
+            .sorted(Comparator.comparingLong(LoadGeneratorConfig.ReplayPoint::getOffsetMs))
+            .collect(Collectors.toList());
+        this.replayOffsets = points.stream().mapToLong(point -> point.getOffsetMs() * NANOS_PER_MILLI).toArray();
+        this.replayMultipliers = points.stream().mapToDouble(LoadGeneratorConfig.ReplayPoint::getMultiplier).toArray();
+    }
+
+    /**
+     * Gets the target rate at a point in the run.
+     * @param elapsedNanos Time since the start of the run
+     * @return The rate in trades per second, zero or more
+     */
+    public double rateAt(long elapsedNanos) {
+        double rate = targetTps * multiplierAt(Math.max(0, elapsedNanos));
+        if (elapsedNanos < rampUpNanos) {
+            rate *= (double) elapsedNanos / rampUpNanos;
+        }
+        return Math.max(0.0, rate);
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    public double getTargetTps() {
+        return targetTps;
+    }
+
+    private double multiplierAt(long elapsedNanos) {
+        switch (shape) {
+            case STEP:
+                if (stepMultipliers.length == 0) {
+                    return 1.0;
+                }
+                return stepMultipliers[(int) Math.min(elapsedNanos / stepNanos, stepMultipliers.length - 1)];
+            case SINUSOIDAL:
+                // Half a sine wave per session: full rate at the open and close, the trough at mid-session
+                double phase = (double) (elapsedNanos % sessionNanos) / sessionNanos;
+                return 1.0 - sessionDepth * Math.sin(Math.PI * phase);
+            case REPLAY:
+                return replayMultiplierAt(elapsedNanos);
+            default:
+                return 1.0;
+        }
+    }
+
+    private double replayMultiplierAt(long elapsedNanos) {
+        int count = replayOffsets.length;
+        if (count == 0) {
+            return 1.0;
+        }
+        long period = replayOffsets[count - 1];
+        if (count == 1 || period <= 0) {
+            return replayMultipliers[0];
+        }
+        long offset = elapsedNanos % period;
+        int next = 1;
+        while (next < count - 1 && replayOffsets[next] <= offset) {
+            next++;
+        }
+        long from = replayOffsets[next - 1];
+        long to = replayOffsets[next];
+        if (offset <= from || to <= from) {
+            return replayMultipliers[next - 1];
+        }
+        double fraction = (double) (offset - from) / (to - from);
+        return replayMultipliers[next - 1] + fraction * (replayMultipliers[next] - replayMultipliers[next - 1]);
+    }
+}
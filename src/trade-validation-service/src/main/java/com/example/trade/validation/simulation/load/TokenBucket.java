@@ -0,0 +1,98 @@
+package com.example.trade.validation.simulation.load;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces one generator thread to its share of a rate profile.
+ * <p>
+ * Each token has an intended send time, spaced by the rate in effect at that time.
+ * A thread that falls behind, because of a GC pause or a blocked send, may catch up
+ * on the tokens of the last burst interval by sending them back to back; older
+ * tokens are dropped and counted as missed. The intended time, not the time the
+ * token was taken, is what latency is measured from, so stalls in the generator
+ * show up in the latency instead of being hidden by a send that was simply late.
+ * <p>
+ * Not thread-safe; each generator thread has its own bucket.
+ */
+class TokenBucket {
+    private static final double NANOS_PER_SECOND = 1e9;
+    // While the rate is zero, check again after this long
+    private static final long IDLE_STEP_NANOS = 1_000_000L;
+    // Sleep when the next token is further away than this, spin when it is closer
+    private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+
+    private final RateProfile profile;
+    private final double share;
+    private final long startNanos;
+    private final long burstNanos;
+    private long nextNanos;
+    private long intendedNanos;
+    private long missed;
+
+    /**
+     * @param profile The rate profile of the run
+     * @param share The fraction of the profile rate this bucket paces
+     * @param startNanos Start of the run, as System.nanoTime
+     * @param burstNanos Backlog the bucket holds before dropping tokens
+     */
+    TokenBucket(RateProfile profile, double share, long startNanos, long burstNanos) {
+        this.profile = profile;
+        this.share = share;
+        this.startNanos = startNanos;
+        this.burstNanos = burstNanos;
+        this.nextNanos = startNanos;
+    }
+
+    /**
+     * Waits for the next token.
+     * @return true when a token was taken; false if the rate is zero and no token is due yet
+     */
+    boolean acquire() {
+        double rate = profile.rateAt(nextNanos - startNanos) * share;
+        if (rate <= 0) {
+            nextNanos += IDLE_STEP_NANOS;
+            waitUntil(nextNanos);
+            return false;
+        }
+
+        long intended = nextNanos;
+        long now = System.nanoTime();
+        if (now - intended > burstNanos) {
+            // The bucket is full; drop the tokens that no longer fit
+            long overflow = now - burstNanos - intended;
+            missed += (long) (overflow * rate / NANOS_PER_SECOND);
+            intended = now - burstNanos;
+        }
+        nextNanos = intended + (long) (NANOS_PER_SECOND / rate);
+        waitUntil(intended);
+        intendedNanos = intended;
+        return true;
+    }
+
+    /**
+     * Gets the intended send time of the last token taken, as System.nanoTime.
+     */
+    long intendedNanos() {
+        return intendedNanos;
+    }
+
+    /**
+     * Gets the number of tokens dropped so far, and resets the count.
+     */
+    long drainMissed() {
+        long count = missed;
+        missed = 0;
+        return count;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.example.trade.validation.simulation.market;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates correlated standard normal shocks for a universe of symbols, one vector per tick.
+ * <p>
+ * Each shock mixes a common market factor with a block-correlated residual:
+ * {@code shock = sqrt(m) * F + sqrt(1 - m) * (L z)}, where L is the Cholesky factor of
+ * the residual correlation of the symbol's block. Symbols in different blocks are
+ * correlated only through the market factor. The factors are computed once, at
+ * construction; a tick draws one normal per symbol plus the market factor and
+ * multiplies by the block factors in a single pass.
+ * <p>
+ * The factor of a block with one correlation between all its symbols, such as a
+ * sector, has a single value below the diagonal in each column, so its product is a
+ * running sum costing one multiply-add per symbol. Other blocks are multiplied in full,
+ * n^2/2 multiply-adds for n symbols, as axpy loops over a factor packed by column and
+ * split over the fork-join pool when large. Sector structure is what keeps thousands
+ * of symbols within a sub-millisecond tick.
+ * <p>
+ * Positions in the shock vector follow the block layout; {@link #inputIndex(int)} maps
+ * them back to the order of the matrix or symbols the engine was built from.
+ * Not thread-safe: ticks must not overlap.
+ */
+public final class CorrelatedShockEngine {
+    // Below this many multiply-adds per tick, fork-join overhead outweighs the gain
+    private static final long PARALLEL_THRESHOLD = 1_000_000;
+    private static final long CHUNK_WORK = 250_000;
+    private static final double SYMMETRY_TOLERANCE = 1e-9;
+    // Relative difference below which factor entries of a column count as the same value
+    private static final double COLUMN_TOLERANCE = 1e-12;
+
+    private final int size;
+    private final int[] order;
+    private final double marketWeight;
+    private final double residualWeight;
+
+    // Blocks whose factor has one value below the diagonal per column
+    private final int[] columnBlockOffsets;
+    private final double[][] diagonals;
+    private final double[][] belowDiagonals;
+
+    // Blocks multiplied in full; lower Cholesky factor packed by column
+    private final int[] denseBlockOffsets;
+    private final int[] denseBlockSizes;
+    private final double[][] denseFactors;
+
+    // Row ranges of dense blocks with roughly equal work, for parallel ticks
+    private final int[] chunkBlocks;
+    private final int[] chunkFrom;
+    private final int[] chunkTo;
+    private final long denseWork;
+
+    private final double[] normals;
+    private final double[] residuals;
+
+    /**
+     * The Cholesky factor of one block's residual correlation.
+     */
+    private static final class Block {
+        final int size;
+        // Set when each column has one value below the diagonal
+        final double[] diagonal;
+        final double[] belowDiagonal;
+        // Set otherwise
+        final double[] packed;
+
+        private Block(int size, double[] diagonal, double[] belowDiagonal, double[] packed) {
+            this.size = size;
+            this.diagonal = diagonal;
+            this.belowDiagonal = belowDiagonal;
+            this.packed = packed;
+        }
+
+        /**
+         * Factors a block with the same correlation between all its symbols, without a matrix.
+         * Below the diagonal, column j holds (r - s) / d, where s is the sum of squares of
+         * the earlier columns' values and d = sqrt(1 - s) is the diagonal.
+         */
+        static Block uniform(int size, double correlation) {
+            double[] diagonal = new double[size];
+            double[] belowDiagonal = new double[size];
+            double squares = 0.0;
+            for (int j = 0; j < size; j++) {
+                diagonal[j] = Math.sqrt(1.0 - squares);
+                belowDiagonal[j] = (correlation - squares) / diagonal[j];
+                squares += belowDiagonal[j] * belowDiagonal[j];
+            }
+            return new Block(size, diagonal, belowDiagonal, null);
+        }
+
+        /**
+         * Factors a block by Cholesky decomposition, keeping only one value per column
+         * when the columns allow it.
+         */
+        static Block of(double[][] correlation) {
+            int n = correlation.length;
+            double[] packed = cholesky(correlation);
+            double[] diagonal = new double[n];
+            double[] belowDiagonal = new double[n];
+            int index = 0;
+            for (int j = 0; j < n; j++) {
+                diagonal[j] = packed[index++];
+                double below = j + 1 < n ? packed[index] : 0.0;
+                for (int i = j + 1; i < n; i++) {
+                    if (Math.abs(packed[index++] - below) > COLUMN_TOLERANCE * Math.max(1.0, Math.abs(below))) {
+                        return new Block(n, null, null, packed);
+                    }
+                }
+                belowDiagonal[j] = below;
+            }
+            return new Block(n, diagonal, belowDiagonal, null);
+        }
+    }
+
+    private CorrelatedShockEngine(double marketCorrelation, int[] order, List<Block> blocks) {
+        if (marketCorrelation < 0.0 || marketCorrelation >= 1.0) {
+            throw new IllegalArgumentException("Market correlation must be in [0, 1): " + marketCorrelation);
+        }
+        this.size = order.length;
+        this.order = order;
+        this.marketWeight = Math.sqrt(marketCorrelation);
+        this.residualWeight = Math.sqrt(1.0 - marketCorrelation);
+
+        List<Integer> columnOffsets = new ArrayList<>();
+        List<double[]> diagonalList = new ArrayList<>();
+        List<double[]> belowList = new ArrayList<>();
+        List<Integer> denseOffsets = new ArrayList<>();
+        List<Integer> denseSizes = new ArrayList<>();
+        List<double[]> denseList = new ArrayList<>();
+        List<int[]> chunks = new ArrayList<>();
+        long work = 0;
+        int offset = 0;
+        for (Block block : blocks) {
+            int n = block.size;
+            if (block.packed == null) {
+                columnOffsets.add(offset);
+                diagonalList.add(block.diagonal);
+                belowList.add(block.belowDiagonal);
+            } else {
+                int dense = denseList.size();
+                denseOffsets.add(offset);
+                denseSizes.add(n);
+                denseList.add(block.packed);
+                // Row i of a block costs i + 1 multiply-adds
+                work += (long) n * (n + 1) / 2;
+                int from = 0;
+                long chunkWork = 0;
+                for (int row = 0; row < n; row++) {
+                    chunkWork += row + 1;
+                    if (chunkWork >= CHUNK_WORK || row == n - 1) {
+                        chunks.add(new int[] {dense, from, row + 1});
+                        from = row + 1;
+                        chunkWork = 0;
+                    }
+                }
+            }
+            offset += n;
+        }
+        if (offset != size) {
+            throw new IllegalArgumentException("Blocks cover " + offset + " symbols, expected " + size);
+        }
+
+        this.columnBlockOffsets = columnOffsets.stream().mapToInt(Integer::intValue).toArray();
+        this.diagonals = diagonalList.toArray(new double[0][]);
+        this.belowDiagonals = belowList.toArray(new double[0][]);
+        this.denseBlockOffsets = denseOffsets.stream().mapToInt(Integer::intValue).toArray();
+        this.denseFactors = denseList.toArray(new double[0][]);
+        this.denseBlockSizes = denseSizes.stream().mapToInt(Integer::intValue).toArray();
+        this.denseWork = work;
+        this.chunkBlocks = chunks.stream().mapToInt(chunk -> chunk[0]).toArray();
+        this.chunkFrom = chunks.stream().mapToInt(chunk -> chunk[1]).toArray();
+        this.chunkTo = chunks.stream().mapToInt(chunk -> chunk[2]).toArray();
+
+        this.normals = new double[size + 1];
+        this.residuals = new double[size];
+    }
+
+    /**
+     * Creates an engine for a full correlation matrix. Symbols are split into blocks
+     * of transitively correlated symbols, so a matrix with sector structure costs only
+     * as much as its sectors.
+     * @param correlation Symmetric positive definite correlation matrix with a unit diagonal
+     * @return The engine; positions map to matrix rows through {@link #inputIndex(int)}
+     * @throws IllegalArgumentException if the matrix is not a valid correlation matrix
+     */
+    public static CorrelatedShockEngine ofMatrix(double[][] correlation) {
+        int n = correlation.length;
+        for (int i = 0; i < n; i++) {
+            if (correlation[i].length != n) {
+                throw new IllegalArgumentException("Correlation matrix is not square");
+            }
+            if (Math.abs(correlation[i][i] - 1.0) > SYMMETRY_TOLERANCE) {
+                throw new IllegalArgumentException("Correlation of symbol " + i + " with itself is not 1");
+            }
+            for (int j = 0; j < i; j++) {
+                if (Math.abs(correlation[i][j] - correlation[j][i]) > SYMMETRY_TOLERANCE
+                        || Math.abs(correlation[i][j]) > 1.0) {
+                    throw new IllegalArgumentException("Invalid correlation between symbols " + i + " and " + j);
+                }
+            }
+        }
+
+        // Connected components of the non-zero correlations
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        List<int[]> members = new ArrayList<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int start = 0; start < n; start++) {
+            if (component[start] >= 0) {
+                continue;
+            }
+            List<Integer> found = new ArrayList<>();
+            component[start] = members.size();
+            pending.push(start);
+            while (!pending.isEmpty()) {
+                int i = pending.pop();
+                found.add(i);
+                for (int j = 0; j < n; j++) {
+                    if (component[j] < 0 && correlation[i][j] != 0.0) {
+                        component[j] = members.size();
+                        pending.push(j);
+                    }
+                }
+            }
+            members.add(found.stream().mapToInt(Integer::intValue).sorted().toArray());
+        }
+
+        int[] order = new int[n];
+        List<Block> blocks = new ArrayList<>(members.size());
+        int position = 0;
+        for (int[] block : members) {
+            double[][] blockCorrelation = new double[block.length][block.length];
+            for (int i = 0; i < block.length; i++) {
+                order[position++] = block[i];
+                for (int j = 0; j < block.length; j++) {
+                    blockCorrelation[i][j] = correlation[block[i]][block[j]];
+                }
+            }
+            blocks.add(Block.of(blockCorrelation));
+        }
+        return new CorrelatedShockEngine(0.0, order, blocks);
+    }
+
+    /**
+     * Creates an engine for a market-and-sector structure: any two symbols are correlated
+     * by the market correlation, and two symbols of the same sector by the sector's.
+     * @param sectorOf Sector of each symbol, or -1 for symbols correlated only through the market
+     * @param sectorCorrelations Correlation within each sector, at least the market correlation
+     * @param marketCorrelation Correlation between any two symbols, in [0, 1)
+     * @return The engine; positions map to symbol indexes through {@link #inputIndex(int)}
+     * @throws IllegalArgumentException if a sector correlation is out of range
+     */
+    public static CorrelatedShockEngine ofSectors(int[] sectorOf, double[] sectorCorrelations,
+                                                  double marketCorrelation) {
+        int n = sectorOf.length;
+        int[] order = new int[n];
+        List<Block> blocks = new ArrayList<>();
+        int position = 0;
+        for (int sector = 0; sector < sectorCorrelations.length; sector++) {
+            double sectorCorrelation = sectorCorrelations[sector];
+            if (sectorCorrelation < marketCorrelation || sectorCorrelation >= 1.0) {
+                throw new IllegalArgumentException("Sector correlation must be in [market correlation, 1): "
+                    + sectorCorrelation);
+            }
+            int start = position;
+            for (int i = 0; i < n; i++) {
+                if (sectorOf[i] == sector) {
+                    order[position++] = i;
+                }
+            }
+            // Correlation left for the sector once the market factor has been taken out
+            double residual = (sectorCorrelation - marketCorrelation) / (1.0 - marketCorrelation);
+            if (position > start) {
+                blocks.add(Block.uniform(position - start, residual));
+            }
+        }
+        // Symbols outside the sectors have no residual correlation
+        int start = position;
+        for (int i = 0; i < n; i++) {
+            if (sectorOf[i] < 0 || sectorOf[i] >= sectorCorrelations.length) {
+                order[position++] = i;
+            }
+        }
+        if (position > start) {
+            blocks.add(Block.uniform(position - start, 0.0));
+        }
+        return new CorrelatedShockEngine(marketCorrelation, order, blocks);
+    }
+
+    /**
+     * Gets the number of symbols.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Maps a position in the shock vector to the row of the matrix or the symbol index
+     * the engine was built from.
+     */
+    public int inputIndex(int position) {
+        return order[position];
+    }
+
+    /**
+     * Draws the correlated shocks of one tick.
+     * @param random Generator to draw the independent normals from
+     * @param shocks Output, one standard normal shock per position
+     */
+    public void generate(SplittableRandom random, double[] shocks) {
+        fillNormals(random, normals);
+
+        double[] z = normals;
+        double[] out = residuals;
+        for (int block = 0; block < columnBlockOffsets.length; block++) {
+            int offset = columnBlockOffsets[block];
+            double[] diagonal = diagonals[block];
+            double[] belowDiagonal = belowDiagonals[block];
+            // Row i is the sum of the earlier columns' values, each times its normal, plus its own term
+            double earlier = 0.0;
+            for (int i = 0; i < diagonal.length; i++) {
+                double zi = z[offset + i];
+                out[offset + i] = earlier + diagonal[i] * zi;
+                earlier += belowDiagonal[i] * zi;
+            }
+        }
+
+        if (denseWork >= PARALLEL_THRESHOLD && chunkBlocks.length > 1) {
+            ForkJoinPool.commonPool().invoke(new ChunkTask(0, chunkBlocks.length));
+        } else {
+            for (int chunk = 0; chunk < chunkBlocks.length; chunk++) {
+                multiplyChunk(chunk);
+            }
+        }
+
+        double market = marketWeight * normals[size];
+        double residualScale = residualWeight;
+        for (int i = 0; i < size; i++) {
+            shocks[i] = market + residualScale * out[i];
+        }
+    }
+
+    /**
+     * Computes rows [from, to) of a dense block's residuals from the independent normals.
+     */
+    private void multiplyChunk(int chunk) {
+        int block = chunkBlocks[chunk];
+        int offset = denseBlockOffsets[block];
+        int from = chunkFrom[chunk];
+        int to = chunkTo[chunk];
+        double[] factor = denseFactors[block];
+        int n = denseBlockSizes[block];
+        double[] z = normals;
+        double[] out = residuals;
+        Arrays.fill(out, offset + from, offset + to, 0.0);
+        // Column j of the factor covers rows j..n-1 and starts at j*n - j*(j-1)/2
+        for (int j = 0; j < to; j++) {
+            double zj = z[offset + j];
+            int rowStart = Math.max(j, from);
+            // Index of row i in column j is base + i
+            int base = j * n - j * (j - 1) / 2 - j;
+            for (int i = rowStart; i < to; i++) {
+                out[offset + i] += factor[base + i] * zj;
+            }
+        }
+    }
+
+    /**
+     * Multiplies a range of chunks, splitting it over the pool.
+     */
+    private final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        ChunkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(from, middle), new ChunkTask(middle, to));
+            } else {
+                multiplyChunk(from);
+            }
+        }
+    }
+
+    /**
+     * Fills an array with independent standard normals, using both values of each polar-method pair.
+     */
+    private static void fillNormals(SplittableRandom random, double[] values) {
+        int i = 0;
+        while (i < values.length) {
+            double u;
+            double v;
+            double s;
+            do {
+                u = 2.0 * random.nextDouble() - 1.0;
+                v = 2.0 * random.nextDouble() - 1.0;
+                s = u * u + v * v;
+            } while (s >= 1.0 || s == 0.0);
+            double scale = Math.sqrt(-2.0 * Math.log(s) / s);
+            values[i++] = u * scale;
+            if (i < values.length) {
+                values[i++] = v * scale;
+            }
+        }
+    }
+
+    /**
+     * Computes the lower Cholesky factor of a correlation matrix, packed by column.
+     * @throws IllegalArgumentException if the matrix is not positive definite
+     */
+    private static double[] cholesky(double[][] correlation) {
+        int n = correlation.length;
+        // Row-major working copy of the lower triangle
+        double[][] lower = new double[n][];
+        for (int i = 0; i < n; i++) {
+            lower[i] = new double[i + 1];
+            double[] row = lower[i];
+            for (int j = 0; j <= i; j++) {
+                double sum = correlation[i][j];
+                double[] other = lower[j];
+                for (int k = 0; k < j; k++) {
+                    sum -= row[k] * other[k];
+                }
+                if (i == j) {
+                    if (sum <= 0.0) {
+                        throw new IllegalArgumentException("Correlation matrix is not positive definite");
+                    }
+                    row[i] = Math.sqrt(sum);
+                } else {
+                    row[j] = sum / other[j];
+                }
+            }
+        }
+
+        double[] packed = new double[n * (n + 1) / 2];
+        int index = 0;
+        for (int j = 0; j < n; j++) {
+            for (int i = j; i < n; i++) {
+                packed[index++] = lower[i][j];
+            }
+        }
+        return packed;
+    }
+}
@@ -1,58 +1,149 @@
 package com.example.trade.validation.simulation.market;
 
+import com.example.trade.validation.config.MarketCorrelationConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.util.HashMap;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Simulates market conditions and price movements for financial instruments.
  * Maintains current market state and generates realistic price movements
  * based on configurable market conditions.
+ * Each symbol moves with its own random stream, so prices of a symbol depend only
+ * on the run seed and the number of ticks it has had, not on which thread ticked it.
+ * <p>
+ * Per-symbol state is held in {@link SymbolState} objects, registered once and then
+ * looked up by index. Ticks of one symbol are serialized by its sequence lock, ticks
+ * of different symbols run in parallel, and neither ticks nor price reads allocate.
+ * <p>
+ * Symbols given a correlation move together instead: a scheduled market tick draws
+ * correlated shocks for all of them with a {@link CorrelatedShockEngine} and moves each
+ * one, and a request for their next price returns the price of the last market tick.
  */
 @Service
 public class MarketSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(MarketSimulator.class);
+    private static final VarHandle LAST_STATE_CHECK;
+    private static final int INITIAL_CAPACITY = 64;
+
+    static {
+        try {
+            LAST_STATE_CHECK = MethodHandles.lookup()
+                .findVarHandle(MarketSimulator.class, "lastStateCheck", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final PriceMovementGenerator priceGenerator;
-    private final Random random;
-    private final Map<String, Double> currentPrices;
+    private final RandomStreams randomStreams;
+    // Draws for market state changes and events; guarded by itself
+    private final SplittableRandom stateRandom;
     private final AtomicReference<MarketCondition> currentMarketCondition;
-    private final Map<String, Double> volatilityOverrides;
+    private final Map<String, Integer> symbolIndexes;
+    // Indexed by symbol index; replaced with a larger copy when full, under the registration lock
+    private volatile SymbolState[] symbols;
+    private int symbolCount;
+    // Null when no symbols are correlated; replaced whole on reconfiguration
+    private volatile CorrelatedUniverse correlatedUniverse;
+    private final Timer correlatedTickTimer;
 
     // Constants for market simulation
     private static final double STATE_CHANGE_PROBABILITY = 0.05; // 5% chance per check
     private static final double MIN_PRICE = 0.01;
     private static final long STATE_CHECK_INTERVAL = 60000; // 1 minute
-    private long lastStateCheck;
+    private volatile long lastStateCheck;
+
+    /**
+     * Symbols moved together, with the engine drawing their shocks.
+     * Ticks of a universe are serialized by locking it.
+     */
+    private static final class CorrelatedUniverse {
+        final CorrelatedShockEngine engine;
+        // Indexed by engine position
+        final SymbolState[] members;
+        final double[] shocks;
+        final SplittableRandom random;
+
+        CorrelatedUniverse(CorrelatedShockEngine engine, SymbolState[] members, SplittableRandom random) {
+            this.engine = engine;
+            this.members = members;
+            this.shocks = new double[members.length];
+            this.random = random;
+        }
+    }
 
-    public MarketSimulator(PriceMovementGenerator priceGenerator) {
+    @Autowired
+    public MarketSimulator(PriceMovementGenerator priceGenerator, RandomStreams randomStreams,
+                           MarketCorrelationConfig correlationConfig, MeterRegistry registry) {
         this.priceGenerator = priceGenerator;
-        this.random = new Random();
-        this.currentPrices = new ConcurrentHashMap<>();
-        this.volatilityOverrides = new HashMap<>();
+        this.randomStreams = randomStreams;
+        this.stateRandom = randomStreams.stream("market-state");
+        this.symbolIndexes = new ConcurrentHashMap<>();
+        this.symbols = new SymbolState[INITIAL_CAPACITY];
         this.currentMarketCondition = new AtomicReference<>(new MarketCondition());
         this.lastStateCheck = System.currentTimeMillis();
+        this.correlatedTickTimer = Timer.builder("market.correlation.tick.time")
+            .description("Time taken to move all correlated symbols one tick")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+
+        if (correlationConfig.isEnabled()) {
+            applySectorCorrelation(correlationConfig);
+        }
     }
 
     /**
      * Updates market condition based on time and random events.
      * Should be called periodically to maintain realistic market behavior.
+     * When several threads find the interval elapsed, only the one that wins the
+     * update of the check time draws a state change.
      */
     public void updateMarketState() {
         long currentTime = System.currentTimeMillis();
-        if (currentTime - lastStateCheck < STATE_CHECK_INTERVAL) {
+        long lastCheck = lastStateCheck;
+        if (currentTime - lastCheck < STATE_CHECK_INTERVAL
+                || !LAST_STATE_CHECK.compareAndSet(this, lastCheck, currentTime)) {
             return;
         }
 
-        lastStateCheck = currentTime;
-        if (random.nextDouble() < STATE_CHANGE_PROBABILITY) {
-            MarketCondition.MarketState[] states = MarketCondition.MarketState.values();
-            MarketCondition.MarketState newState = states[random.nextInt(states.length)];
-            currentMarketCondition.set(MarketCondition.forState(newState));
+        synchronized (stateRandom) {
+            if (stateRandom.nextDouble() < STATE_CHANGE_PROBABILITY) {
+                MarketCondition.MarketState[] states = MarketCondition.MarketState.values();
+                MarketCondition.MarketState newState = states[stateRandom.nextInt(states.length)];
+                currentMarketCondition.set(MarketCondition.forState(newState));
+            }
         }
     }
 
+    /**
+     * Registers a symbol, or finds it if already registered.
+     *
+     * @param symbol The trading instrument symbol
+     * @param initialPrice Price of the symbol if it has none yet
+     * @return The index of the symbol, for the index-based methods
+     */
+    public int registerSymbol(String symbol, double initialPrice) {
+        int index = indexOf(symbol);
+        symbols[index].initializePrice(initialPrice);
+        return index;
+    }
+
     /**
      * Gets the next price for a given instrument based on current market conditions.
      *
@@ -61,26 +152,85 @@ public class MarketSimulator {
      * @return The next simulated price
      */
     public double getNextPrice(String symbol, double basePrice) {
+        return getNextPrice(indexOf(symbol), basePrice);
+    }
+
+    /**
+     * Gets the next price for a registered instrument, without a symbol lookup.
+     *
+     * @param index The index returned by {@link #registerSymbol}
+     * @param basePrice The base price to start from if no current price exists
+     * @return The next simulated price
+     */
+    public double getNextPrice(int index, double basePrice) {
+        SymbolState state = symbols[index];
+        if (state.isCorrelated()) {
+            // Moved by the market tick; the first request prices it
+            double price = state.price();
+            if (!Double.isNaN(price)) {
+                return price;
+            }
+            state.initializePrice(basePrice);
+            return state.price();
+        }
         updateMarketState();
-        
-        double currentPrice = currentPrices.getOrDefault(symbol, basePrice);
-        MarketCondition condition = getCurrentMarketCondition();
+        return state.tick(priceGenerator, getCurrentMarketCondition(), basePrice, MIN_PRICE);
+    }
 
-        // Apply symbol-specific volatility if exists
-        if (volatilityOverrides.containsKey(symbol)) {
-            condition = new MarketCondition(
-                condition.getState(),
-                volatilityOverrides.get(symbol),
-                condition.getTrendStrength(),
-                condition.getTradingVolume()
-            );
+    /**
+     * Correlates symbols by a full correlation matrix, replacing any previous correlation.
+     * The Cholesky factor is computed here, once; symbols only correlated with each other
+     * form separate blocks, so sector-structured matrices stay cheap to tick.
+     *
+     * @param correlatedSymbols Symbols in matrix order; registered if new
+     * @param correlation Symmetric positive definite correlation matrix with a unit diagonal
+     * @throws IllegalArgumentException if the matrix is not a valid correlation matrix
+     */
+    public void setCorrelation(String[] correlatedSymbols, double[][] correlation) {
+        if (correlation.length != correlatedSymbols.length) {
+            throw new IllegalArgumentException("Expected a " + correlatedSymbols.length + "x"
+                + correlatedSymbols.length + " correlation matrix");
         }
+        installCorrelation(correlatedSymbols, CorrelatedShockEngine.ofMatrix(correlation));
+    }
 
-        double movement = priceGenerator.generatePriceMovement(condition);
-        double newPrice = Math.max(MIN_PRICE, currentPrice * movement);
-        
-        currentPrices.put(symbol, newPrice);
-        return newPrice;
+    /**
+     * Stops moving symbols together; each moves on its own ticks again.
+     */
+    public void clearCorrelation() {
+        installCorrelation(new String[0], null);
+    }
+
+    /**
+     * Gets the number of symbols moved by correlated ticks.
+     */
+    public int getCorrelatedSymbolCount() {
+        CorrelatedUniverse universe = correlatedUniverse;
+        return universe != null ? universe.members.length : 0;
+    }
+
+    /**
+     * Moves all correlated symbols one tick, with shocks drawn together in one pass.
+     * Symbols not yet priced are left until their first price request.
+     */
+    @Scheduled(fixedRateString = "${market.correlation.tick-interval-ms}")
+    public void tickCorrelated() {
+        CorrelatedUniverse universe = correlatedUniverse;
+        if (universe == null) {
+            return;
+        }
+        updateMarketState();
+        MarketCondition condition = getCurrentMarketCondition();
+        long start = System.nanoTime();
+        synchronized (universe) {
+            universe.engine.generate(universe.random, universe.shocks);
+            SymbolState[] members = universe.members;
+            double[] shocks = universe.shocks;
+            for (int position = 0; position < members.length; position++) {
+                members[position].tickWithShock(priceGenerator, condition, shocks[position], MIN_PRICE);
+            }
+        }
+        correlatedTickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -88,14 +238,18 @@ public class MarketSimulator {
      * Useful for simulating different volatility levels for different instruments.
      */
     public void setSymbolVolatility(String symbol, double volatility) {
-        volatilityOverrides.put(symbol, Math.min(1.0, Math.max(0.0, volatility)));
+        int index = indexOf(symbol);
+        symbols[index].setVolatility(Math.min(1.0, Math.max(0.0, volatility)));
     }
 
     /**
      * Removes a symbol-specific volatility override.
      */
     public void removeSymbolVolatility(String symbol) {
-        volatilityOverrides.remove(symbol);
+        Integer index = symbolIndexes.get(symbol);
+        if (index != null) {
+            symbols[index].setVolatility(Double.NaN);
+        }
     }
 
     /**
@@ -116,7 +270,17 @@ public class MarketSimulator {
      * Gets the current price for a symbol.
      */
     public double getCurrentPrice(String symbol, double defaultPrice) {
-        return currentPrices.getOrDefault(symbol, defaultPrice);
+        Integer index = symbolIndexes.get(symbol);
+        double price = index != null ? symbols[index].price() : Double.NaN;
+        return Double.isNaN(price) ? defaultPrice : price;
+    }
+
+    /**
+     * Gets the number of price updates a symbol has had, counting its initial price.
+     */
+    public long getTickCount(String symbol) {
+        Integer index = symbolIndexes.get(symbol);
+        return index != null ? symbols[index].ticks() : 0;
     }
 
     /**
@@ -125,12 +289,85 @@ public class MarketSimulator {
      */
     public void simulateMarketEvent(double eventVolatility, 
                                   MarketCondition.MarketState eventState) {
+        double trend;
+        synchronized (stateRandom) {
+            trend = stateRandom.nextDouble() * 2 - 1; // Random trend between -1 and 1
+        }
         MarketCondition eventCondition = new MarketCondition(
             eventState,
             Math.min(1.0, eventVolatility),
-            random.nextDouble() * 2 - 1, // Random trend between -1 and 1
+            trend,
             1.5 // Increased trading volume
         );
         currentMarketCondition.set(eventCondition);
     }
+
+    private void applySectorCorrelation(MarketCorrelationConfig config) {
+        Set<String> seen = new HashSet<>();
+        List<String> sectorSymbols = new ArrayList<>();
+        List<Integer> sectorOf = new ArrayList<>();
+        double[] sectorCorrelations = new double[config.getSectors().size()];
+        int sector = 0;
+        for (MarketCorrelationConfig.Sector definition : config.getSectors().values()) {
+            sectorCorrelations[sector] = definition.getCorrelation();
+            for (String symbol : definition.getSymbols()) {
+                if (seen.add(symbol)) {
+                    sectorSymbols.add(symbol);
+                    sectorOf.add(sector);
+                }
+            }
+            sector++;
+        }
+        CorrelatedShockEngine engine = CorrelatedShockEngine.ofSectors(
+            sectorOf.stream().mapToInt(Integer::intValue).toArray(), sectorCorrelations,
+            config.getMarketCorrelation());
+        installCorrelation(sectorSymbols.toArray(new String[0]), engine);
+    }
+
+    private synchronized void installCorrelation(String[] correlatedSymbols, CorrelatedShockEngine engine) {
+        CorrelatedUniverse previous = correlatedUniverse;
+        if (previous != null) {
+            for (SymbolState member : previous.members) {
+                member.setCorrelated(false);
+            }
+        }
+        if (engine == null) {
+            correlatedUniverse = null;
+            return;
+        }
+
+        SymbolState[] members = new SymbolState[engine.size()];
+        for (int position = 0; position < members.length; position++) {
+            // Registering may replace the array, so look the symbol up before reading it
+            int index = indexOf(correlatedSymbols[engine.inputIndex(position)]);
+            members[position] = symbols[index];
+            members[position].setCorrelated(true);
+        }
+        correlatedUniverse = new CorrelatedUniverse(engine, members, randomStreams.stream("correlated-shocks"));
+        logger.info("Correlating {} symbols", members.length);
+    }
+
+    private int indexOf(String symbol) {
+        Integer index = symbolIndexes.get(symbol);
+        return index != null ? index : register(symbol);
+    }
+
+    private synchronized int register(String symbol) {
+        Integer existing = symbolIndexes.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        SymbolState[] current = symbols;
+        if (symbolCount == current.length) {
+            SymbolState[] grown = new SymbolState[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        int index = symbolCount++;
+        current[index] = new SymbolState(symbol, randomStreams.stream("symbol:" + symbol), Double.NaN);
+        // Publish the array before the index, so a reader holding the index finds the state
+        symbols = current;
+        symbolIndexes.put(symbol, index);
+        return index;
+    }
 }
\ No newline at end of file
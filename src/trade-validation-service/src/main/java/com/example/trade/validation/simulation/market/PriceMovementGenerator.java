@@ -1,20 +1,31 @@
 package com.example.trade.validation.simulation.market;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Generates realistic price movements based on market conditions.
  * Uses a combination of random walks, trends, and volatility to
  * simulate market price behavior.
+ * Random draws come from the generator passed in by the caller, normally the
+ * stream of the symbol being moved, so no generator is shared between threads.
  */
 @Component
 public class PriceMovementGenerator {
-    private final Random random;
+    private final RandomStreams randomStreams;
+    private final AtomicLong seriesCount = new AtomicLong();
+    private final AtomicLong pathBatchCount = new AtomicLong();
     private static final double BASE_MOVEMENT = 0.001; // 0.1% base movement
+    // Symbols per fork-join leaf are chosen so each leaf does at least this many steps
+    private static final long MIN_STEPS_PER_TASK = 65_536;
 
-    public PriceMovementGenerator() {
-        this.random = new Random();
+    @Autowired
+    public PriceMovementGenerator(RandomStreams randomStreams) {
+        this.randomStreams = randomStreams;
     }
 
     /**
@@ -22,17 +33,46 @@ public class PriceMovementGenerator {
      * The factor should be multiplied with the current price to get the new price.
      *
      * @param condition Current market condition
+     * @param random Generator to draw from; not shared with other threads during the call
      * @return Price movement factor (e.g., 1.01 for 1% increase)
      */
-    public double generatePriceMovement(MarketCondition condition) {
+    public double generatePriceMovement(MarketCondition condition, SplittableRandom random) {
+        return generatePriceMovement(condition, condition.getVolatility(), random);
+    }
+
+    /**
+     * Generates a price movement factor with a volatility other than the market's,
+     * e.g. a symbol-specific override, without creating a condition for it.
+     *
+     * @param condition Current market condition
+     * @param volatility Volatility to use instead of the condition's, 0.0 - 1.0
+     * @param random Generator to draw from; not shared with other threads during the call
+     * @return Price movement factor (e.g., 1.01 for 1% increase)
+     */
+    public double generatePriceMovement(MarketCondition condition, double volatility, SplittableRandom random) {
+        return generatePriceMovement(condition, volatility, RandomStreams.nextGaussian(random), random);
+    }
+
+    /**
+     * Generates a price movement factor whose random walk is driven by a given shock,
+     * e.g. one correlated with other symbols by {@link CorrelatedShockEngine}.
+     *
+     * @param condition Current market condition
+     * @param volatility Volatility to use instead of the condition's, 0.0 - 1.0
+     * @param shock Standard normal shock of the random walk
+     * @param random Generator for the trend and spike draws; not shared with other threads during the call
+     * @return Price movement factor (e.g., 1.01 for 1% increase)
+     */
+    public double generatePriceMovement(MarketCondition condition, double volatility, double shock,
+                                        SplittableRandom random) {
         // Base random movement (random walk)
-        double baseChange = generateRandomWalk(condition.getVolatility());
-        
+        double baseChange = BASE_MOVEMENT * volatility * shock;
+
         // Add trend component
-        double trendComponent = generateTrendComponent(condition.getTrendStrength());
+        double trendComponent = generateTrendComponent(condition.getTrendStrength(), random);
         
         // Add volatility spikes based on market state
-        double volatilityComponent = generateVolatilitySpike(condition);
+        double volatilityComponent = generateVolatilitySpike(condition, random);
         
         // Combine all components
         double totalMovement = baseChange + trendComponent + volatilityComponent;
@@ -41,20 +81,11 @@ public class PriceMovementGenerator {
         return 1.0 + totalMovement;
     }
 
-    /**
-     * Generates a random walk component for price movement.
-     * Uses normal distribution for more realistic movements.
-     */
-    private double generateRandomWalk(double volatility) {
-        double randomFactor = random.nextGaussian();
-        return BASE_MOVEMENT * volatility * randomFactor;
-    }
-
     /**
      * Generates trend-based movement component.
      * @param trendStrength -1.0 to 1.0 (strong down to strong up)
      */
-    private double generateTrendComponent(double trendStrength) {
+    private double generateTrendComponent(double trendStrength, SplittableRandom random) {
         double randomVariation = (random.nextDouble() - 0.5) * 0.5;
         return BASE_MOVEMENT * trendStrength * (1.0 + randomVariation);
     }
@@ -62,28 +93,9 @@ public class PriceMovementGenerator {
     /**
      * Generates additional volatility based on market state.
      */
-    private double generateVolatilitySpike(MarketCondition condition) {
-        double spikeChance = 0.0;
-        double maxSpike = 0.0;
-
-        switch (condition.getState()) {
-            case VOLATILE:
-                spikeChance = 0.3;
-                maxSpike = 0.03; // 3% max spike
-                break;
-            case MARKET_EVENT:
-                spikeChance = 0.4;
-                maxSpike = 0.05; // 5% max spike
-                break;
-            case LOW_LIQUIDITY:
-                spikeChance = 0.2;
-                maxSpike = 0.02; // 2% max spike
-                break;
-            default:
-                spikeChance = 0.1;
-                maxSpike = 0.01; // 1% max spike
-                break;
-        }
+    private double generateVolatilitySpike(MarketCondition condition, SplittableRandom random) {
+        double spikeChance = spikeChance(condition.getState());
+        double maxSpike = maxSpike(condition.getState());
 
         // Generate spike based on chance
         if (random.nextDouble() < spikeChance) {
@@ -94,6 +106,38 @@ public class PriceMovementGenerator {
         return 0.0;
     }
 
+    /**
+     * Gets the chance of a volatility spike per step in a market state.
+     */
+    private static double spikeChance(MarketCondition.MarketState state) {
+        switch (state) {
+            case VOLATILE:
+                return 0.3;
+            case MARKET_EVENT:
+                return 0.4;
+            case LOW_LIQUIDITY:
+                return 0.2;
+            default:
+                return 0.1;
+        }
+    }
+
+    /**
+     * Gets the largest volatility spike in a market state.
+     */
+    private static double maxSpike(MarketCondition.MarketState state) {
+        switch (state) {
+            case VOLATILE:
+                return 0.03; // 3% max spike
+            case MARKET_EVENT:
+                return 0.05; // 5% max spike
+            case LOW_LIQUIDITY:
+                return 0.02; // 2% max spike
+            default:
+                return 0.01; // 1% max spike
+        }
+    }
+
     /**
      * Adjusts price movement based on trading volume.
      * Higher volume typically means more stable prices.
@@ -113,6 +157,7 @@ public class PriceMovementGenerator {
 
     /**
      * Simulates a series of price movements over time.
+     * Each call draws from its own stream, numbered in call order within the run.
      *
      * @param startPrice Initial price
      * @param steps Number of time steps to simulate
@@ -121,15 +166,177 @@ public class PriceMovementGenerator {
      */
     public double[] simulatePriceSeries(double startPrice, int steps, 
                                       MarketCondition condition) {
+        return simulatePriceSeries(startPrice, steps, condition,
+            randomStreams.stream("price-series", seriesCount.getAndIncrement()));
+    }
+
+    /**
+     * Simulates a series of price movements over time.
+     *
+     * @param startPrice Initial price
+     * @param steps Number of time steps to simulate
+     * @param condition Market condition to use
+     * @param random Generator to draw from
+     * @return Array of simulated prices
+     */
+    public double[] simulatePriceSeries(double startPrice, int steps,
+                                      MarketCondition condition, SplittableRandom random) {
         double[] prices = new double[steps];
         prices[0] = startPrice;
 
         for (int i = 1; i < steps; i++) {
-            double movement = generatePriceMovement(condition);
+            double movement = generatePriceMovement(condition, random);
             movement = adjustForVolume(movement, condition.getTradingVolume());
             prices[i] = prices[i - 1] * movement;
         }
 
         return prices;
     }
-}
\ No newline at end of file
+
+    /**
+     * Simulates price paths for many symbols at once, in parallel across symbols.
+     * Each batch draws from its own streams, one per symbol, numbered in call order within the run.
+     *
+     * @param startPrices Initial price of each symbol
+     * @param condition Market condition to use
+     * @param paths Preallocated output, one row per symbol; the row length is the number of steps
+     */
+    public void simulatePricePaths(double[] startPrices, MarketCondition condition, double[][] paths) {
+        simulatePricePaths(startPrices, condition, paths, "price-paths-" + pathBatchCount.getAndIncrement());
+    }
+
+    /**
+     * Simulates price paths for many symbols at once, in parallel across symbols.
+     * <p>
+     * The path of symbol i is the series {@link #simulatePriceSeries(double, int, MarketCondition, SplittableRandom)}
+     * produces from stream (streamName, i), so results do not depend on how the work is split.
+     * Per path, random draws are made first in the scalar order; the movement factors are
+     * then computed in a loop without branches or calls, which C2 compiles to SIMD
+     * instructions, and compounded into prices. The market state and volume adjustment
+     * are resolved once per batch rather than per step.
+     *
+     * @param startPrices Initial price of each symbol
+     * @param condition Market condition to use
+     * @param paths Preallocated output, one row per symbol; the row length is the number of steps
+     * @param streamName Name of the random streams, to replay a batch
+     */
+    public void simulatePricePaths(double[] startPrices, MarketCondition condition, double[][] paths,
+                                   String streamName) {
+        if (startPrices.length != paths.length) {
+            throw new IllegalArgumentException("Expected " + startPrices.length + " paths, got " + paths.length);
+        }
+        if (paths.length == 0) {
+            return;
+        }
+        int steps = paths[0].length;
+        int symbolsPerTask = (int) Math.max(1, MIN_STEPS_PER_TASK / Math.max(1, steps));
+        ForkJoinPool.commonPool().invoke(new PathTask(new PathParameters(condition), startPrices, paths,
+            streamName, 0, paths.length, symbolsPerTask));
+    }
+
+    /**
+     * Step parameters of a batch, derived once from its market condition.
+     */
+    private static final class PathParameters {
+        final double walkScale;
+        final double trendScale;
+        final double spikeChance;
+        final double maxSpike;
+        final double volumeAdjustment;
+
+        PathParameters(MarketCondition condition) {
+            this.walkScale = BASE_MOVEMENT * condition.getVolatility();
+            this.trendScale = BASE_MOVEMENT * condition.getTrendStrength();
+            this.spikeChance = spikeChance(condition.getState());
+            this.maxSpike = maxSpike(condition.getState());
+            double volume = condition.getTradingVolume();
+            // Multiplying by exactly 1.0 leaves the factor unchanged, as adjustForVolume does for no volume
+            this.volumeAdjustment = volume > 0 ? Math.sqrt(1.0 / volume) : 1.0;
+        }
+    }
+
+    /**
+     * Simulates the paths of a range of symbols, splitting the range until it is small enough.
+     */
+    private final class PathTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PathParameters parameters;
+        private final double[] startPrices;
+        private final double[][] paths;
+        private final String streamName;
+        private final int from;
+        private final int to;
+        private final int symbolsPerTask;
+
+        PathTask(PathParameters parameters, double[] startPrices, double[][] paths, String streamName,
+                 int from, int to, int symbolsPerTask) {
+            this.parameters = parameters;
+            this.startPrices = startPrices;
+            this.paths = paths;
+            this.streamName = streamName;
+            this.from = from;
+            this.to = to;
+            this.symbolsPerTask = symbolsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > symbolsPerTask) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PathTask(parameters, startPrices, paths, streamName, from, middle, symbolsPerTask),
+                    new PathTask(parameters, startPrices, paths, streamName, middle, to, symbolsPerTask));
+                return;
+            }
+            int steps = 0;
+            for (int symbol = from; symbol < to; symbol++) {
+                steps = Math.max(steps, paths[symbol].length);
+            }
+            // Scratch space shared by the symbols of this leaf
+            double[] walk = new double[steps];
+            double[] trend = new double[steps];
+            double[] spike = new double[steps];
+            for (int symbol = from; symbol < to; symbol++) {
+                simulatePath(parameters, startPrices[symbol], paths[symbol],
+                    randomStreams.stream(streamName, symbol), walk, trend, spike);
+            }
+        }
+    }
+
+    private static void simulatePath(PathParameters parameters, double startPrice, double[] path,
+                                     SplittableRandom random, double[] walk, double[] trend, double[] spike) {
+        int steps = path.length;
+        if (steps == 0) {
+            return;
+        }
+
+        // Draws, in the order the scalar series makes them
+        double spikeChance = parameters.spikeChance;
+        double maxSpike = parameters.maxSpike;
+        for (int i = 1; i < steps; i++) {
+            walk[i] = RandomStreams.nextGaussian(random);
+            trend[i] = random.nextDouble();
+            double size = 0.0;
+            if (random.nextDouble() < spikeChance) {
+                size = maxSpike * random.nextDouble();
+                size = random.nextBoolean() ? size : -size;
+            }
+            spike[i] = size;
+        }
+
+        // Movement factors, the same arithmetic as generatePriceMovement and adjustForVolume
+        double walkScale = parameters.walkScale;
+        double trendScale = parameters.trendScale;
+        double volumeAdjustment = parameters.volumeAdjustment;
+        for (int i = 1; i < steps; i++) {
+            double change = walkScale * walk[i] + trendScale * (1.0 + (trend[i] - 0.5) * 0.5) + spike[i];
+            walk[i] = (1.0 + change) * volumeAdjustment;
+        }
+
+        // Compounding is a running product, so it stays scalar
+        path[0] = startPrice;
+        for (int i = 1; i < steps; i++) {
+            path[i] = path[i - 1] * walk[i];
+        }
+    }
+}
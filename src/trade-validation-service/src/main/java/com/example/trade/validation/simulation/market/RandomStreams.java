@@ -0,0 +1,87 @@
+package com.example.trade.validation.simulation.market;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+
+/**
+ * Source of the random number generators used by the simulation, all derived from
+ * one run seed.
+ * <p>
+ * Each symbol, generator thread or other consumer gets its own stream, named and
+ * optionally indexed, so no generator is shared between threads and the values a
+ * stream produces depend only on the run seed and its name. Running again with the
+ * logged seed replays every stream. A seed of 0 picks a new seed for each run.
+ * <p>
+ * Streams are {@link SplittableRandom}s and are not thread-safe; a stream used from
+ * more than one thread must be guarded by its user.
+ */
+@Component
+public class RandomStreams {
+    private static final Logger logger = LoggerFactory.getLogger(RandomStreams.class);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long runSeed;
+
+    @Autowired
+    public RandomStreams(@Value("${trade-validation.simulation.seed}") long seed) {
+        this.runSeed = seed != 0 ? seed : mix64(System.nanoTime() ^ System.currentTimeMillis() * GOLDEN_GAMMA);
+        logger.info("Simulation run seed: {}", runSeed);
+    }
+
+    /**
+     * Gets the seed all streams are derived from.
+     */
+    public long getRunSeed() {
+        return runSeed;
+    }
+
+    /**
+     * Creates the stream of a name, e.g. a symbol.
+     * @param name The stream name
+     * @return A new generator; the same name always yields the same sequence within a run seed
+     */
+    public SplittableRandom stream(String name) {
+        return stream(name, 0);
+    }
+
+    /**
+     * Creates one of several streams sharing a name, e.g. one per generator thread.
+     * @param name The stream name
+     * @param index The index within the name
+     * @return A new generator; the same name and index always yield the same sequence within a run seed
+     */
+    public SplittableRandom stream(String name, long index) {
+        // String.hashCode is specified, so stream seeds are stable across JVMs
+        return new SplittableRandom(mix64(runSeed + mix64(name.hashCode() * GOLDEN_GAMMA + index)));
+    }
+
+    /**
+     * Draws a standard normal value, as SplittableRandom has no nextGaussian.
+     * Uses the polar method and discards the second value, so no state is kept between calls.
+     * @param random The generator to draw from
+     * @return A normally distributed value with mean 0 and standard deviation 1
+     */
+    public static double nextGaussian(SplittableRandom random) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2.0 * random.nextDouble() - 1.0;
+            v = 2.0 * random.nextDouble() - 1.0;
+            s = u * u + v * v;
+        } while (s >= 1.0 || s == 0.0);
+        return u * Math.sqrt(-2.0 * Math.log(s) / s);
+    }
+
+    // Stafford variant 13 of the MurmurHash3 finalizer, as used to seed SplittableRandom
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.trade.validation.simulation.market;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.SplittableRandom;
+
+/**
+ * Simulated state of one symbol: its price, volatility override and tick sequence.
+ * <p>
+ * Ticks are serialized by a sequence lock. A writer claims the symbol by moving the
+ * sequence from even to odd with a CAS, draws from the symbol's random stream and
+ * writes the price, then publishes by moving the sequence to the next even value.
+ * Readers never block: they read the price between two reads of the same even
+ * sequence. Nothing is allocated per tick.
+ */
+final class SymbolState {
+    private static final VarHandle SEQUENCE;
+    private static final VarHandle PRICE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SEQUENCE = lookup.findVarHandle(SymbolState.class, "sequence", long.class);
+            PRICE = lookup.findVarHandle(SymbolState.class, "price", double.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final String symbol;
+    // Only used by the writer holding the sequence
+    private final SplittableRandom random;
+    // Even when idle, odd while the price is being written; twice the number of price updates
+    private long sequence;
+    // NaN until the symbol is first priced
+    private double price;
+    // Overrides the market volatility when not NaN
+    private volatile double volatility = Double.NaN;
+    // Moved by correlated market ticks rather than by its own ticks
+    private volatile boolean correlated;
+
+    SymbolState(String symbol, SplittableRandom random, double initialPrice) {
+        this.symbol = symbol;
+        this.random = random;
+        this.price = initialPrice;
+    }
+
+    /**
+     * Moves the price one tick.
+     * @param generator Draws the movement
+     * @param condition The market condition
+     * @param basePrice Price to start from if the symbol has no price yet
+     * @param minPrice Lowest price a tick may reach
+     * @return The new price
+     */
+    double tick(PriceMovementGenerator generator, MarketCondition condition, double basePrice, double minPrice) {
+        long claimed = claim();
+        try {
+            double current = (double) PRICE.get(this);
+            if (Double.isNaN(current)) {
+                current = basePrice;
+            }
+            double movement = generator.generatePriceMovement(condition, volatilityFor(condition), random);
+            double next = Math.max(minPrice, current * movement);
+            PRICE.setOpaque(this, next);
+            return next;
+        } finally {
+            SEQUENCE.setRelease(this, claimed + 1);
+        }
+    }
+
+    /**
+     * Moves the price one tick with a random walk shock drawn elsewhere, e.g. correlated
+     * with other symbols. A symbol without a price is left unpriced.
+     * @param generator Draws the rest of the movement
+     * @param condition The market condition
+     * @param shock Standard normal shock of the random walk
+     * @param minPrice Lowest price a tick may reach
+     * @return The new price, or NaN if the symbol has not been priced
+     */
+    double tickWithShock(PriceMovementGenerator generator, MarketCondition condition, double shock,
+                         double minPrice) {
+        long claimed = claim();
+        try {
+            double current = (double) PRICE.get(this);
+            if (Double.isNaN(current)) {
+                return current;
+            }
+            double movement = generator.generatePriceMovement(condition, volatilityFor(condition), shock, random);
+            double next = Math.max(minPrice, current * movement);
+            PRICE.setOpaque(this, next);
+            return next;
+        } finally {
+            SEQUENCE.setRelease(this, claimed + 1);
+        }
+    }
+
+    /**
+     * Sets the price if the symbol has none yet.
+     */
+    void initializePrice(double initialPrice) {
+        long claimed = claim();
+        try {
+            if (Double.isNaN((double) PRICE.get(this))) {
+                PRICE.setOpaque(this, initialPrice);
+            }
+        } finally {
+            SEQUENCE.setRelease(this, claimed + 1);
+        }
+    }
+
+    /**
+     * Reads the price of the last completed tick without blocking writers.
+     * @return The price, or NaN if the symbol has not been priced
+     */
+    double price() {
+        while (true) {
+            long before = (long) SEQUENCE.getAcquire(this);
+            if ((before & 1) == 0) {
+                double current = (double) PRICE.getOpaque(this);
+                VarHandle.loadLoadFence();
+                if ((long) SEQUENCE.getOpaque(this) == before) {
+                    return current;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Gets the number of completed price updates, counting the initial price.
+     */
+    long ticks() {
+        return ((long) SEQUENCE.getAcquire(this)) >>> 1;
+    }
+
+    double volatility() {
+        return volatility;
+    }
+
+    void setVolatility(double volatility) {
+        this.volatility = volatility;
+    }
+
+    boolean isCorrelated() {
+        return correlated;
+    }
+
+    void setCorrelated(boolean correlated) {
+        this.correlated = correlated;
+    }
+
+    private double volatilityFor(MarketCondition condition) {
+        double override = volatility;
+        return Double.isNaN(override) ? condition.getVolatility() : override;
+    }
+
+    /**
+     * Spins until this thread moves the sequence from even to odd.
+     * @return The odd sequence now held
+     */
+    private long claim() {
+        while (true) {
+            long current = (long) SEQUENCE.getVolatile(this);
+            if ((current & 1) == 0 && SEQUENCE.compareAndSet(this, current, current + 1)) {
+                // Readers must not see the new price without first seeing the odd sequence
+                VarHandle.storeStoreFence();
+                return current + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}